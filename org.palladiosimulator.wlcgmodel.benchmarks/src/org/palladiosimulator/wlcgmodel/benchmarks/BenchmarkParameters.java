@@ -0,0 +1,116 @@
+package org.palladiosimulator.wlcgmodel.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.palladiosimulator.wlcgmodel.JobTypeDescription;
+import org.palladiosimulator.wlcgmodel.NodeTypeDescription;
+import org.palladiosimulator.wlcgmodel.ParameterJSONImportHelper;
+
+/**
+ * This class locates the blueprint model and creates synthetic parameter sets of arbitrary size for
+ * the benchmarks.
+ *
+ * The locations default to the blueprint and sample parameters of the model construction plugin,
+ * relative to this plugin. They can be changed with the system properties
+ * <code>wlcgmodel.blueprint</code>, <code>wlcgmodel.nodes</code> and
+ * <code>wlcgmodel.jobs</code>.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public final class BenchmarkParameters {
+
+    private static final String PLUGIN_DIRECTORY = "../org.palladiosimulator.wlcgmodel/";
+
+    /**
+     * Do not allow instantiation of utility class.
+     */
+    private BenchmarkParameters() {
+    }
+
+    /**
+     * @return the directory containing the blueprint model
+     */
+    public static File getBlueprintDirectory() {
+        return new File(System.getProperty("wlcgmodel.blueprint", PLUGIN_DIRECTORY + "blueprint-wlcg"));
+    }
+
+    /**
+     * Create a synthetic list of node types by repeating the sample node types. Each node type gets
+     * a unique name.
+     *
+     * @param count
+     *            The number of node types to create.
+     * @return The node types.
+     */
+    public static List<NodeTypeDescription> createNodeTypes(int count) {
+        List<NodeTypeDescription> samples = readSamples(
+                System.getProperty("wlcgmodel.nodes", PLUGIN_DIRECTORY + "parameters/nodes.json"),
+                NodeTypeDescription[].class);
+
+        List<NodeTypeDescription> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            NodeTypeDescription sample = samples.get(i % samples.size());
+
+            NodeTypeDescription node = new NodeTypeDescription();
+            node.setName(sample.getName() + " #" + i);
+            node.setComputingRate(sample.getComputingRate());
+            node.setCores(sample.getCores());
+            node.setJobslots(sample.getJobslots());
+            node.setNodeCount(sample.getNodeCount());
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    /**
+     * Create a synthetic list of job types by repeating the sample job types. Each job type gets a
+     * unique name and the relative frequencies are scaled so that they sum up to one.
+     *
+     * @param count
+     *            The number of job types to create.
+     * @return The job types.
+     */
+    public static List<JobTypeDescription> createJobTypes(int count) {
+        List<JobTypeDescription> samples = readSamples(
+                System.getProperty("wlcgmodel.jobs", PLUGIN_DIRECTORY + "parameters/jobs.json"),
+                JobTypeDescription[].class);
+
+        List<JobTypeDescription> jobs = new ArrayList<>(count);
+        double frequencySum = 0;
+
+        for (int i = 0; i < count; i++) {
+            JobTypeDescription sample = samples.get(i % samples.size());
+
+            JobTypeDescription job = new JobTypeDescription();
+            job.setTypeName(sample.getTypeName() + "_" + i);
+            job.setInterarrivalStoEx(sample.getInterarrivalStoEx());
+            job.setCpuDemandStoEx(sample.getCpuDemandStoEx());
+            job.setIoTimeStoEx(sample.getIoTimeStoEx());
+            job.setIoTimeRatioStoEx(sample.getIoTimeRatioStoEx());
+            job.setRequiredJobslotsStoEx(sample.getRequiredJobslotsStoEx());
+            job.setRelativeFrequency(sample.getRelativeFrequency());
+            job.setSchedulingDelay(sample.getSchedulingDelay());
+            job.setUseIoRatio(sample.getUseIoRatio());
+            job.setResourceDemandRounds(sample.getResourceDemandRounds());
+
+            frequencySum += job.getRelativeFrequency();
+            jobs.add(job);
+        }
+
+        for (JobTypeDescription job : jobs) {
+            job.setRelativeFrequency(job.getRelativeFrequency() / frequencySum);
+        }
+        return jobs;
+    }
+
+    private static <T> List<T> readSamples(String path, Class<T[]> type) {
+        List<T> samples = ParameterJSONImportHelper.readParameterFile(new File(path), type);
+        if (samples == null || samples.isEmpty()) {
+            throw new IllegalStateException("Could not read sample parameters from " + path);
+        }
+        return samples;
+    }
+}
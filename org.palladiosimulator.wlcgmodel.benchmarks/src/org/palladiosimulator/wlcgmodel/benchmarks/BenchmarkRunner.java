@@ -0,0 +1,88 @@
+package org.palladiosimulator.wlcgmodel.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Command line launcher for the model construction benchmarks. The results are written in the JMH
+ * JSON format, so the results of different revisions can be compared.
+ *
+ * Usage: <code>BenchmarkRunner &lt;result directory&gt; &lt;revision&gt; [benchmark pattern]</code>
+ *
+ * The results are written to <code>&lt;result directory&gt;/jmh-&lt;revision&gt;.json</code>.
+ * The benchmark pattern is a regular expression selecting the benchmarks to run, by default all
+ * benchmarks of this package are run.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public final class BenchmarkRunner {
+
+    private static final String DEFAULT_PATTERN = BenchmarkRunner.class.getPackage().getName() + ".*";
+
+    /**
+     * Do not allow instantiation of launcher class.
+     */
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Run the benchmarks.
+     *
+     * @param args
+     *            The result directory, the revision label and optionally the benchmark pattern.
+     * @throws RunnerException
+     *             Thrown if the benchmarks could not be run.
+     */
+    public static void main(String[] args) throws RunnerException {
+        if (args.length != 2 && args.length != 3) {
+            System.out.println("Usage: BenchmarkRunner <result directory> <revision> [benchmark pattern]");
+            System.exit(1);
+        }
+
+        File resultDirectory = new File(args[0]);
+        if (!resultDirectory.isDirectory() && !resultDirectory.mkdirs()) {
+            System.out.println("Could not create result directory " + resultDirectory);
+            System.exit(2);
+        }
+
+        File resultFile = new File(resultDirectory, "jmh-" + args[1] + ".json");
+        String pattern = args.length == 3 ? args[2] : DEFAULT_PATTERN;
+
+        Options options = new OptionsBuilder().include(pattern).resultFormat(ResultFormatType.JSON)
+                .result(resultFile.getAbsolutePath()).build();
+        new Runner(options).run();
+
+        System.out.println("Benchmark results written to " + resultFile);
+    }
+
+    /**
+     * Delete a directory and all files contained in it.
+     *
+     * @param directory
+     *            The directory to delete. If it does not exist, do nothing.
+     * @throws IOException
+     *             Thrown if a file could not be deleted.
+     */
+    static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.palladiosimulator.wlcgmodel.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.palladiosimulator.wlcgmodel.BlueprintTemplate;
+import org.palladiosimulator.wlcgmodel.JobTypeDescription;
+import org.palladiosimulator.wlcgmodel.NodeTypeDescription;
+import org.palladiosimulator.wlcgmodel.WLCGModelConstructor;
+import org.palladiosimulator.wlcgmodel.headless.StandaloneEMFSetup;
+import org.palladiosimulator.wlcgmodel.util.ModelSaveReport;
+
+/**
+ * Benchmark of the complete model construction for synthetic parameter sets of different sizes.
+ *
+ * Each invocation completes a fresh in-memory instance of the blueprint template and saves the
+ * models to a temporary directory, so the measured time includes saving the models.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CompleteModelsBenchmark {
+
+    /**
+     * The number of node types in the synthetic parameter set.
+     */
+    @Param({ "1", "10", "100", "500" })
+    public int nodeTypes;
+
+    /**
+     * The number of job types in the synthetic parameter set.
+     */
+    @Param({ "1", "10", "50", "200" })
+    public int jobTypes;
+
+    private BlueprintTemplate template;
+    private List<NodeTypeDescription> nodes;
+    private List<JobTypeDescription> jobs;
+    private File outputDirectory;
+    private ResourceSet resourceSet;
+
+    /**
+     * Parse the blueprint template and create the synthetic parameter set.
+     *
+     * @throws IOException
+     *             Thrown if the blueprint could not be read.
+     */
+    @Setup(Level.Trial)
+    public void prepareTrial() throws IOException {
+        StandaloneEMFSetup.initialize();
+
+        this.template = BlueprintTemplate
+                .forBlueprint(URI.createFileURI(BenchmarkParameters.getBlueprintDirectory().getAbsolutePath()));
+        this.nodes = BenchmarkParameters.createNodeTypes(this.nodeTypes);
+        this.jobs = BenchmarkParameters.createJobTypes(this.jobTypes);
+    }
+
+    /**
+     * Instantiate the template into a new temporary directory.
+     *
+     * @throws IOException
+     *             Thrown if the temporary directory could not be created.
+     */
+    @Setup(Level.Invocation)
+    public void prepareInvocation() throws IOException {
+        this.outputDirectory = Files.createTempDirectory("wlcgmodel-benchmark").toFile();
+        this.resourceSet = this.template.instantiate(URI.createFileURI(this.outputDirectory.getAbsolutePath()));
+    }
+
+    /**
+     * Delete the models written by the invocation.
+     *
+     * @throws IOException
+     *             Thrown if the temporary directory could not be deleted.
+     */
+    @TearDown(Level.Invocation)
+    public void cleanUp() throws IOException {
+        BenchmarkRunner.deleteRecursively(this.outputDirectory.toPath());
+    }
+
+    /**
+     * @return the report of saving the completed models
+     */
+    @Benchmark
+    public ModelSaveReport completeModels() {
+        WLCGModelConstructor constructor = new WLCGModelConstructor();
+        ModelSaveReport report = constructor.completeModels(this.resourceSet,
+                URI.createFileURI(this.outputDirectory.getAbsolutePath()), this.nodes, this.jobs);
+
+        if (report.hasErrors()) {
+            throw new IllegalStateException("Saving the completed models failed: " + report);
+        }
+        return report;
+    }
+}
@@ -0,0 +1,144 @@
+package org.palladiosimulator.wlcgmodel.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.palladiosimulator.pcm.seff.BranchAction;
+import org.palladiosimulator.pcm.seff.ForkAction;
+import org.palladiosimulator.pcm.seff.ResourceDemandingSEFF;
+import org.palladiosimulator.wlcgmodel.ModelConstructionUtils;
+import org.palladiosimulator.wlcgmodel.headless.StandaloneEMFSetup;
+import org.palladiosimulator.wlcgmodel.util.ModelSerialization;
+
+/**
+ * Benchmarks for the copy and ID rewriting helpers that dominate the repository construction.
+ *
+ * All benchmarks work on the job SEFF of the blueprint repository, which is loaded once per trial.
+ * Only the duplication of the fork action depends on the number of threads, so the thread counts
+ * are a parameter of its own state and do not repeat the other benchmarks. Likewise, the SEFF copy
+ * that appending IDs needs before every invocation is a state of its own.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ModelConstructionUtilsBenchmark {
+
+    private static final String BLUEPRINT_JOB_SEFF = "WLCGBlueprint_runBlueprintJobSEFF";
+    private static final String BLUEPRINT_FORK_ACTION = "blueprintForkAction";
+    private static final String REPOSITORY_FILENAME = "jobs.repository";
+
+    private ResourceDemandingSEFF seff;
+    private ForkAction forkAction;
+
+    /**
+     * Load the blueprint repository and find the objects used by the benchmarks.
+     */
+    @Setup(Level.Trial)
+    public void loadBlueprint() {
+        StandaloneEMFSetup.initialize();
+
+        URI repositoryURI = URI.createFileURI(BenchmarkParameters.getBlueprintDirectory().getAbsolutePath())
+                .appendSegment(REPOSITORY_FILENAME);
+        Resource repository = ModelSerialization.createResourceSet().getResource(repositoryURI, true);
+        EcoreUtil.resolveAll(repository);
+
+        this.seff = ModelConstructionUtils.findObjectWithId(repository, BLUEPRINT_JOB_SEFF,
+                ResourceDemandingSEFF.class);
+        if (this.seff == null) {
+            throw new IllegalStateException("Could not find job SEFF in " + repositoryURI);
+        }
+
+        this.forkAction = (ForkAction) ModelConstructionUtils.findObjectWithIdRecursively(this.seff,
+                BLUEPRINT_FORK_ACTION);
+        if (this.forkAction == null) {
+            throw new IllegalStateException("Could not find fork action in " + repositoryURI);
+        }
+    }
+
+    /**
+     * @return a copy of the job SEFF with new IDs
+     */
+    @Benchmark
+    public ResourceDemandingSEFF copyChangeIds() {
+        return ModelConstructionUtils.copyChangeIds(this.seff);
+    }
+
+    /**
+     * @param seffCopy
+     *            The state holding a fresh copy of the job SEFF.
+     * @return the job SEFF copy with a suffix appended to all IDs
+     */
+    @Benchmark
+    public ResourceDemandingSEFF appendIDsRecursively(SeffCopy seffCopy) {
+        ModelConstructionUtils.appendIDsRecursively(seffCopy.seff, "_benchmark");
+        return seffCopy.seff;
+    }
+
+    /**
+     * @param threadCounts
+     *            The state holding the maximum number of threads.
+     * @return the branch action containing one copy of the fork action per thread count
+     */
+    @Benchmark
+    public BranchAction duplicateBehaviours(ThreadCounts threadCounts) {
+        return ModelConstructionUtils.duplicateBehaviours(this.forkAction, "threadCount", threadCounts.maxThreads);
+    }
+
+    /**
+     * The thread counts the fork action is duplicated for.
+     */
+    @State(Scope.Benchmark)
+    public static class ThreadCounts {
+
+        /**
+         * The maximum number of threads the blueprint fork action is duplicated for.
+         */
+        @Param({ "1", "2", "4", "8", "16", "32" })
+        public int maxThreads;
+    }
+
+    /**
+     * A fresh copy of the job SEFF for every invocation, as appending IDs changes it inplace. The
+     * copy is a state of its own, so that only the benchmark using it pays for the per-invocation
+     * setup.
+     */
+    @State(Scope.Thread)
+    public static class SeffCopy {
+
+        /**
+         * The copy of the job SEFF.
+         */
+        public ResourceDemandingSEFF seff;
+
+        /**
+         * Copy the job SEFF before each invocation.
+         *
+         * @param benchmark
+         *            The benchmark state holding the blueprint job SEFF.
+         */
+        @Setup(Level.Invocation)
+        public void copySeff(ModelConstructionUtilsBenchmark benchmark) {
+            this.seff = EcoreUtil.copy(benchmark.seff);
+        }
+    }
+}
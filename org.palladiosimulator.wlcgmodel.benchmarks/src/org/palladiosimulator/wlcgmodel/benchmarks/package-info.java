@@ -0,0 +1,7 @@
+/**
+ * This package contains JMH benchmarks for the hot paths of the simulation model construction.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+package org.palladiosimulator.wlcgmodel.benchmarks;
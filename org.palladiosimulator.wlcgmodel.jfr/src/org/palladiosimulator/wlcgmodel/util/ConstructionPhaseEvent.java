@@ -0,0 +1,56 @@
+package org.palladiosimulator.wlcgmodel.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a timed section of a model construction phase. This class is part of a
+ * fragment, as the host plugin is compiled without the Java Flight Recorder API.
+ * {@link ConstructionMetrics} loads it by reflection if it is available.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+@Name("org.palladiosimulator.wlcgmodel.ConstructionPhase")
+@Label("Model Construction Phase")
+@Category("WLCG Model Construction")
+@Description("A timed section of a phase of the simulation model construction")
+class ConstructionPhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Type")
+    @Description("The node or job type constructed in this section, if any")
+    String typeName;
+
+    /**
+     * Create and begin a new event.
+     *
+     * @param phase
+     *            The name of the phase.
+     * @param typeName
+     *            The name of the node or job type, or null.
+     * @return The event, typed as object so that callers do not need to load this class.
+     */
+    static Object begin(String phase, String typeName) {
+        ConstructionPhaseEvent event = new ConstructionPhaseEvent();
+        event.phase = phase;
+        event.typeName = typeName;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End and commit an event created by {@link #begin(String, String)}.
+     *
+     * @param event
+     *            The event.
+     */
+    static void commit(Object event) {
+        ((ConstructionPhaseEvent) event).commit();
+    }
+}
@@ -0,0 +1,102 @@
+package org.palladiosimulator.wlcgmodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.palladiosimulator.wlcgmodel.util.DoublePdf;
+import org.palladiosimulator.wlcgmodel.util.StoExParsingHelper;
+
+/**
+ * Tests for {@link DemandDistributionCompaction}, which reparse the compacted distributions written
+ * to the job type descriptions.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class DemandDistributionCompactionTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void compactedDistributionsRoundTrip() {
+        JobTypeDescription jobType = jobType("analysis", histogram(120, 2.0), histogram(80, 0.01));
+        String originalCpuDemand = jobType.getCpuDemandStoEx();
+
+        List<DemandDistributionCompaction.Result> results = new DemandDistributionCompaction(8,
+                Double.POSITIVE_INFINITY).compact(Arrays.asList(jobType));
+
+        assertEquals(2, results.size());
+        for (String stoEx : Arrays.asList(jobType.getCpuDemandStoEx(), jobType.getIoTimeRatioStoEx())) {
+            assertFalse(stoEx, stoEx.matches(".*\\d[eE].*"));
+            DoublePdf compacted = DoublePdf.parse(stoEx);
+            assertTrue(compacted.size() <= 8);
+            assertEquals(1, sum(compacted.getProbabilities()), DELTA);
+        }
+
+        DemandDistributionCompaction.Result cpuDemand = results.get(0);
+        assertEquals("cpuDemandStoEx", cpuDemand.getField());
+        assertEquals(120, cpuDemand.getOriginalBins());
+        assertEquals(cpuDemand.getKsDistance(),
+                DoublePdf.parse(jobType.getCpuDemandStoEx()).ksDistance(DoublePdf.parse(originalCpuDemand)), DELTA);
+        assertEquals(StoExParsingHelper.mean(jobType.getCpuDemandStoEx()) / StoExParsingHelper.mean(originalCpuDemand)
+                - 1, cpuDemand.getMeanChange(), 1e-6);
+    }
+
+    @Test
+    public void otherDistributionsAreKept() {
+        JobTypeDescription jobType = jobType("production", "DoublePDF[(10;0.5)(20;0.5)]", null);
+        jobType.setIoTimeStoEx("15.0");
+
+        List<DemandDistributionCompaction.Result> results = new DemandDistributionCompaction(0, 0.05)
+                .compact(Arrays.asList(jobType));
+
+        assertEquals(1, results.size());
+        assertEquals("15.0", jobType.getIoTimeStoEx());
+        assertEquals(0, results.get(0).getKsDistance(), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidDistributionIsRejected() {
+        new DemandDistributionCompaction(8, Double.POSITIVE_INFINITY)
+                .compact(Arrays.asList(jobType("broken", "DoublePDF[(20;0.5)(10;0.5)]", null)));
+    }
+
+    static JobTypeDescription jobType(String name, String cpuDemandStoEx, String ioTimeRatioStoEx) {
+        JobTypeDescription jobType = new JobTypeDescription();
+        jobType.setTypeName(name);
+        jobType.setCpuDemandStoEx(cpuDemandStoEx);
+        jobType.setIoTimeRatioStoEx(ioTimeRatioStoEx);
+        return jobType;
+    }
+
+    /**
+     * Create the stochastic expression of a skewed histogram whose probabilities sum up to one.
+     */
+    static String histogram(int bins, double binWidth) {
+        double[] upperBounds = new double[bins];
+        double[] probabilities = new double[bins];
+        double total = 0;
+        for (int i = 0; i < bins; i++) {
+            upperBounds[i] = binWidth * (i + 1);
+            probabilities[i] = Math.exp(-i / 15.0) * (1 + (i % 4) / 8.0);
+            total += probabilities[i];
+        }
+        for (int i = 0; i < bins; i++) {
+            probabilities[i] /= total;
+        }
+        return new DoublePdf(upperBounds, probabilities).toStoEx();
+    }
+
+    static double sum(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
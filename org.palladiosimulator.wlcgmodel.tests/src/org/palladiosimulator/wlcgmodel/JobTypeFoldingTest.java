@@ -0,0 +1,100 @@
+package org.palladiosimulator.wlcgmodel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.palladiosimulator.wlcgmodel.util.DoublePdf;
+import org.palladiosimulator.wlcgmodel.util.StoExParsingHelper;
+
+/**
+ * Tests for {@link JobTypeFolding}, which reparse the distributions of the synthetic job types.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class JobTypeFoldingTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void foldedDistributionsRoundTrip() {
+        JobTypeDescription common = jobType("common", 0.9, "DoublePDF[(100;1)]", "IntPMF[(1;1)]");
+        JobTypeDescription rare = jobType("rare", 0.0001, "DoublePDF[(10;0.5)(20;0.5)]",
+                "IntPMF[(1;0.9999)(8;0.0001)]");
+        JobTypeDescription rarer = jobType("rarer", 0.00005, "DoublePDF[(30;0.0000001)(40;0.9999999)]",
+                "IntPMF[(1;1)]");
+
+        List<JobTypeDescription> folded = new JobTypeFolding(0.01).fold(Arrays.asList(common, rare, rarer));
+
+        assertEquals(2, folded.size());
+        assertEquals(common, folded.get(0));
+        JobTypeDescription other = folded.get(1);
+        assertEquals(JobTypeFolding.OTHER_TYPE_NAME, other.getTypeName());
+        assertEquals(0.90015, folded.stream().mapToDouble(JobTypeDescription::getRelativeFrequency).sum(), DELTA);
+
+        for (String stoEx : Arrays.asList(other.getCpuDemandStoEx(), other.getIoTimeStoEx(),
+                other.getRequiredJobslotsStoEx())) {
+            assertNotNull(stoEx);
+            assertFalse(stoEx, stoEx.matches(".*\\d[eE].*"));
+        }
+
+        DoublePdf cpuDemand = DoublePdf.parse(other.getCpuDemandStoEx());
+        assertEquals(1, DemandDistributionCompactionTest.sum(cpuDemand.getProbabilities()), DELTA);
+        double rareShare = 0.0001 / 0.00015;
+        assertEquals(rareShare * StoExParsingHelper.mean(rare.getCpuDemandStoEx())
+                + (1 - rareShare) * StoExParsingHelper.mean(rarer.getCpuDemandStoEx()), cpuDemand.mean(), DELTA);
+
+        Map<Integer, Double> jobslots = StoExParsingHelper.parseIntPmf(other.getRequiredJobslotsStoEx());
+        assertEquals(1, jobslots.values().stream().mapToDouble(Double::doubleValue).sum(), DELTA);
+        assertEquals(rareShare * 0.0001, jobslots.get(8), DELTA);
+    }
+
+    @Test
+    public void ioRatioTypesAreFoldedSeparately() {
+        JobTypeDescription common = jobType("common", 0.9, "DoublePDF[(100;1)]", "1");
+        JobTypeDescription directIo = jobType("direct", 0.001, "DoublePDF[(10;1)]", "1");
+        JobTypeDescription otherDirectIo = jobType("direct2", 0.001, "DoublePDF[(20;1)]", "2");
+        JobTypeDescription ioRatio = jobType("ratio", 0.001, "DoublePDF[(10;1)]", "1");
+        ioRatio.setUseIoRatio(true);
+        ioRatio.setIoTimeRatioStoEx("DoublePDF[(0.5;1)]");
+
+        List<JobTypeDescription> folded = new JobTypeFolding(0.01)
+                .fold(Arrays.asList(common, directIo, ioRatio, otherDirectIo));
+
+        // A single rare job type with an I/O ratio is kept
+        assertEquals(Arrays.asList("common", "ratio", JobTypeFolding.OTHER_TYPE_NAME),
+                Arrays.asList(folded.get(0).getTypeName(), folded.get(1).getTypeName(), folded.get(2).getTypeName()));
+        assertEquals(3, folded.size());
+        assertEquals(0.903, folded.stream().mapToDouble(JobTypeDescription::getRelativeFrequency).sum(), DELTA);
+        assertEquals(1.5, StoExParsingHelper.mean(folded.get(2).getRequiredJobslotsStoEx()), DELTA);
+    }
+
+    @Test
+    public void frequentTypesAreKept() {
+        List<JobTypeDescription> jobTypes = Arrays.asList(jobType("a", 0.5, "DoublePDF[(10;1)]", "1"),
+                jobType("b", 0.5, "DoublePDF[(20;1)]", "1"));
+
+        List<JobTypeDescription> folded = new JobTypeFolding(0.01).fold(jobTypes);
+
+        assertTrue(folded.equals(jobTypes));
+    }
+
+    static JobTypeDescription jobType(String name, double relativeFrequency, String demandStoEx,
+            String requiredJobslotsStoEx) {
+        JobTypeDescription jobType = new JobTypeDescription();
+        jobType.setTypeName(name);
+        jobType.setRelativeFrequency(relativeFrequency);
+        jobType.setCpuDemandStoEx(demandStoEx);
+        jobType.setIoTimeStoEx(demandStoEx);
+        jobType.setRequiredJobslotsStoEx(requiredJobslotsStoEx);
+        jobType.setResourceDemandRounds("1");
+        return jobType;
+    }
+}
@@ -0,0 +1,111 @@
+package org.palladiosimulator.wlcgmodel.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Tests for the parsing, formatting and compaction of {@link DoublePdf}.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class DoublePdfTest {
+
+    static final Pattern EXPONENT = Pattern.compile("\\d[eE]");
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void parsedPdfRoundTripsThroughStoEx() {
+        DoublePdf pdf = DoublePdf.parse("DoublePDF[(10.0;0.25)(20.0;0.5)(40.0;0.25)]");
+
+        DoublePdf reparsed = DoublePdf.parse(pdf.toStoEx());
+
+        assertArrayEquals(new double[] { 10, 20, 40 }, reparsed.getUpperBounds(), DELTA);
+        assertArrayEquals(new double[] { 0.25, 0.5, 0.25 }, reparsed.getProbabilities(), DELTA);
+        assertEquals(16.25, reparsed.mean(), DELTA);
+    }
+
+    @Test
+    public void smallProbabilitiesAreWrittenWithoutExponent() {
+        DoublePdf pdf = new DoublePdf(new double[] { 0.00001, 2, 30000000 },
+                new double[] { 0.0000001, 0.9999998, 0.0000001 });
+
+        String stoEx = pdf.toStoEx();
+
+        assertFalse(stoEx, EXPONENT.matcher(stoEx).find());
+        assertArrayEquals(pdf.getUpperBounds(), DoublePdf.parse(stoEx).getUpperBounds(), 0);
+        assertArrayEquals(pdf.getProbabilities(), DoublePdf.parse(stoEx).getProbabilities(), 0);
+    }
+
+    @Test
+    public void compactionPreservesTotalProbability() {
+        DoublePdf pdf = histogram(200);
+
+        DoublePdf compacted = DoublePdf.parse(pdf.compact(16, Double.POSITIVE_INFINITY).toStoEx());
+
+        assertTrue(compacted.size() <= 16);
+        assertEquals(sum(pdf.getProbabilities()), sum(compacted.getProbabilities()), DELTA);
+        assertEquals(pdf.getUpperBounds()[pdf.size() - 1], compacted.getUpperBounds()[compacted.size() - 1], 0);
+        assertEquals(1, compacted.cdf(compacted.getUpperBounds()[compacted.size() - 1]), DELTA);
+    }
+
+    @Test
+    public void compactionStaysWithinDistance() {
+        DoublePdf pdf = histogram(200);
+
+        DoublePdf compacted = pdf.compact(0, 0.01);
+
+        assertTrue(compacted.size() < pdf.size());
+        assertTrue(compacted.ksDistance(pdf) <= 0.01 + DELTA);
+        assertEquals(sum(pdf.getProbabilities()), sum(compacted.getProbabilities()), DELTA);
+    }
+
+    @Test
+    public void mixtureWeighsTheMeans() {
+        DoublePdf first = DoublePdf.parse("DoublePDF[(10;1)]");
+        DoublePdf second = DoublePdf.parse("DoublePDF[(20;0.5)(40;0.5)]");
+
+        DoublePdf mixture = DoublePdf.mixture(new DoublePdf[] { first, second }, new double[] { 3, 7 });
+
+        assertEquals(1, sum(mixture.getProbabilities()), DELTA);
+        assertEquals(0.3 * first.mean() + 0.7 * second.mean(), mixture.mean(), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decreasingBoundsAreRejected() {
+        DoublePdf.parse("DoublePDF[(20;0.5)(10;0.5)]");
+    }
+
+    /**
+     * Create a skewed histogram with equally wide bins whose probabilities sum up to one.
+     */
+    static DoublePdf histogram(int bins) {
+        double[] upperBounds = new double[bins];
+        double[] probabilities = new double[bins];
+        double total = 0;
+        for (int i = 0; i < bins; i++) {
+            upperBounds[i] = 0.5 * (i + 1);
+            probabilities[i] = Math.exp(-i / 20.0) * (1 + (i % 3) / 10.0);
+            total += probabilities[i];
+        }
+        for (int i = 0; i < bins; i++) {
+            probabilities[i] /= total;
+        }
+        return new DoublePdf(upperBounds, probabilities);
+    }
+
+    static double sum(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,65 @@
+package org.palladiosimulator.wlcgmodel.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link StoExParsingHelper}.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class StoExParsingHelperTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void intPmfSamplesAreMerged() {
+        Map<Integer, Double> samples = StoExParsingHelper.parseIntPmf("IntPMF[(1;0.5)(4;0.25) (1;0.25)]");
+
+        assertEquals(2, samples.size());
+        assertEquals(0.75, samples.get(1), DELTA);
+        assertEquals(0.25, samples.get(4), DELTA);
+    }
+
+    @Test
+    public void intLiteralIsReadAsSingleSample() {
+        Map<Integer, Double> samples = StoExParsingHelper.parseIntPmf("8");
+
+        assertEquals(1, samples.size());
+        assertEquals(1, samples.get(8), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedIntPmfIsRejected() {
+        StoExParsingHelper.parseIntPmf("IntPMF[(1;0.5)(4;]");
+    }
+
+    @Test
+    public void pdfsAreRecognized() {
+        assertTrue(StoExParsingHelper.isDoublePdf("DoublePDF[(10.0;0.5)(20.0;0.5)]"));
+        assertFalse(StoExParsingHelper.isDoublePdf("IntPMF[(1;1.0)]"));
+        assertFalse(StoExParsingHelper.isDoublePdf(null));
+    }
+
+    @Test
+    public void pdfSamplesKeepTheirOrder() {
+        Map<Double, Double> samples = StoExParsingHelper.parseDoublePdf("DoublePDF[(10.0;0.25)(20.0;0.75)]");
+
+        assertEquals(2, samples.size());
+        assertEquals(Double.valueOf(10), samples.keySet().iterator().next());
+        assertEquals(0.75, samples.get(20.0), DELTA);
+    }
+
+    @Test
+    public void meanNormalizesProbabilities() {
+        assertEquals(2.5, StoExParsingHelper.mean("2.5"), DELTA);
+        assertEquals(2.5, StoExParsingHelper.mean("IntPMF[(1;1)(4;1)]"), DELTA);
+        assertEquals(10, StoExParsingHelper.mean("DoublePDF[(10;0.5)(20;0.5)]"), DELTA);
+    }
+}
@@ -1,8 +1,11 @@
 package org.palladiosimulator.wlcgmodel;
 
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
+import org.palladiosimulator.wlcgmodel.util.RepresentationsCreationListener;
 
 /**
  * The activator class controls the plug-in life cycle
@@ -15,6 +18,9 @@ public class Activator extends AbstractUIPlugin {
     // The shared instance
     private static Activator plugin;
 
+    // Adds the Sirius representations to WLCG model projects when they are first used in Sirius
+    private final RepresentationsCreationListener representationsListener = new RepresentationsCreationListener();
+
     /**
      * The constructor
      */
@@ -30,6 +36,8 @@ public class Activator extends AbstractUIPlugin {
     public void start(final BundleContext context) throws Exception {
         super.start(context);
         plugin = this;
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(this.representationsListener,
+                IResourceChangeEvent.POST_CHANGE);
     }
 
     /*
@@ -39,6 +47,7 @@ public class Activator extends AbstractUIPlugin {
      */
     @Override
     public void stop(final BundleContext context) throws Exception {
+        ResourcesPlugin.getWorkspace().removeResourceChangeListener(this.representationsListener);
         plugin = null;
         super.stop(context);
     }
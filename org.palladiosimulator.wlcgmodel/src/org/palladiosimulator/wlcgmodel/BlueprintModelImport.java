@@ -1,11 +1,16 @@
 package org.palladiosimulator.wlcgmodel;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.core.resources.IProject;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.palladiosimulator.wlcgmodel.util.ModelSaveReport;
 import org.palladiosimulator.wlcgmodel.util.ProjectCreationHelper;
 
 /**
@@ -16,6 +21,10 @@ import org.palladiosimulator.wlcgmodel.util.ProjectCreationHelper;
  */
 public class BlueprintModelImport {
 
+    /** Blueprint files that are not imported into a workspace project. */
+    private static final Set<String> PROJECT_EXCLUDED_FILES = new HashSet<>(Arrays.asList(
+            ProjectCreationHelper.REPRESENTATIONS_FILENAME, ProjectCreationHelper.PROJECT_DESCRIPTION_FILENAME));
+
     /**
      * Import models from supplied path to the project, load parameter set and complete simulation
      * model.
@@ -34,37 +43,367 @@ public class BlueprintModelImport {
             File jobDescriptionFile) {
 
         // Find parameter files and import data
+        ParameterSet parameters = readParameters(nodeDescriptionFile, jobDescriptionFile, null);
+        if (parameters == null) {
+            return false;
+        }
 
-        List<NodeTypeDescription> nodes = ParameterJSONImportHelper.readParameterFile(nodeDescriptionFile,
-                NodeTypeDescription[].class);
+        // Compute project location. The models are written through the workspace, so that the
+        // project is refreshed.
+        URI projectURI = URI.createPlatformResourceURI(project.getFullPath().toString(), true);
 
-        if (nodes == null) {
-            System.out.println("Something went wrong when importing jobs types!");
+        // Start from an in-memory copy of the blueprint, which is only parsed once per JVM. The
+        // Sirius representations are not required for the construction and are only added when
+        // they are needed, the project description must not replace the project's own.
+        ResourceSet resourceSet;
+        try {
+            BlueprintTemplate template = BlueprintTemplate.forBlueprint(blueprintPath);
+            resourceSet = template.instantiate(projectURI);
+            template.writeOtherFiles(resourceSet.getURIConverter(), projectURI, PROJECT_EXCLUDED_FILES);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Something went wrong when importing blueprint model files: " + e);
             return false;
         }
 
-        List<JobTypeDescription> jobs = ParameterJSONImportHelper.readParameterFile(jobDescriptionFile,
-                JobTypeDescription[].class);
+        // Workspace files can only be written by threads that may acquire the caller's scheduling
+        // rule, e.g. the one of the new project wizard, so the models are saved sequentially
+        ModelConstructionOptions options = new ModelConstructionOptions();
+        options.setParallelSaving(false);
+
+        WLCGModelConstructor completion = new WLCGModelConstructor(options);
+        ModelSaveReport saveReport = completion.completeModels(resourceSet, projectURI, parameters.nodes,
+                parameters.jobs);
+
+        return !saveReport.hasErrors();
+    }
+
+    /**
+     * Import models from the supplied blueprint directory to an output directory in the file
+     * system, load parameter set and complete simulation model. This does not require a running
+     * Eclipse workspace.
+     *
+     * @param blueprintDirectory
+     *            The directory containing the original blueprint models.
+     * @param outputDirectory
+     *            The directory the simulation model will be created in. It is created if it does
+     *            not exist yet.
+     * @param nodeDescriptionFile
+     *            The file containing the node descriptions in JSON format.
+     * @param jobDescriptionFile
+     *            The file containing job descriptions in JSON format.
+     * @return True if the model completion succeeds, else false.
+     */
+    public static boolean importAndCompleteBlueprintModel(File blueprintDirectory, File outputDirectory,
+            File nodeDescriptionFile, File jobDescriptionFile) {
+        return importAndCompleteBlueprintModel(blueprintDirectory, outputDirectory, nodeDescriptionFile,
+                jobDescriptionFile, new ModelConstructionOptions());
+    }
+
+    /**
+     * Import models from the supplied blueprint directory to an output directory in the file
+     * system, load parameter set and complete simulation model using the given construction
+     * options. This does not require a running Eclipse workspace.
+     *
+     * If a model cache directory is configured in the options and a model set has been constructed
+     * from identical blueprint and parameter files and options before, it is copied from the cache
+     * instead, see {@link ConstructedModelCache}.
+     *
+     * @param blueprintDirectory
+     *            The directory containing the original blueprint models.
+     * @param outputDirectory
+     *            The directory the simulation model will be created in. It is created if it does
+     *            not exist yet.
+     * @param nodeDescriptionFile
+     *            The file containing the node descriptions in JSON format.
+     * @param jobDescriptionFile
+     *            The file containing job descriptions in JSON format.
+     * @param options
+     *            The options controlling the model construction.
+     * @return True if the model completion succeeds, else false.
+     */
+    public static boolean importAndCompleteBlueprintModel(File blueprintDirectory, File outputDirectory,
+            File nodeDescriptionFile, File jobDescriptionFile, ModelConstructionOptions options) {
+
+        // Reuse a model set constructed from identical input, skipping the construction entirely
+        ConstructedModelCache cache = null;
+        String cacheKey = null;
+        if (options.getModelCacheDirectory() != null) {
+            cache = new ConstructedModelCache(options.getModelCacheDirectory(), options.getModelCacheSize());
+            try {
+                cacheKey = ConstructedModelCache.computeKey(blueprintDirectory, nodeDescriptionFile,
+                        jobDescriptionFile, options);
+                if (cache.restore(cacheKey, outputDirectory)) {
+                    System.out.println("Reused cached models " + cacheKey);
+                    return true;
+                }
+            } catch (IOException e) {
+                System.out.println("Could not read the model cache, constructing the models: " + e);
+                cacheKey = null;
+            }
+        }
 
-        if (jobs == null) {
-            System.out.println("Something went wrong when importing jobs types!");
+        ParameterSet parameters = readParameters(nodeDescriptionFile, jobDescriptionFile, options);
+        if (parameters == null) {
             return false;
         }
 
-        // Copy original blueprint to project location
+        URI outputURI = URI.createFileURI(outputDirectory.getAbsolutePath());
+
+        // Start from an in-memory copy of the blueprint, which is only parsed once per JVM
+        ResourceSet resourceSet;
         try {
-            ProjectCreationHelper.addToProject(blueprintPath, project, null);
-        } catch (CoreException e) {
-            System.out.println("Something went wrong when importing blueprint model files.");
+            BlueprintTemplate template = BlueprintTemplate
+                    .forBlueprint(URI.createFileURI(blueprintDirectory.getAbsolutePath()));
+            resourceSet = template.instantiate(outputURI);
+            template.writeOtherFiles(resourceSet.getURIConverter(), outputURI);
+        } catch (IOException e) {
+            System.out.println("Something went wrong when copying blueprint model files: " + e);
             return false;
         }
 
-        // Compute project location
-        URI projectURI = URI.createURI(project.getFullPath().toString());
+        WLCGModelConstructor completion = new WLCGModelConstructor(options);
+        ModelSaveReport saveReport = completion.completeModels(resourceSet, outputURI, parameters.nodes,
+                parameters.jobs);
 
-        WLCGModelConstructor completion = new WLCGModelConstructor();
-        completion.completeModels(projectURI, nodes, jobs);
+        if (saveReport.hasErrors()) {
+            return false;
+        }
 
+        if (cacheKey != null) {
+            try {
+                cache.store(cacheKey, outputDirectory);
+            } catch (IOException e) {
+                System.out.println("Could not store the models in the model cache: " + e);
+            }
+        }
         return true;
     }
+
+    /**
+     * Update the simulation model in a project to a changed parameter set. Only the changed
+     * parameters are applied to the existing models. If this is not possible, e.g. because job or
+     * node types were added or removed, the blueprint model is imported again and the simulation
+     * model is completed from scratch.
+     *
+     * @param project
+     *            The project containing the simulation model.
+     * @param blueprintPath
+     *            The path to the original blueprint models.
+     * @param nodeDescriptionFile
+     *            The file containing the node descriptions in JSON format.
+     * @param jobDescriptionFile
+     *            The file containing job descriptions in JSON format.
+     * @return True if the model update succeeds, else false.
+     */
+    public static boolean updateBlueprintModel(IProject project, URI blueprintPath, File nodeDescriptionFile,
+            File jobDescriptionFile) {
+
+        ParameterSet parameters = readParameters(nodeDescriptionFile, jobDescriptionFile, null);
+        if (parameters == null) {
+            return false;
+        }
+
+        URI projectURI = URI.createURI(project.getFullPath().toString());
+
+        IncrementalModelUpdater updater = new IncrementalModelUpdater();
+        if (updater.updateModels(projectURI, parameters.nodes, parameters.jobs)) {
+            return true;
+        }
+
+        System.out.println("Constructing the models again from the blueprint model.");
+        return importAndCompleteBlueprintModel(project, blueprintPath, nodeDescriptionFile, jobDescriptionFile);
+    }
+
+    /**
+     * Update the simulation model in an output directory to a changed parameter set. Only the
+     * changed parameters are applied to the existing models. If this is not possible, the blueprint
+     * model is copied to the output directory again and the simulation model is completed from
+     * scratch. This does not require a running Eclipse workspace.
+     *
+     * @param blueprintDirectory
+     *            The directory containing the original blueprint models.
+     * @param outputDirectory
+     *            The directory containing the simulation model.
+     * @param nodeDescriptionFile
+     *            The file containing the node descriptions in JSON format.
+     * @param jobDescriptionFile
+     *            The file containing job descriptions in JSON format.
+     * @param options
+     *            The options controlling the model construction if the model needs to be
+     *            constructed from scratch.
+     * @return True if the model update succeeds, else false.
+     */
+    public static boolean updateBlueprintModel(File blueprintDirectory, File outputDirectory,
+            File nodeDescriptionFile, File jobDescriptionFile, ModelConstructionOptions options) {
+
+        ParameterSet parameters = readParameters(nodeDescriptionFile, jobDescriptionFile, options);
+        if (parameters == null) {
+            return false;
+        }
+
+        URI outputURI = URI.createFileURI(outputDirectory.getAbsolutePath());
+
+        IncrementalModelUpdater updater = new IncrementalModelUpdater(options);
+        if (updater.updateModels(outputURI, parameters.nodes, parameters.jobs)) {
+            return true;
+        }
+
+        System.out.println("Constructing the models again from the blueprint model.");
+        return importAndCompleteBlueprintModel(blueprintDirectory, outputDirectory, nodeDescriptionFile,
+                jobDescriptionFile, options);
+    }
+
+    /**
+     * Predict the size and simulation cost of the simulation model that would be constructed from
+     * the supplied blueprint and parameter files, without constructing or writing any model.
+     *
+     * @param blueprintDirectory
+     *            The directory containing the original blueprint models.
+     * @param nodeDescriptionFile
+     *            The file containing the node descriptions in JSON format.
+     * @param jobDescriptionFile
+     *            The file containing job descriptions in JSON format.
+     * @param options
+     *            The options the model would be constructed with.
+     * @return The estimate, or null if the parameter or blueprint files could not be read.
+     */
+    public static ModelSizeEstimate estimateModelSize(File blueprintDirectory, File nodeDescriptionFile,
+            File jobDescriptionFile, ModelConstructionOptions options) {
+
+        ParameterSet parameters = readParameters(nodeDescriptionFile, jobDescriptionFile, options);
+        if (parameters == null) {
+            return null;
+        }
+
+        BlueprintTemplate template;
+        try {
+            template = BlueprintTemplate.forBlueprint(URI.createFileURI(blueprintDirectory.getAbsolutePath()));
+        } catch (IOException e) {
+            System.out.println("Something went wrong when reading blueprint model files: " + e);
+            return null;
+        }
+
+        return new ModelSizeEstimator(template, options).estimate(parameters.nodes, parameters.jobs);
+    }
+
+    /**
+     * Construct one simulation model for every variant of a parameter sweep. The variants are
+     * constructed concurrently from a single in-memory copy of the blueprint model, each into its
+     * own subdirectory of the output directory. This does not require a running Eclipse workspace.
+     *
+     * @param blueprintDirectory
+     *            The directory containing the original blueprint models.
+     * @param outputDirectory
+     *            The directory the variant models and the sweep manifest are written to.
+     * @param nodeDescriptionFile
+     *            The file containing the base node descriptions in JSON format.
+     * @param jobDescriptionFile
+     *            The file containing the base job descriptions in JSON format.
+     * @param sweep
+     *            The sweep describing the variants.
+     * @param options
+     *            The options controlling the construction of each variant.
+     * @return True if all variants have been constructed, else false.
+     */
+    public static boolean sweepBlueprintModel(File blueprintDirectory, File outputDirectory,
+            File nodeDescriptionFile, File jobDescriptionFile, ParameterSweep sweep, ModelConstructionOptions options) {
+
+        ParameterSet parameters = readParameters(nodeDescriptionFile, jobDescriptionFile, options);
+        if (parameters == null) {
+            return false;
+        }
+
+        List<ParameterSweep.VariantResult> results;
+        try {
+            BlueprintTemplate template = BlueprintTemplate
+                    .forBlueprint(URI.createFileURI(blueprintDirectory.getAbsolutePath()));
+            results = sweep.run(template, outputDirectory, parameters.nodes, parameters.jobs, options);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Something went wrong when constructing the sweep variants: " + e);
+            return false;
+        }
+
+        return results.stream().allMatch(ParameterSweep.VariantResult::getSuccess);
+    }
+
+    /**
+     * Check whether a project contains a simulation model with recorded construction parameters,
+     * which can be updated incrementally.
+     *
+     * @param project
+     *            The project to check.
+     * @return True if the project contains a construction parameter record, else false.
+     */
+    public static boolean hasConstructionParameterRecord(IProject project) {
+        return project.getFile(ConstructionParameterRecord.FILENAME).exists();
+    }
+
+    /**
+     * Read the node and job type descriptions from their parameter files.
+     *
+     * @param nodeDescriptionFile
+     *            The file containing the node descriptions in JSON format.
+     * @param jobDescriptionFile
+     *            The file containing job descriptions in JSON format.
+     * @param options
+     *            The options controlling the pre-processing of the parameters, or null to use them
+     *            unchanged.
+     * @return The parameter set, or null if one of the files could not be imported.
+     */
+    private static ParameterSet readParameters(File nodeDescriptionFile, File jobDescriptionFile,
+            ModelConstructionOptions options) {
+        List<NodeTypeDescription> nodes;
+        try {
+            nodes = ParameterJSONImportHelper.readParameters(nodeDescriptionFile, NodeTypeDescription.class);
+        } catch (IOException e) {
+            System.out.println("Something went wrong when importing node types: " + e.getMessage());
+            return null;
+        }
+
+        List<JobTypeDescription> jobs;
+        try {
+            jobs = ParameterJSONImportHelper.readParameters(jobDescriptionFile, JobTypeDescription.class);
+        } catch (IOException e) {
+            System.out.println("Something went wrong when importing jobs types: " + e.getMessage());
+            return null;
+        }
+
+        // Fold before compacting, so the mixed distributions are compacted as well
+        if (options != null && options.getJobTypeFolding() != null) {
+            try {
+                jobs = options.getJobTypeFolding().fold(jobs);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Something went wrong when folding job types: " + e.getMessage());
+                return null;
+            }
+        }
+
+        if (options != null && options.getDemandCompaction() != null) {
+            try {
+                options.getDemandCompaction().compact(jobs);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Something went wrong when compacting demand distributions: " + e.getMessage());
+                return null;
+            }
+        }
+
+        if (options != null && options.getNodeTypeCoarsening() != null) {
+            nodes = options.getNodeTypeCoarsening().coarsen(nodes, null);
+        }
+
+        return new ParameterSet(nodes, jobs);
+    }
+
+    /**
+     * The node and job type descriptions a model is constructed from.
+     */
+    private static class ParameterSet {
+        private final List<NodeTypeDescription> nodes;
+        private final List<JobTypeDescription> jobs;
+
+        ParameterSet(List<NodeTypeDescription> nodes, List<JobTypeDescription> jobs) {
+            this.nodes = nodes;
+            this.jobs = jobs;
+        }
+    }
 }
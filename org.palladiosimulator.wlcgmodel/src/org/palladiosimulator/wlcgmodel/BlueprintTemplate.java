@@ -0,0 +1,252 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.common.CommonPlugin;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.palladiosimulator.wlcgmodel.util.ModelSerialization;
+
+/**
+ * A blueprint model that has been parsed once and is kept in memory. Model construction can start
+ * from an in-memory copy of the template instead of copying the blueprint files and parsing them
+ * again.
+ *
+ * The models changed by the construction are parsed into a template resource set, which is never
+ * modified after the template has been created. All other files of the blueprint (e.g. the
+ * experiment definition and the Sirius representations) are kept as raw file contents and written
+ * unchanged. Templates are cached for the lifetime of the JVM, so they are shared between all
+ * constructions using the same blueprint.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public final class BlueprintTemplate {
+
+    private static final Map<URI, BlueprintTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    private final URI blueprintURI;
+    private final Map<String, Resource> models = new LinkedHashMap<>();
+    private final Map<String, byte[]> otherFiles = new LinkedHashMap<>();
+
+    /**
+     * Parse a blueprint model into a new template.
+     *
+     * @param blueprintURI
+     *            The location of the blueprint model directory.
+     * @throws IOException
+     *             Thrown if a blueprint file could not be read.
+     */
+    private BlueprintTemplate(URI blueprintURI) throws IOException {
+        this.blueprintURI = blueprintURI;
+
+        File blueprintDirectory = toDirectory(blueprintURI);
+        List<String> files = listFiles(blueprintDirectory.toPath());
+
+        ResourceSet templateSet = ModelSerialization.createResourceSet();
+
+        for (String file : files) {
+            if (WLCGModelConstructor.CONSTRUCTED_MODEL_FILES.contains(file)) {
+                models.put(file, templateSet.getResource(resolve(blueprintURI, file), true));
+            } else {
+                otherFiles.put(file, Files.readAllBytes(blueprintDirectory.toPath().resolve(file)));
+            }
+        }
+
+        if (!models.keySet().containsAll(WLCGModelConstructor.CONSTRUCTED_MODEL_FILES)) {
+            throw new IllegalArgumentException("Blueprint " + blueprintURI + " is missing model files, expected "
+                    + WLCGModelConstructor.CONSTRUCTED_MODEL_FILES);
+        }
+
+        // Resolve all references once, so that copying the template does not modify it and
+        // templates can be instantiated concurrently
+        EcoreUtil.resolveAll(templateSet);
+    }
+
+    /**
+     * Get the template for a blueprint model. The blueprint is parsed when the template is
+     * requested for the first time.
+     *
+     * @param blueprintURI
+     *            The location of the blueprint model directory. It must be resolvable to a directory
+     *            in the local file system.
+     * @return The template for the blueprint model.
+     * @throws IOException
+     *             Thrown if a blueprint file could not be read.
+     */
+    public static BlueprintTemplate forBlueprint(URI blueprintURI) throws IOException {
+        BlueprintTemplate template = TEMPLATES.get(blueprintURI);
+        if (template != null) {
+            return template;
+        }
+
+        synchronized (TEMPLATES) {
+            template = TEMPLATES.get(blueprintURI);
+            if (template == null) {
+                template = new BlueprintTemplate(blueprintURI);
+                TEMPLATES.put(blueprintURI, template);
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Remove all cached templates, e.g. after a blueprint model has been changed on disk.
+     */
+    public static void clearCache() {
+        TEMPLATES.clear();
+    }
+
+    /**
+     * @return the location of the blueprint model directory
+     */
+    public URI getBlueprintURI() {
+        return blueprintURI;
+    }
+
+    /**
+     * Create a new copy of the template models located at a target directory. The copies are
+     * contained in a new resource set and are not saved.
+     *
+     * @param targetURI
+     *            The location of the target directory.
+     * @return A new resource set containing copies of the template models.
+     */
+    public ResourceSet instantiate(URI targetURI) {
+        ResourceSet resourceSet = ModelSerialization.createResourceSet();
+
+        // Use a single copier for all models, so that references between them point to the copies
+        EcoreUtil.Copier copier = new EcoreUtil.Copier();
+
+        List<Resource> copies = new ArrayList<>();
+        for (Map.Entry<String, Resource> model : models.entrySet()) {
+            Resource copy = resourceSet.createResource(resolve(targetURI, model.getKey()));
+            Collection<EObject> contents = copier.copyAll(model.getValue().getContents());
+            copy.getContents().addAll(contents);
+            copies.add(copy);
+        }
+        copier.copyReferences();
+
+        for (Resource copy : copies) {
+            ModelConstructionUtils.indexIds(copy);
+        }
+
+        return resourceSet;
+    }
+
+    /**
+     * Write the blueprint files that are not contained in the template models unchanged to a target
+     * directory.
+     *
+     * @param uriConverter
+     *            The URI converter used to write the files.
+     * @param targetURI
+     *            The location of the target directory.
+     * @throws IOException
+     *             Thrown if a file could not be written.
+     */
+    public void writeOtherFiles(URIConverter uriConverter, URI targetURI) throws IOException {
+        writeOtherFiles(uriConverter, targetURI, Collections.emptySet());
+    }
+
+    /**
+     * Write the blueprint files that are not contained in the template models unchanged to a target
+     * directory, except for the excluded files.
+     *
+     * @param uriConverter
+     *            The URI converter used to write the files.
+     * @param targetURI
+     *            The location of the target directory.
+     * @param excludedFiles
+     *            The paths of the files not to write, relative to the blueprint directory.
+     * @throws IOException
+     *             Thrown if a file could not be written.
+     */
+    public void writeOtherFiles(URIConverter uriConverter, URI targetURI, Set<String> excludedFiles)
+            throws IOException {
+        for (Map.Entry<String, byte[]> file : otherFiles.entrySet()) {
+            if (excludedFiles.contains(file.getKey())) {
+                continue;
+            }
+            try (OutputStream stream = uriConverter.createOutputStream(resolve(targetURI, file.getKey()))) {
+                stream.write(file.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return the paths of the template models, relative to the blueprint directory
+     */
+    public List<String> getModelFiles() {
+        return Collections.unmodifiableList(new ArrayList<>(models.keySet()));
+    }
+
+    /**
+     * Get a template model. The model must not be modified.
+     *
+     * @param modelFile
+     *            The path of the model, relative to the blueprint directory.
+     * @return The resource containing the template model, or null if there is no such model.
+     */
+    Resource getModel(String modelFile) {
+        return models.get(modelFile);
+    }
+
+    private static URI resolve(URI directoryURI, String relativePath) {
+        return directoryURI.appendSegments(relativePath.split("/"));
+    }
+
+    /**
+     * Find the local directory of a blueprint model.
+     *
+     * @param blueprintURI
+     *            The location of the blueprint, e.g. a file or platform plugin URI.
+     * @return The blueprint directory.
+     */
+    private static File toDirectory(URI blueprintURI) {
+        URI localURI = CommonPlugin.asLocalURI(blueprintURI);
+
+        if (!localURI.isFile() || !new File(localURI.toFileString()).isDirectory()) {
+            throw new IllegalArgumentException("Blueprint " + blueprintURI + " is not a local directory.");
+        }
+        return new File(localURI.toFileString());
+    }
+
+    /**
+     * List all files in a directory recursively.
+     *
+     * @param directory
+     *            The directory.
+     * @return The paths of the files relative to the directory, using '/' as separator.
+     * @throws IOException
+     *             Thrown if the directory could not be read.
+     */
+    static List<String> listFiles(Path directory) throws IOException {
+        List<String> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.filter(Files::isRegularFile).sorted().forEach(path -> {
+                List<String> segments = new ArrayList<>();
+                directory.relativize(path).forEach(segment -> segments.add(segment.toString()));
+                files.add(String.join("/", segments));
+            });
+        }
+        return files;
+    }
+}
@@ -0,0 +1,250 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A cache of constructed model sets in a local directory, keyed by a SHA-256 hash over the
+ * blueprint files, both parameter files and the construction options that influence the
+ * constructed models. If a model set has already been constructed from identical input, it is
+ * copied from the cache instead of constructing it again.
+ *
+ * Each cache entry is a directory named after its key, containing the files of the output
+ * directory after the construction. Entries are written to a temporary directory first and then
+ * renamed, so incomplete entries are never read. The number of entries is bounded; when it is
+ * exceeded, the least recently used entries are deleted. The last use of an entry is recorded in
+ * the modification time of its directory.
+ *
+ * The key does not cover the code of the model construction. The cache directory should be
+ * cleared after updating the plugin, or {@link #CACHE_VERSION} be increased when the constructed
+ * models change.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class ConstructedModelCache {
+
+    /**
+     * Version of the constructed models, part of every key.
+     */
+    static final String CACHE_VERSION = "1";
+
+    private static final String TEMPORARY_PREFIX = ".tmp-";
+
+    private final Path directory;
+    private final int maxEntries;
+
+    /**
+     * Create a cache in a directory.
+     *
+     * @param directory
+     *            The cache directory. It is created when the first entry is stored.
+     * @param maxEntries
+     *            The maximum number of cached model sets.
+     * @throws IllegalArgumentException
+     *             Thrown if the maximum number of entries is less than 1.
+     */
+    public ConstructedModelCache(File directory, int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The model cache needs to hold at least one entry.");
+        }
+        this.directory = directory.toPath();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Compute the cache key of a model construction.
+     *
+     * @param blueprintDirectory
+     *            The directory containing the blueprint models.
+     * @param nodeDescriptionFile
+     *            The node description file.
+     * @param jobDescriptionFile
+     *            The job description file.
+     * @param options
+     *            The options the models are constructed with.
+     * @return The key, a hexadecimal SHA-256 hash.
+     * @throws IOException
+     *             Thrown if an input file could not be read.
+     */
+    public static String computeKey(File blueprintDirectory, File nodeDescriptionFile, File jobDescriptionFile,
+            ModelConstructionOptions options) throws IOException {
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM.", e);
+        }
+
+        update(digest, CACHE_VERSION);
+
+        Path blueprintPath = blueprintDirectory.toPath();
+        for (String file : BlueprintTemplate.listFiles(blueprintPath)) {
+            update(digest, file);
+            update(digest, Files.readAllBytes(blueprintPath.resolve(file)));
+        }
+
+        update(digest, Files.readAllBytes(nodeDescriptionFile.toPath()));
+        update(digest, Files.readAllBytes(jobDescriptionFile.toPath()));
+        update(digest, describeOptions(options));
+
+        StringBuilder key = new StringBuilder();
+        for (byte value : digest.digest()) {
+            key.append(String.format("%02x", value));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Copy a cached model set to an output directory. Existing files in the output directory are
+     * overwritten.
+     *
+     * @param key
+     *            The cache key of the model set.
+     * @param outputDirectory
+     *            The directory the model set is copied to. It is created if it does not exist yet.
+     * @return True if the model set was cached and has been copied, false if it is not cached.
+     * @throws IOException
+     *             Thrown if the model set could not be copied.
+     */
+    public boolean restore(String key, File outputDirectory) throws IOException {
+        Path entry = directory.resolve(key);
+        if (!Files.isDirectory(entry)) {
+            return false;
+        }
+
+        copyDirectory(entry, outputDirectory.toPath());
+        Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        return true;
+    }
+
+    /**
+     * Store the model set in an output directory in the cache and evict the least recently used
+     * entries if the cache is full. Nothing is stored if the key is already cached.
+     *
+     * @param key
+     *            The cache key of the model set.
+     * @param outputDirectory
+     *            The directory containing the constructed model set.
+     * @throws IOException
+     *             Thrown if the model set could not be stored.
+     */
+    public void store(String key, File outputDirectory) throws IOException {
+        Path entry = directory.resolve(key);
+        if (Files.isDirectory(entry)) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempDirectory(directory, TEMPORARY_PREFIX + key);
+        try {
+            copyDirectory(outputDirectory.toPath(), temporary);
+            Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The entry may have been stored concurrently by another construction
+            if (!Files.isDirectory(entry)) {
+                throw e;
+            }
+        } finally {
+            deleteRecursively(temporary);
+        }
+
+        evict();
+    }
+
+    /**
+     * Delete the least recently used entries until the maximum number of entries is kept.
+     *
+     * @throws IOException
+     *             Thrown if the cache directory could not be read or an entry could not be deleted.
+     */
+    private void evict() throws IOException {
+        List<Path> entries;
+        try (Stream<Path> paths = Files.list(directory)) {
+            entries = paths.filter(Files::isDirectory)
+                    .filter(path -> !path.getFileName().toString().startsWith(TEMPORARY_PREFIX))
+                    .collect(Collectors.toList());
+        }
+
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+
+        Map<Path, FileTime> lastUses = new HashMap<>();
+        for (Path entry : entries) {
+            lastUses.put(entry, Files.getLastModifiedTime(entry));
+        }
+        entries.sort(Comparator.comparing(lastUses::get));
+
+        for (int i = 0; i < entries.size() - maxEntries; i++) {
+            Path entry = entries.get(i);
+            System.out.println("Evicting cached models " + entry.getFileName());
+            deleteRecursively(entry);
+        }
+    }
+
+    /**
+     * Describe the construction options that influence the constructed models. Options that only
+     * affect how the models are constructed, e.g. the parallelism, are left out.
+     *
+     * @param options
+     *            The construction options.
+     * @return The description.
+     */
+    static String describeOptions(ModelConstructionOptions options) {
+        return "serialization format: " + options.getSerializationFormat() + ", expand replicas: "
+                + options.getExpandReplicas() + ", monitoring granularity: "
+                + options.getMonitoringGranularity() + ", utilization window length: "
+                + options.getUtilizationWindowLength() + ", monitor aggregations: "
+                + options.getMonitorAggregations() + ", demand compaction: " + options.getDemandCompaction()
+                + ", node type coarsening: " + options.getNodeTypeCoarsening() + ", job type folding: "
+                + options.getJobTypeFolding()
+                + ", experiments: " + options.getExperimentConfiguration();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        update(digest, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void update(MessageDigest digest, byte[] value) {
+        // Prefix the length, so that different splits of the same bytes give different hashes
+        int length = value.length;
+        digest.update(new byte[] { (byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8),
+                (byte) length });
+        digest.update(value);
+    }
+
+    private static void copyDirectory(Path source, Path target) throws IOException {
+        for (String file : BlueprintTemplate.listFiles(source)) {
+            Path targetFile = target.resolve(file);
+            Files.createDirectories(targetFile.getParent());
+            Files.copy(source.resolve(file), targetFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path file : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+/**
+ * Instances of this class hold the node and job type descriptions a simulation model has been
+ * constructed from. The record is stored next to the constructed models, so that a later
+ * calibration can determine which parts of the models need to be changed.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class ConstructionParameterRecord {
+
+    /** The name of the file the record is stored in, relative to the model directory. */
+    public static final String FILENAME = "construction-parameters.json";
+
+    private List<NodeTypeDescription> nodes = new ArrayList<>();
+    private List<JobTypeDescription> jobs = new ArrayList<>();
+    private MonitoringGranularity monitoringGranularity = MonitoringGranularity.PER_CORE;
+    private Map<MonitorKind, MonitorAggregation> monitorAggregations = new LinkedHashMap<>();
+    private boolean replicasExpanded = false;
+
+    /**
+     * Construct a new empty parameter record.
+     */
+    public ConstructionParameterRecord() {
+    }
+
+    /**
+     * Construct a new parameter record for the given node and job types.
+     *
+     * @param nodes
+     *            The node types the models are constructed from.
+     * @param jobs
+     *            The job types the models are constructed from.
+     */
+    public ConstructionParameterRecord(List<NodeTypeDescription> nodes, List<JobTypeDescription> jobs) {
+        this(nodes, jobs, MonitoringGranularity.PER_CORE);
+    }
+
+    /**
+     * Construct a new parameter record for the given node and job types and monitoring
+     * granularity.
+     *
+     * @param nodes
+     *            The node types the models are constructed from.
+     * @param jobs
+     *            The job types the models are constructed from.
+     * @param monitoringGranularity
+     *            The granularity of the CPU monitoring in the models.
+     */
+    public ConstructionParameterRecord(List<NodeTypeDescription> nodes, List<JobTypeDescription> jobs,
+            MonitoringGranularity monitoringGranularity) {
+        this(nodes, jobs, monitoringGranularity, new LinkedHashMap<>());
+    }
+
+    /**
+     * Construct a new parameter record for the given node and job types and monitor
+     * configuration.
+     *
+     * @param nodes
+     *            The node types the models are constructed from.
+     * @param jobs
+     *            The job types the models are constructed from.
+     * @param monitoringGranularity
+     *            The granularity of the CPU monitoring in the models.
+     * @param monitorAggregations
+     *            The aggregations of the generated monitors by monitor kind.
+     */
+    public ConstructionParameterRecord(List<NodeTypeDescription> nodes, List<JobTypeDescription> jobs,
+            MonitoringGranularity monitoringGranularity, Map<MonitorKind, MonitorAggregation> monitorAggregations) {
+        this(nodes, jobs, monitoringGranularity, monitorAggregations, false);
+    }
+
+    /**
+     * Construct a new parameter record for the given node and job types, monitor configuration and
+     * replica expansion.
+     *
+     * @param nodes
+     *            The node types the models are constructed from.
+     * @param jobs
+     *            The job types the models are constructed from.
+     * @param monitoringGranularity
+     *            The granularity of the CPU monitoring in the models.
+     * @param monitorAggregations
+     *            The aggregations of the generated monitors by monitor kind.
+     * @param replicasExpanded
+     *            Whether the replicas of the node types are expanded in the models.
+     */
+    public ConstructionParameterRecord(List<NodeTypeDescription> nodes, List<JobTypeDescription> jobs,
+            MonitoringGranularity monitoringGranularity, Map<MonitorKind, MonitorAggregation> monitorAggregations,
+            boolean replicasExpanded) {
+        this.replicasExpanded = replicasExpanded;
+        this.nodes = new ArrayList<>(nodes);
+        this.jobs = new ArrayList<>(jobs);
+        this.monitoringGranularity = monitoringGranularity;
+        this.monitorAggregations = new LinkedHashMap<>(monitorAggregations);
+    }
+
+    /**
+     * @return the nodes
+     */
+    public List<NodeTypeDescription> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the jobs
+     */
+    public List<JobTypeDescription> getJobs() {
+        return jobs;
+    }
+
+    /**
+     * @return the monitoringGranularity, which is per core for records written before the
+     *         granularity was recorded
+     */
+    public MonitoringGranularity getMonitoringGranularity() {
+        return monitoringGranularity != null ? monitoringGranularity : MonitoringGranularity.PER_CORE;
+    }
+
+    /**
+     * @return whether the replicas of the node types are expanded in the models, which is false
+     *         for records written before the expansion was recorded
+     */
+    public boolean getReplicasExpanded() {
+        return replicasExpanded;
+    }
+
+    /**
+     * @param kind
+     *            the kind of generated monitor
+     * @return the aggregation of the monitors of this kind, which is feed through if none has
+     *         been recorded
+     */
+    public MonitorAggregation getMonitorAggregation(MonitorKind kind) {
+        if (monitorAggregations == null || !monitorAggregations.containsKey(kind)) {
+            return MonitorAggregation.feedThrough();
+        }
+        return monitorAggregations.get(kind);
+    }
+
+    /**
+     * Write the record to the given location.
+     *
+     * @param uriConverter
+     *            The URI converter used to open the output stream, usually the one of the resource
+     *            set containing the models.
+     * @param recordURI
+     *            The location of the record file.
+     * @throws IOException
+     *             Thrown if the record could not be written.
+     */
+    public void write(URIConverter uriConverter, URI recordURI) throws IOException {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+        try (OutputStream stream = uriConverter.createOutputStream(recordURI);
+                Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8)) {
+            gson.toJson(this, writer);
+        }
+    }
+
+    /**
+     * Read a record from the given location.
+     *
+     * @param uriConverter
+     *            The URI converter used to open the input stream, usually the one of the resource
+     *            set containing the models.
+     * @param recordURI
+     *            The location of the record file.
+     * @return The record, or null if there is no record or it could not be read.
+     */
+    public static ConstructionParameterRecord read(URIConverter uriConverter, URI recordURI) {
+        if (!uriConverter.exists(recordURI, null)) {
+            return null;
+        }
+
+        try (InputStream stream = uriConverter.createInputStream(recordURI);
+                Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            ConstructionParameterRecord record = new Gson().fromJson(reader, ConstructionParameterRecord.class);
+            if (record == null || record.nodes == null || record.jobs == null) {
+                System.out.println("Construction parameter record " + recordURI + " is incomplete.");
+                return null;
+            }
+            return record;
+        } catch (IOException | JsonParseException e) {
+            System.out.println("Could not read construction parameter record " + recordURI + ": " + e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.palladiosimulator.wlcgmodel.util.DoublePdf;
+import org.palladiosimulator.wlcgmodel.util.StoExParsingHelper;
+
+/**
+ * Pre-processing stage of the parameter import that reduces the number of bins of the demand
+ * distributions of the job types. The simulator samples a <code>DoublePDF</code> in time
+ * proportional to its number of bins for every job, so distributions with hundreds of bins slow
+ * down the simulation.
+ *
+ * Adjacent bins of the CPU demand, I/O time and I/O time ratio distributions are merged down to a
+ * target number of bins or as far as a maximum Kolmogorov-Smirnov distance to the original
+ * distribution allows, see {@link DoublePdf#compact(int, double)}. The compacted distributions
+ * replace the original ones in the job type descriptions. Demands that are not given as
+ * <code>DoublePDF</code> are left unchanged. The interarrival time distribution is not used by the
+ * constructed model and is not compacted either.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class DemandDistributionCompaction {
+
+    /**
+     * The fields of the job type descriptions that are compacted.
+     */
+    private enum DemandField {
+        CPU_DEMAND("cpuDemandStoEx", JobTypeDescription::getCpuDemandStoEx, JobTypeDescription::setCpuDemandStoEx),
+        IO_TIME("ioTimeStoEx", JobTypeDescription::getIoTimeStoEx, JobTypeDescription::setIoTimeStoEx),
+        IO_TIME_RATIO("ioTimeRatioStoEx", JobTypeDescription::getIoTimeRatioStoEx,
+                JobTypeDescription::setIoTimeRatioStoEx);
+
+        private final String fieldName;
+        private final Function<JobTypeDescription, String> getter;
+        private final BiConsumer<JobTypeDescription, String> setter;
+
+        DemandField(String fieldName, Function<JobTypeDescription, String> getter,
+                BiConsumer<JobTypeDescription, String> setter) {
+            this.fieldName = fieldName;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    private final int maxBins;
+    private final double maxKsDistance;
+
+    /**
+     * Create a compaction stage.
+     *
+     * @param maxBins
+     *            The target number of bins of each distribution, or 0 to only limit the distance.
+     * @param maxKsDistance
+     *            The maximum Kolmogorov-Smirnov distance between a compacted and the original
+     *            distribution, or {@link Double#POSITIVE_INFINITY} to only limit the number of bins.
+     * @throws IllegalArgumentException
+     *             Thrown if a limit is negative or neither limit is set.
+     */
+    public DemandDistributionCompaction(int maxBins, double maxKsDistance) {
+        if (maxBins < 0 || !(maxKsDistance >= 0)) {
+            throw new IllegalArgumentException("Number of bins and distance must not be negative.");
+        }
+        if (maxBins == 0 && Double.isInfinite(maxKsDistance)) {
+            throw new IllegalArgumentException("Either the number of bins or the distance needs to be limited.");
+        }
+
+        this.maxBins = maxBins;
+        this.maxKsDistance = maxKsDistance;
+    }
+
+    /**
+     * @return the target number of bins of each distribution, 0 if only the distance is limited
+     */
+    public int getMaxBins() {
+        return maxBins;
+    }
+
+    /**
+     * @return the maximum Kolmogorov-Smirnov distance between a compacted and the original
+     *         distribution, infinite if only the number of bins is limited
+     */
+    public double getMaxKsDistance() {
+        return maxKsDistance;
+    }
+
+    /**
+     * Compact the demand distributions of the job types and write the compacted distributions to
+     * the job type descriptions. The introduced error, i.e. the Kolmogorov-Smirnov distance and the
+     * relative change of the expected value, is printed for each distribution.
+     *
+     * @param jobTypes
+     *            The job type descriptions to compact.
+     * @return The bins and the introduced error for each compacted distribution.
+     * @throws IllegalArgumentException
+     *             Thrown if a distribution is not a valid <code>DoublePDF</code>.
+     */
+    public List<Result> compact(List<JobTypeDescription> jobTypes) {
+        List<Result> results = new ArrayList<>();
+
+        for (JobTypeDescription jobType : jobTypes) {
+            for (DemandField field : DemandField.values()) {
+                String specification = field.getter.apply(jobType);
+                if (!StoExParsingHelper.isDoublePdf(specification)) {
+                    continue;
+                }
+
+                DoublePdf original;
+                try {
+                    original = DoublePdf.parse(specification);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Invalid " + field.fieldName + " of job type "
+                            + jobType.getTypeName() + ": " + e.getMessage(), e);
+                }
+
+                DoublePdf compacted = original.compact(maxBins, maxKsDistance);
+                field.setter.accept(jobType, compacted.toStoEx());
+
+                Result result = new Result(jobType.getTypeName(), field.fieldName, original.size(),
+                        compacted.size(), compacted.ksDistance(original),
+                        compacted.mean() / original.mean() - 1);
+                System.out.println("Compacted " + result);
+                results.add(result);
+            }
+        }
+
+        double largestDistance = results.stream().mapToDouble(Result::getKsDistance).max().orElse(0);
+        System.out.println(String.format("Compacted %d demand distributions, largest KS distance %.6f",
+                results.size(), largestDistance));
+
+        return results;
+    }
+
+    @Override
+    public String toString() {
+        return "max bins: " + (maxBins == 0 ? "unlimited" : String.valueOf(maxBins)) + ", max KS distance: "
+                + maxKsDistance;
+    }
+
+    /**
+     * The number of bins before and after compacting a distribution, and the error introduced by
+     * compacting it.
+     */
+    public static final class Result {
+        private final String jobType;
+        private final String field;
+        private final int originalBins;
+        private final int compactedBins;
+        private final double ksDistance;
+        private final double meanChange;
+
+        Result(String jobType, String field, int originalBins, int compactedBins, double ksDistance,
+                double meanChange) {
+            this.jobType = jobType;
+            this.field = field;
+            this.originalBins = originalBins;
+            this.compactedBins = compactedBins;
+            this.ksDistance = ksDistance;
+            this.meanChange = meanChange;
+        }
+
+        /**
+         * @return the name of the job type
+         */
+        public String getJobType() {
+            return jobType;
+        }
+
+        /**
+         * @return the name of the compacted field of the job type description
+         */
+        public String getField() {
+            return field;
+        }
+
+        /**
+         * @return the number of bins of the original distribution
+         */
+        public int getOriginalBins() {
+            return originalBins;
+        }
+
+        /**
+         * @return the number of bins of the compacted distribution
+         */
+        public int getCompactedBins() {
+            return compactedBins;
+        }
+
+        /**
+         * @return the Kolmogorov-Smirnov distance between the compacted and the original distribution
+         */
+        public double getKsDistance() {
+            return ksDistance;
+        }
+
+        /**
+         * @return the relative change of the expected value caused by compacting the distribution,
+         *         e.g. 0.01 if it increased by one percent
+         */
+        public double getMeanChange() {
+            return meanChange;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s.%s: %d -> %d bins, KS distance %.6f, mean %+.2f%%", jobType, field,
+                    originalBins, compactedBins, ksDistance, meanChange * 100);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.palladiosimulator.wlcgmodel;
+
+/**
+ * Instances of this class describe the ExperimentAutomation experiments generated for a
+ * constructed simulation model, see {@link ExperimentModelGenerator}. The default configuration
+ * corresponds to the blueprint experiment, a single run of one simulated week, but stores the
+ * measurements in files.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class ExperimentConfiguration {
+
+    /**
+     * The datasources the simulation results can be stored in.
+     */
+    public enum Datasource {
+        /** Measurements are kept in memory until the simulation run ends. */
+        MEMORY,
+
+        /** Measurements are written to files in the measurement location during the run. */
+        FILE
+    }
+
+    private int repetitions = 1;
+    private long seed = 0;
+    private int simulationTime = 604800;
+    private Datasource datasource = Datasource.FILE;
+    private String measurementLocation = "measurements";
+
+    /**
+     * Construct a new experiment configuration with default values.
+     */
+    public ExperimentConfiguration() {
+    }
+
+    /**
+     * @return the number of independent repetitions, each of which is a separate experiment with
+     *         its own random number seeds
+     */
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    /**
+     * @param repetitions
+     *            the number of independent repetitions, each of which is a separate experiment with
+     *            its own random number seeds
+     */
+    public void setRepetitions(int repetitions) {
+        this.repetitions = repetitions;
+    }
+
+    /**
+     * @return the seed the random number seeds of the repetitions are derived from
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @param seed
+     *            the seed the random number seeds of the repetitions are derived from
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return the simulated time of each repetition in seconds
+     */
+    public int getSimulationTime() {
+        return simulationTime;
+    }
+
+    /**
+     * @param simulationTime
+     *            the simulated time of each repetition in seconds
+     */
+    public void setSimulationTime(int simulationTime) {
+        this.simulationTime = simulationTime;
+    }
+
+    /**
+     * @return the datasource the measurements are stored in
+     */
+    public Datasource getDatasource() {
+        return datasource;
+    }
+
+    /**
+     * @param datasource
+     *            the datasource the measurements are stored in
+     */
+    public void setDatasource(Datasource datasource) {
+        this.datasource = datasource;
+    }
+
+    /**
+     * @return the directory the file datasource writes to, each repetition uses a subdirectory
+     */
+    public String getMeasurementLocation() {
+        return measurementLocation;
+    }
+
+    /**
+     * @param measurementLocation
+     *            the directory the file datasource writes to, each repetition uses a subdirectory
+     */
+    public void setMeasurementLocation(String measurementLocation) {
+        this.measurementLocation = measurementLocation;
+    }
+
+    @Override
+    public String toString() {
+        return "repetitions: " + this.repetitions + ", seed: " + this.seed + ", simulation time: "
+                + this.simulationTime + ", datasource: " + this.datasource + ", measurement location: "
+                + this.measurementLocation;
+    }
+}
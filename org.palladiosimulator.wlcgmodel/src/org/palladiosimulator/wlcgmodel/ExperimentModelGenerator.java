@@ -0,0 +1,300 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.palladiosimulator.wlcgmodel.util.ModelSerialization;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * This class generates the ExperimentAutomation experiments of a constructed simulation model from
+ * an {@link ExperimentConfiguration}. The experiment of the blueprint model serves as template, so
+ * its references to the simulation models and its tool configuration are kept.
+ *
+ * Every repetition becomes a separate experiment with its own random number seeds, so the
+ * repetitions can be run concurrently on separate cores or machines instead of sequentially in a
+ * single run. With the file datasource, each repetition writes its measurements to its own
+ * directory instead of holding them in memory until the run ends.
+ *
+ * The experiments model is edited as XML, so the plugin does not depend on the ExperimentAutomation
+ * bundles. Generating the experiments again from a generated model gives the same result.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public final class ExperimentModelGenerator {
+
+    /**
+     * Name of the experiments model file.
+     */
+    public static final String EXPERIMENTS_FILENAME = "exp.experiments";
+
+    private static final String XSI_NAMESPACE = "http://www.w3.org/2001/XMLSchema-instance";
+    private static final String XMLNS_NAMESPACE = "http://www.w3.org/2000/xmlns/";
+    private static final String ABSTRACT_SIMULATION_NAMESPACE = "http://palladiosimulator.org/"
+            + "ExperimentAutomation/AbstractSimulation/1.0";
+    private static final String ABSTRACT_SIMULATION_PREFIX = "ExperimentAutomation.Experiments.AbstractSimulation";
+
+    private static final Pattern REPETITION_ID = Pattern.compile("(.*)_rep\\d+");
+    private static final Pattern REPETITION_NAME = Pattern.compile("(.*) \\(repetition \\d+\\)");
+
+    // The simulator uses MRG32k3a streams, which take six seeds that must not all be zero. The seeds
+    // are kept below 2^31, so they are valid for both of its moduli and fit integer attributes.
+    private static final int SEED_COUNT = 6;
+    private static final long SEED_BOUND = Integer.MAX_VALUE;
+
+    /**
+     * Do not allow instantiation of utility class.
+     */
+    private ExperimentModelGenerator() {
+    }
+
+    /**
+     * Replace the experiments in an experiments model by one experiment per repetition of the
+     * configuration. The first experiment of the model is used as template.
+     *
+     * @param uriConverter
+     *            The URI converter used to read and write the model.
+     * @param experimentsURI
+     *            The location of the experiments model.
+     * @param configuration
+     *            The experiment configuration.
+     * @throws IOException
+     *             Thrown if the model could not be read or written, or does not contain an
+     *             experiment.
+     */
+    public static void generate(URIConverter uriConverter, URI experimentsURI, ExperimentConfiguration configuration)
+            throws IOException {
+
+        if (configuration.getRepetitions() < 1) {
+            throw new IllegalArgumentException("At least one repetition is required.");
+        }
+
+        Document document = readDocument(uriConverter, experimentsURI);
+
+        Element repository = document.getDocumentElement();
+        List<Element> experiments = childElements(repository, "experiments");
+        if (experiments.isEmpty()) {
+            throw new IOException("Experiments model " + experimentsURI + " does not contain an experiment.");
+        }
+
+        String prefix = repository.lookupPrefix(ABSTRACT_SIMULATION_NAMESPACE);
+        if (prefix == null) {
+            prefix = ABSTRACT_SIMULATION_PREFIX;
+            repository.setAttributeNS(XMLNS_NAMESPACE, "xmlns:" + prefix, ABSTRACT_SIMULATION_NAMESPACE);
+        }
+
+        Element template = experiments.get(0);
+        for (Node child = repository.getFirstChild(); child != null; child = repository.getFirstChild()) {
+            repository.removeChild(child);
+        }
+
+        String id = stripRepetition(template.getAttribute("id"), REPETITION_ID);
+        String name = stripRepetition(template.getAttribute("name"), REPETITION_NAME);
+        int repetitions = configuration.getRepetitions();
+
+        for (int repetition = 1; repetition <= repetitions; repetition++) {
+            Element experiment = (Element) template.cloneNode(true);
+
+            String location = configuration.getMeasurementLocation();
+            if (repetitions > 1) {
+                experiment.setAttribute("id", id + "_rep" + repetition);
+                experiment.setAttribute("name", name + " (repetition " + repetition + ")");
+                location = location + "/rep-" + repetition;
+            } else {
+                experiment.setAttribute("id", id);
+                experiment.setAttribute("name", name);
+            }
+            experiment.setAttribute("repetitions", "1");
+            setSimulationTime(experiment, configuration.getSimulationTime());
+
+            for (Element toolConfiguration : childElements(experiment, "toolConfiguration")) {
+                setSimulationTime(toolConfiguration, configuration.getSimulationTime());
+                replaceChild(toolConfiguration, createDatasource(document, prefix, configuration, location));
+                replaceChild(toolConfiguration, createSeed(document, configuration.getSeed(), repetition));
+            }
+
+            repository.appendChild(document.createTextNode("\n  "));
+            repository.appendChild(experiment);
+        }
+        repository.appendChild(document.createTextNode("\n"));
+
+        writeDocument(uriConverter, experimentsURI, document);
+
+        System.out.println("Generated " + repetitions + " experiments in " + experimentsURI);
+    }
+
+    /**
+     * Change the references of an experiments model to simulation models that have been saved in
+     * another format, and thus to another file, see
+     * {@link ModelSerialization#modelURI(URI, ModelSerializationFormat)}.
+     *
+     * @param uriConverter
+     *            The URI converter used to read and write the model.
+     * @param experimentsURI
+     *            The location of the experiments model.
+     * @param modelFiles
+     *            The paths of the saved models relative to the experiments model, as referenced in
+     *            XMI format.
+     * @param format
+     *            The format the models have been saved in.
+     * @throws IOException
+     *             Thrown if the model could not be read or written.
+     */
+    public static void updateModelReferences(URIConverter uriConverter, URI experimentsURI, List<String> modelFiles,
+            ModelSerializationFormat format) throws IOException {
+
+        Document document = readDocument(uriConverter, experimentsURI);
+
+        boolean changed = false;
+        NodeList elements = document.getElementsByTagName("*");
+        for (int i = 0; i < elements.getLength(); i++) {
+            Element element = (Element) elements.item(i);
+            String reference = element.getAttribute("href");
+            int fragment = reference.indexOf('#');
+            if (fragment < 0 || !modelFiles.contains(reference.substring(0, fragment))) {
+                continue;
+            }
+
+            URI modelURI = ModelSerialization.modelURI(URI.createURI(reference.substring(0, fragment)), format);
+            element.setAttribute("href", modelURI + reference.substring(fragment));
+            changed = true;
+        }
+
+        if (changed) {
+            writeDocument(uriConverter, experimentsURI, document);
+        }
+    }
+
+    /**
+     * Derive the random number seeds of a repetition. Each repetition uses an independent stream of
+     * a generator seeded with the configured seed, so the seeds of a repetition do not depend on
+     * the total number of repetitions.
+     *
+     * @param seed
+     *            The configured seed.
+     * @param repetition
+     *            The repetition, starting at 1.
+     * @return The six positive seeds of the repetition.
+     */
+    static long[] seeds(long seed, int repetition) {
+        SplittableRandom random = new SplittableRandom(seed);
+        SplittableRandom stream = random.split();
+        for (int i = 1; i < repetition; i++) {
+            stream = random.split();
+        }
+
+        long[] seeds = new long[SEED_COUNT];
+        for (int i = 0; i < SEED_COUNT; i++) {
+            seeds[i] = 1 + stream.nextLong(SEED_BOUND - 1);
+        }
+        return seeds;
+    }
+
+    private static Document readDocument(URIConverter uriConverter, URI experimentsURI) throws IOException {
+        Document document;
+        try (InputStream stream = uriConverter.createInputStream(experimentsURI)) {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            document = factory.newDocumentBuilder().parse(stream);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Invalid experiments model " + experimentsURI + ": " + e.getMessage(), e);
+        }
+
+        document.setXmlStandalone(true);
+        return document;
+    }
+
+    private static void writeDocument(URIConverter uriConverter, URI experimentsURI, Document document)
+            throws IOException {
+        try (OutputStream stream = uriConverter.createOutputStream(experimentsURI)) {
+            Transformer transformer = TransformerFactory.newInstance().newTransformer();
+            transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+            transformer.transform(new DOMSource(document), new StreamResult(stream));
+        } catch (TransformerException e) {
+            throw new IOException("Could not write experiments model " + experimentsURI + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Element createDatasource(Document document, String prefix, ExperimentConfiguration configuration,
+            String location) {
+        Element datasource = document.createElementNS(null, "datasource");
+        if (configuration.getDatasource() == ExperimentConfiguration.Datasource.FILE) {
+            datasource.setAttributeNS(XSI_NAMESPACE, "xsi:type", prefix + ":FileDatasource");
+            datasource.setAttribute("location", location);
+        } else {
+            datasource.setAttributeNS(XSI_NAMESPACE, "xsi:type", prefix + ":MemoryDatasource");
+        }
+        return datasource;
+    }
+
+    private static Element createSeed(Document document, long seed, int repetition) {
+        Element element = document.createElementNS(null, "randomNumberGeneratorSeed");
+        long[] seeds = seeds(seed, repetition);
+        for (int i = 0; i < seeds.length; i++) {
+            element.setAttribute("seed" + i, String.valueOf(seeds[i]));
+        }
+        return element;
+    }
+
+    private static void setSimulationTime(Element parent, int simulationTime) {
+        for (Element stopCondition : childElements(parent, "stopConditions")) {
+            if (stopCondition.getAttributeNS(XSI_NAMESPACE, "type").endsWith(":SimTimeStopCondition")) {
+                stopCondition.setAttribute("simulationTime", String.valueOf(simulationTime));
+            }
+        }
+    }
+
+    /**
+     * Replace the children of an element with the same name as the new child, or append the new
+     * child if there are none.
+     */
+    private static void replaceChild(Element parent, Element newChild) {
+        List<Element> oldChildren = childElements(parent, newChild.getTagName());
+        if (oldChildren.isEmpty()) {
+            parent.appendChild(newChild);
+            return;
+        }
+
+        parent.replaceChild(newChild, oldChildren.get(0));
+        for (Element oldChild : oldChildren.subList(1, oldChildren.size())) {
+            parent.removeChild(oldChild);
+        }
+    }
+
+    private static List<Element> childElements(Element parent, String name) {
+        List<Element> children = new ArrayList<>();
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element && name.equals(child.getLocalName())) {
+                children.add((Element) child);
+            }
+        }
+        return children;
+    }
+
+    private static String stripRepetition(String value, Pattern pattern) {
+        Matcher matcher = pattern.matcher(value);
+        return matcher.matches() ? matcher.group(1) : value;
+    }
+}
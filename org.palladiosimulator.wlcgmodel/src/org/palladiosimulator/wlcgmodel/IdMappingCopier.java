@@ -0,0 +1,140 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+/**
+ * A copier that creates deep copies of Ecore objects and assigns new IDs to the copied objects
+ * while creating them. Compared to copying an object tree first and rewriting all IDs afterwards,
+ * this only traverses the copied object tree once.
+ *
+ * Like any {@link EcoreUtil.Copier}, instances of this class map original objects to their copies
+ * and can be used to retrieve the copy of a specific contained object after copying.
+ *
+ * @author Maximilian Stemmer-Grabow
+ */
+public class IdMappingCopier extends EcoreUtil.Copier {
+
+    private static final long serialVersionUID = 1L;
+
+    private final IdMapping idMapping;
+    private int assignedIdCount = 0;
+
+    /**
+     * Create a new copier that assigns IDs according to the supplied mapping.
+     *
+     * @param idMapping
+     *            The mapping used to compute the IDs of the copied objects.
+     */
+    public IdMappingCopier(IdMapping idMapping) {
+        super();
+        this.idMapping = idMapping;
+    }
+
+    /**
+     * Make a deep copy of the provided object and resolve all references between the copied
+     * objects.
+     *
+     * @param object
+     *            The object to be copied.
+     * @param <T>
+     *            The type of the object. Has to be an Ecore object.
+     * @return A deep copy of the provided object with new IDs.
+     */
+    public <T extends EObject> T copyWithReferences(T object) {
+        @SuppressWarnings("unchecked")
+        T result = (T) copy(object);
+        copyReferences();
+        return result;
+    }
+
+    @Override
+    protected void copyAttribute(EAttribute eAttribute, EObject eObject, EObject copyEObject) {
+        if (eAttribute != eObject.eClass().getEIDAttribute()) {
+            super.copyAttribute(eAttribute, eObject, copyEObject);
+            return;
+        }
+
+        String newId = this.idMapping.newId(eObject, EcoreUtil.getID(eObject));
+        if (newId != null) {
+            EcoreUtil.setID(copyEObject, newId);
+            assignedIdCount++;
+        }
+    }
+
+    /**
+     * @return the number of copied objects that have been assigned a new ID
+     */
+    public int getAssignedIdCount() {
+        return assignedIdCount;
+    }
+
+    /**
+     * Create an ID mapping that assigns a new random UUID to every copied object with an ID.
+     *
+     * @return The ID mapping.
+     */
+    public static IdMapping randomIds() {
+        return (original, originalId) -> EcoreUtil.generateUUID();
+    }
+
+    /**
+     * Create an ID mapping that appends a suffix to the original IDs. Objects without an original
+     * ID do not get an ID assigned.
+     *
+     * @param suffix
+     *            The suffix to append to the original IDs. Null is treated like an empty suffix.
+     * @return The ID mapping.
+     */
+    public static IdMapping appendToIds(String suffix) {
+        final String idSuffix = suffix == null ? "" : suffix;
+        return (original, originalId) -> originalId == null ? null : originalId + idSuffix;
+    }
+
+    /**
+     * Create an ID mapping that derives the new IDs from the original IDs and a seed. Copying the
+     * same objects with the same seed always results in the same IDs. Objects without an original
+     * ID do not get an ID assigned.
+     *
+     * @param seed
+     *            The seed the new IDs are derived from, e.g. a path describing the copy.
+     * @return The ID mapping.
+     */
+    public static IdMapping deterministicIds(String seed) {
+        return (original, originalId) -> originalId == null ? null : nameBasedId(seed + "/" + originalId);
+    }
+
+    /**
+     * Compute an ID in the style of the IDs generated by {@link EcoreUtil#generateUUID()} that is
+     * derived from the supplied name.
+     *
+     * @param name
+     *            The name the ID is derived from.
+     * @return An ID that is always the same for the same name.
+     */
+    public static String nameBasedId(String name) {
+        return "_" + UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * A mapping from the original ID of an object to the ID of its copy.
+     */
+    @FunctionalInterface
+    public interface IdMapping {
+
+        /**
+         * Compute the ID of the copy of an object.
+         *
+         * @param original
+         *            The original object that is copied.
+         * @param originalId
+         *            The ID of the original object, may be null.
+         * @return The ID of the copy, or null if the copy should not get an ID assigned.
+         */
+        String newId(EObject original, String originalId);
+    }
+}
@@ -0,0 +1,568 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.palladiosimulator.mdsdprofiles.api.StereotypeAPI;
+import org.palladiosimulator.pcm.core.composition.AssemblyContext;
+import org.palladiosimulator.pcm.repository.BasicComponent;
+import org.palladiosimulator.pcm.repository.CompositeComponent;
+import org.palladiosimulator.pcm.repository.Repository;
+import org.palladiosimulator.pcm.repository.RepositoryComponent;
+import org.palladiosimulator.pcm.resourceenvironment.ProcessingResourceSpecification;
+import org.palladiosimulator.pcm.resourceenvironment.ResourceContainer;
+import org.palladiosimulator.pcm.resourceenvironment.ResourceEnvironment;
+import org.palladiosimulator.pcm.usagemodel.BranchTransition;
+import org.palladiosimulator.pcm.usagemodel.EntryLevelSystemCall;
+import org.palladiosimulator.pcm.usagemodel.UsageModel;
+import org.palladiosimulator.wlcgmodel.util.ConcurrentModelSaver;
+import org.palladiosimulator.wlcgmodel.util.ModelSaveReport;
+import org.palladiosimulator.wlcgmodel.util.ModelSerialization;
+
+/**
+ * Instances of this class update previously constructed simulation models in place to match a
+ * changed set of node and job type descriptions. Only the model elements affected by changed
+ * parameters are modified and only the changed model files are saved.
+ *
+ * Changes that affect the structure of the models (added or removed node and job types, changed
+ * number of cores) cannot be applied incrementally. In this case, the models have to be
+ * constructed again from the blueprint model.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class IncrementalModelUpdater {
+
+    private final ResourceSet resourceSet = ModelSerialization.createResourceSet();
+    private final List<Resource> openedResources = new ArrayList<>();
+
+    private URI modelsPath;
+
+    private Repository repository = null;
+    private ResourceEnvironment resourceEnvironment = null;
+    private UsageModel usageModel = null;
+
+    private ModelSaveReport saveReport = null;
+
+    private final ModelConstructionOptions options;
+
+    /**
+     * Create a new incremental model updater using the default construction options.
+     */
+    public IncrementalModelUpdater() {
+        this(new ModelConstructionOptions());
+    }
+
+    /**
+     * Create a new incremental model updater.
+     *
+     * @param options
+     *            The options controlling how the updated models are saved.
+     */
+    public IncrementalModelUpdater(ModelConstructionOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Update the simulation models at the given location to match the provided node and job type
+     * descriptions. The changes are determined by comparing the descriptions with the parameters
+     * recorded when the models were constructed.
+     *
+     * @param modelsPath
+     *            The path to the previously constructed models. These are changed in place.
+     * @param nodes
+     *            The new list of node types.
+     * @param jobs
+     *            The new list of job types.
+     * @return True if the models have been updated or did not need to be changed, false if the
+     *         changes cannot be applied incrementally or the updated models could not be saved,
+     *         and the models need to be constructed again.
+     */
+    public boolean updateModels(final URI modelsPath, List<NodeTypeDescription> nodes,
+            List<JobTypeDescription> jobs) {
+
+        this.modelsPath = modelsPath;
+
+        URI recordURI = modelsPath.appendSegment(ConstructionParameterRecord.FILENAME);
+        ConstructionParameterRecord previous = ConstructionParameterRecord.read(resourceSet.getURIConverter(),
+                recordURI);
+
+        if (previous == null) {
+            System.out.println("No construction parameters recorded for the models, incremental update impossible.");
+            return false;
+        }
+
+        Map<String, JobTypeDescription> previousJobs = indexByName(previous.getJobs(),
+                JobTypeDescription::getTypeName);
+        Map<String, JobTypeDescription> newJobs = indexByName(jobs, JobTypeDescription::getTypeName);
+
+        if (previousJobs == null || newJobs == null) {
+            System.out.println("Job type names are not unique, incremental update impossible.");
+            return false;
+        }
+
+        // Node type names may repeat, so node types are matched by the paths their IDs are derived
+        // from, which number repeated names in the order of the node types
+        Map<String, NodeTypeDescription> previousNodes = indexByPath(previous.getNodes());
+        Map<String, NodeTypeDescription> newNodes = indexByPath(nodes);
+
+        if (!previousJobs.keySet().equals(newJobs.keySet()) || !previousNodes.keySet().equals(newNodes.keySet())) {
+            System.out.println("Node or job types were added or removed, incremental update impossible.");
+            return false;
+        }
+
+        if (previous.getMonitoringGranularity() != this.options.getMonitoringGranularity()) {
+            System.out.println("Monitoring granularity changed, incremental update impossible.");
+            return false;
+        }
+
+        if (previous.getReplicasExpanded() != this.options.getExpandReplicas()) {
+            System.out.println("Replica expansion changed, incremental update impossible.");
+            return false;
+        }
+
+        // Every replica is a separate resource container, changing them requires a rebuild
+        if (previous.getReplicasExpanded()) {
+            for (Map.Entry<String, NodeTypeDescription> entry : newNodes.entrySet()) {
+                NodeTypeDescription node = entry.getValue();
+                NodeTypeDescription previousNode = previousNodes.get(entry.getKey());
+                if (Double.compare(node.getComputingRate(), previousNode.getComputingRate()) != 0
+                        || node.getJobslots() != previousNode.getJobslots()
+                        || node.getNodeCount() != previousNode.getNodeCount()) {
+                    System.out.println("Node type " + node.getName()
+                            + " changed and its replicas are expanded, incremental update impossible.");
+                    return false;
+                }
+            }
+        }
+
+        for (MonitorKind kind : MonitorKind.values()) {
+            if (!previous.getMonitorAggregation(kind).equals(this.options.getMonitorAggregation(kind))) {
+                System.out.println("Aggregation of " + kind + " monitors changed, incremental update impossible.");
+                return false;
+            }
+        }
+
+        for (Map.Entry<String, NodeTypeDescription> entry : newNodes.entrySet()) {
+            if (entry.getValue().getCores() != previousNodes.get(entry.getKey()).getCores()) {
+                System.out.println("Number of cores changed for node type " + entry.getValue().getName()
+                        + ", incremental update impossible.");
+                return false;
+            }
+        }
+
+        // The grid job SEFF contains a behaviour per thread count. Their order only affects the
+        // simulation performance, so a reordering alone does not require a rebuild.
+        if (!new HashSet<>(WLCGModelConstructor.requiredThreadCounts(previous.getJobs(), previous.getNodes()))
+                .equals(new HashSet<>(WLCGModelConstructor.requiredThreadCounts(jobs, nodes)))) {
+            System.out.println("Required thread counts changed, incremental update impossible.");
+            return false;
+        }
+
+        int changedTypes = 0;
+
+        // The models are only saved after all changes have been applied, so models that cannot be
+        // patched are left unchanged on disk and can be constructed again
+        try {
+            for (JobTypeDescription job : jobs) {
+                if (updateJobType(previousJobs.get(job.getTypeName()), job)) {
+                    changedTypes++;
+                }
+            }
+
+            for (Map.Entry<String, NodeTypeDescription> entry : newNodes.entrySet()) {
+                if (updateNodeType(entry.getKey(), previousNodes.get(entry.getKey()), entry.getValue())) {
+                    changedTypes++;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Models do not match the recorded parameters, incremental update impossible: "
+                    + e.getMessage());
+            return false;
+        }
+
+        // The experiments only depend on the options and are generated again in any case
+        if (this.options.getExperimentConfiguration() != null) {
+            try {
+                ExperimentModelGenerator.generate(resourceSet.getURIConverter(),
+                        modelsPath.appendSegment(ExperimentModelGenerator.EXPERIMENTS_FILENAME),
+                        this.options.getExperimentConfiguration());
+            } catch (IOException e) {
+                System.out.println("Error while generating experiments, incremental update impossible: " + e);
+                return false;
+            }
+        }
+
+        if (changedTypes == 0) {
+            System.out.println("Parameters are unchanged, no models need to be updated.");
+            return true;
+        }
+
+        System.out.println("Updated " + changedTypes + " node and job types.");
+
+        // Save only the models that were actually changed, keeping the format they were saved in
+        List<Resource> modifiedResources = new ArrayList<>();
+        for (Resource resource : this.openedResources) {
+            if (resource.isModified()) {
+                modifiedResources.add(resource);
+            }
+        }
+
+        this.saveReport = ConcurrentModelSaver.saveAll(modifiedResources,
+                resource -> ModelSerialization.saveOptions(ModelSerialization.getFormat(resource)),
+                this.options.getSavingParallelism());
+
+        System.out.println(this.saveReport);
+
+        if (!this.saveReport.hasErrors()) {
+            try {
+                new ConstructionParameterRecord(nodes, jobs, previous.getMonitoringGranularity(),
+                        this.options.getMonitorAggregations(), previous.getReplicasExpanded())
+                                .write(resourceSet.getURIConverter(), recordURI);
+            } catch (IOException e) {
+                System.out.println("Error while saving construction parameters, e: " + e);
+            }
+        }
+
+        return !this.saveReport.hasErrors();
+    }
+
+    /**
+     * @return the report describing the outcome of saving the updated models, or null if no
+     *         models have been saved
+     */
+    public ModelSaveReport getSaveReport() {
+        return saveReport;
+    }
+
+    /**
+     * Apply the changed parameters of a job type to the models.
+     *
+     * @param previous
+     *            The job type description the models were constructed from.
+     * @param current
+     *            The new job type description.
+     * @return True if any parameter of the job type changed, else false.
+     */
+    private boolean updateJobType(JobTypeDescription previous, JobTypeDescription current) {
+        String jobTypeName = current.getTypeName();
+        boolean changed = false;
+
+        Map<String, String> previousParameters = WLCGModelConstructor.componentParameterSpecifications(previous);
+        Map<String, String> currentParameters = WLCGModelConstructor.componentParameterSpecifications(current);
+
+        if (!previousParameters.equals(currentParameters)) {
+            BasicComponent component = findJobComponent(jobTypeName);
+
+            for (Map.Entry<String, String> parameter : currentParameters.entrySet()) {
+                if (Objects.equals(parameter.getValue(), previousParameters.get(parameter.getKey()))) {
+                    continue;
+                }
+
+                boolean found = ModelConstructionUtils.setVariableUsageValue(
+                        component.getComponentParameterUsage_ImplementationComponentType(), parameter.getKey(),
+                        parameter.getValue());
+                if (!found) {
+                    throw new IllegalArgumentException("Job component " + jobTypeName
+                            + " is missing component parameter " + parameter.getKey());
+                }
+            }
+            changed = true;
+        }
+
+        if (!Objects.equals(previous.getRequiredJobslotsStoEx(), current.getRequiredJobslotsStoEx())
+                || previous.getSchedulingDelay() != current.getSchedulingDelay()) {
+            BasicComponent component = findJobComponent(jobTypeName);
+
+            if (hasStereotype(component, "MiddlewareDependency")) {
+                WLCGModelConstructor.applyJobTypeTaggedValues(component, current);
+            }
+            changed = true;
+        }
+
+        if (!WLCGModelConstructor.ioDemandSpecification(previous)
+                .equals(WLCGModelConstructor.ioDemandSpecification(current))) {
+            AssemblyContext assembly = findJobAssembly(findJobComponent(jobTypeName));
+
+            boolean found = ModelConstructionUtils.setVariableUsageValue(
+                    assembly.getConfigParameterUsages__AssemblyContext(),
+                    WLCGModelConstructor.IO_DEMAND_FROM_RATIO_PARAMETER,
+                    WLCGModelConstructor.ioDemandSpecification(current));
+            if (!found) {
+                throw new IllegalArgumentException("Assembly context of job component " + jobTypeName
+                        + " is missing configuration parameter " + WLCGModelConstructor.IO_DEMAND_FROM_RATIO_PARAMETER);
+            }
+            changed = true;
+        }
+
+        if (Double.compare(previous.getRelativeFrequency(), current.getRelativeFrequency()) != 0) {
+            findJobBranchTransition(jobTypeName).setBranchProbability(current.getRelativeFrequency());
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    /**
+     * Apply the changed parameters of a node type to the models. The number of cores must not have
+     * changed.
+     *
+     * @param path
+     *            The path of the node type, see {@link WLCGModelConstructor#nodeTypePaths(List)}.
+     * @param previous
+     *            The node type description the models were constructed from.
+     * @param current
+     *            The new node type description.
+     * @return True if any parameter of the node type changed, else false.
+     */
+    private boolean updateNodeType(String path, NodeTypeDescription previous, NodeTypeDescription current) {
+        boolean computingRateChanged = Double.compare(previous.getComputingRate(), current.getComputingRate()) != 0;
+        boolean jobslotsChanged = previous.getJobslots() != current.getJobslots();
+        boolean nodeCountChanged = previous.getNodeCount() != current.getNodeCount();
+
+        if (!computingRateChanged && !jobslotsChanged && !nodeCountChanged) {
+            return false;
+        }
+
+        ResourceContainer container = findNodeContainer(path);
+
+        if (computingRateChanged) {
+            WLCGModelConstructor.configureCpuSpecification(
+                    findResourceSpecification(container, WLCGModelConstructor.BLUEPRINT_CPU), current);
+        }
+
+        if (jobslotsChanged) {
+            WLCGModelConstructor.configureHddSpecification(
+                    findResourceSpecification(container, WLCGModelConstructor.BLUEPRINT_HDD), current);
+        }
+
+        if (jobslotsChanged || nodeCountChanged) {
+            WLCGModelConstructor.applyNodeTypeTaggedValues(container, current);
+        }
+
+        return true;
+    }
+
+    /**
+     * Find the basic component constructed for a job type.
+     *
+     * @param jobTypeName
+     *            The name of the job type.
+     * @return The job component.
+     */
+    private BasicComponent findJobComponent(String jobTypeName) {
+        for (RepositoryComponent component : getRepository().getComponents__Repository()) {
+            if (component instanceof BasicComponent && jobTypeName.equals(component.getEntityName())) {
+                return (BasicComponent) component;
+            }
+        }
+        throw new IllegalArgumentException("Repository model does not contain a component for job type " + jobTypeName);
+    }
+
+    /**
+     * Find the assembly context of a job component inside of the composite compute job component.
+     *
+     * @param component
+     *            The job component.
+     * @return The assembly context encapsulating the job component.
+     */
+    private AssemblyContext findJobAssembly(BasicComponent component) {
+        CompositeComponent computeJob = ModelConstructionUtils.findObjectWithId(getRepository().eResource(),
+                WLCGModelConstructor.COMPUTE_JOB_COMPOSITE_COMPONENT_ID, CompositeComponent.class);
+
+        if (computeJob != null) {
+            for (AssemblyContext assembly : computeJob.getAssemblyContexts__ComposedStructure()) {
+                if (assembly.getEncapsulatedComponent__AssemblyContext() == component) {
+                    return assembly;
+                }
+            }
+        }
+        throw new IllegalArgumentException(
+                "Repository model does not contain an assembly context for job component " + component.getEntityName());
+    }
+
+    /**
+     * Find the usage model branch transition constructed for a job type.
+     *
+     * @param jobTypeName
+     *            The name of the job type.
+     * @return The branch transition containing the system call for the job type.
+     */
+    private BranchTransition findJobBranchTransition(String jobTypeName) {
+        EntryLevelSystemCall systemCall = ModelConstructionUtils.findObjectWithId(getUsageModel().eResource(),
+                WLCGModelConstructor.BLUEPRINT_ENTRY_LEVEL_SYSTEM_CALL + jobTypeName, EntryLevelSystemCall.class);
+
+        EObject container = systemCall;
+        while (container != null && !(container instanceof BranchTransition)) {
+            container = container.eContainer();
+        }
+
+        if (container == null) {
+            throw new IllegalArgumentException("Usage model does not contain a branch for job type " + jobTypeName);
+        }
+        return (BranchTransition) container;
+    }
+
+    /**
+     * Find the resource container constructed for a node type by the ID derived from its path.
+     *
+     * @param path
+     *            The path of the node type, see {@link WLCGModelConstructor#nodeTypePaths(List)}.
+     * @return The resource container.
+     */
+    private ResourceContainer findNodeContainer(String path) {
+        ResourceContainer container = ModelConstructionUtils.findObjectWithId(getResourceEnvironment().eResource(),
+                WLCGModelConstructor.nodeTypeContainerId(path), ResourceContainer.class);
+
+        if (container == null) {
+            throw new IllegalArgumentException(
+                    "Resource environment does not contain a resource container for node type " + path);
+        }
+        return container;
+    }
+
+    /**
+     * Find the resource specification of a resource container that has the same resource type as a
+     * resource specification of the blueprint container.
+     *
+     * @param container
+     *            The resource container.
+     * @param blueprintSpecId
+     *            The ID of the blueprint resource specification.
+     * @return The matching resource specification of the container.
+     */
+    private ProcessingResourceSpecification findResourceSpecification(ResourceContainer container,
+            String blueprintSpecId) {
+
+        ProcessingResourceSpecification blueprintSpec = ModelConstructionUtils.findObjectWithId(
+                getResourceEnvironment().eResource(), blueprintSpecId, ProcessingResourceSpecification.class);
+
+        if (blueprintSpec == null) {
+            throw new IllegalArgumentException(
+                    "Resource environment does not contain blueprint resource " + blueprintSpecId);
+        }
+
+        for (ProcessingResourceSpecification spec : container
+                .getActiveResourceSpecifications_ResourceContainer()) {
+            if (spec.getActiveResourceType_ActiveResourceSpecification() == blueprintSpec
+                    .getActiveResourceType_ActiveResourceSpecification()) {
+                return spec;
+            }
+        }
+        throw new IllegalArgumentException("Resource container " + container.getEntityName()
+                + " does not contain a resource of the same type as " + blueprintSpecId);
+    }
+
+    /**
+     * Check whether a stereotype with the given name is applied to a model element.
+     *
+     * @param element
+     *            The model element.
+     * @param stereotypeName
+     *            The name of the stereotype.
+     * @return True if the stereotype is applied, else false.
+     */
+    private static boolean hasStereotype(EObject element, String stereotypeName) {
+        return StereotypeAPI.getAppliedStereotypes(element).stream()
+                .anyMatch(stereotype -> stereotypeName.equals(stereotype.getName()));
+    }
+
+    private Repository getRepository() {
+        if (this.repository == null) {
+            this.repository = loadModel(WLCGModelConstructor.REPO_MODEL_FILENAME, Repository.class);
+        }
+        return this.repository;
+    }
+
+    private ResourceEnvironment getResourceEnvironment() {
+        if (this.resourceEnvironment == null) {
+            this.resourceEnvironment = loadModel(WLCGModelConstructor.RESOURCE_ENVIRONMENT_MODEL_FILENAME,
+                    ResourceEnvironment.class);
+        }
+        return this.resourceEnvironment;
+    }
+
+    private UsageModel getUsageModel() {
+        if (this.usageModel == null) {
+            this.usageModel = loadModel(WLCGModelConstructor.USAGE_MODEL_FILENAME, UsageModel.class);
+        }
+        return this.usageModel;
+    }
+
+    /**
+     * Load a model and track modifications of it, so that it is only saved if it was changed. Models
+     * saved in binary format are loaded from the file with the binary file extension.
+     *
+     * @param modelFileName
+     *            The file name of the model in XMI format, relative to the models path.
+     * @param modelClass
+     *            The expected class of the model root element.
+     * @param <T>
+     *            The type of the model root element.
+     * @return The model root element.
+     */
+    private <T> T loadModel(String modelFileName, Class<T> modelClass) {
+        URI modelURI = ModelSerialization.existingModelURI(resourceSet.getURIConverter(),
+                this.modelsPath.appendSegment(modelFileName));
+        Resource resource = resourceSet.getResource(modelURI, true);
+        ModelConstructionUtils.indexIds(resource);
+        resource.setTrackingModification(true);
+
+        openedResources.add(resource);
+
+        if (resource.getContents().isEmpty() || !modelClass.isInstance(resource.getContents().get(0))) {
+            throw new IllegalArgumentException(
+                    "Model " + modelFileName + " does not contain a model of the correct type!");
+        }
+        return modelClass.cast(resource.getContents().get(0));
+    }
+
+    /**
+     * Index descriptions by their name.
+     *
+     * @param descriptions
+     *            The descriptions to index.
+     * @param nameFunction
+     *            The function returning the name of a description.
+     * @param <T>
+     *            The type of the descriptions.
+     * @return A map from names to descriptions, or null if the names are not unique.
+     */
+    private static <T> Map<String, T> indexByName(List<T> descriptions, Function<T, String> nameFunction) {
+        Map<String, T> result = new HashMap<>();
+        for (T description : descriptions) {
+            if (result.put(nameFunction.apply(description), description) != null) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Index node type descriptions by their paths, see
+     * {@link WLCGModelConstructor#nodeTypePaths(List)}.
+     *
+     * @param nodes
+     *            The node type descriptions to index.
+     * @return A map from paths to node type descriptions, in the order of the node types.
+     */
+    private static Map<String, NodeTypeDescription> indexByPath(List<NodeTypeDescription> nodes) {
+        Map<NodeTypeDescription, String> paths = WLCGModelConstructor.nodeTypePaths(nodes);
+        Map<String, NodeTypeDescription> result = new LinkedHashMap<>();
+        for (NodeTypeDescription node : nodes) {
+            result.put(paths.get(node), node);
+        }
+        return result;
+    }
+}
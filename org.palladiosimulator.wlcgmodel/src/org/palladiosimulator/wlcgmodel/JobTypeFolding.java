@@ -0,0 +1,251 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import org.palladiosimulator.wlcgmodel.util.DoublePdf;
+import org.palladiosimulator.wlcgmodel.util.StoExParsingHelper;
+
+/**
+ * Pre-processing stage of the parameter import that folds rare job types into a synthetic job type.
+ * Every job type becomes a component with its own interface, SEFF, roles, connectors, usage branch
+ * and monitors, even if hardly any jobs of the type are submitted. Folding the rare types shrinks
+ * the model and reduces the number of measurement streams.
+ *
+ * Job types whose share of the total relative frequency is below the threshold are replaced by a
+ * job type named {@value #OTHER_TYPE_NAME}, whose relative frequency is the sum of the folded
+ * frequencies. Its demand distributions are the frequency weighted mixtures of the folded
+ * distributions, see {@link DoublePdf#mixture(DoublePdf[], double[])}, and its number of required
+ * job slots is the mixture of the folded integer PMFs. Job types that derive their I/O demand
+ * from the CPU demand are folded separately from those with a direct I/O demand, into
+ * <code>other_io_ratio</code> if both kinds are folded. The demands of
+ * each folded job type are mixed independently, so correlations between them are lost.
+ *
+ * Job types whose demands are not given as <code>DoublePDF</code>s, and rare job types that would
+ * be the only member of their synthetic type, are left unchanged.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class JobTypeFolding {
+
+    /**
+     * Name of the synthetic job type the rare job types are folded into.
+     */
+    public static final String OTHER_TYPE_NAME = "other";
+
+    private static final String IO_RATIO_SUFFIX = "_io_ratio";
+
+    private final double threshold;
+
+    /**
+     * Create a folding stage.
+     *
+     * @param threshold
+     *            The share of the total relative frequency below which a job type is folded, e.g.
+     *            0.01 for job types with less than 1% of the jobs.
+     * @throws IllegalArgumentException
+     *             Thrown if the threshold is not between 0 and 1.
+     */
+    public JobTypeFolding(double threshold) {
+        if (!(threshold >= 0 && threshold <= 1)) {
+            throw new IllegalArgumentException("Folding threshold must be between 0 and 1.");
+        }
+        this.threshold = threshold;
+    }
+
+    /**
+     * @return the share of the total relative frequency below which a job type is folded
+     */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Fold the rare job types. The synthetic job types are appended after the job types that are
+     * not folded. The folded job types are printed.
+     *
+     * @param jobTypes
+     *            The job type descriptions to fold, which are not modified.
+     * @return The job type descriptions after folding.
+     * @throws IllegalArgumentException
+     *             Thrown if a distribution of a rare job type is invalid, or a job type already has
+     *             the name of a synthetic job type.
+     */
+    public List<JobTypeDescription> fold(List<JobTypeDescription> jobTypes) {
+        double totalFrequency = jobTypes.stream().mapToDouble(JobTypeDescription::getRelativeFrequency).sum();
+
+        List<JobTypeDescription> kept = new ArrayList<>();
+        List<JobTypeDescription> directIo = new ArrayList<>();
+        List<JobTypeDescription> ioRatio = new ArrayList<>();
+
+        for (JobTypeDescription jobType : jobTypes) {
+            if (jobType.getRelativeFrequency() < threshold * totalFrequency && isFoldable(jobType)) {
+                (jobType.getUseIoRatio() ? ioRatio : directIo).add(jobType);
+            } else {
+                kept.add(jobType);
+            }
+        }
+
+        // A synthetic type for a single job type would not make the model smaller
+        if (directIo.size() < 2) {
+            kept.addAll(directIo);
+            directIo.clear();
+        }
+        if (ioRatio.size() < 2) {
+            kept.addAll(ioRatio);
+            ioRatio.clear();
+        }
+
+        if (directIo.isEmpty() && ioRatio.isEmpty()) {
+            System.out.println("No job types folded");
+            return kept;
+        }
+
+        List<JobTypeDescription> folded = new ArrayList<>(jobTypes);
+        folded.removeIf(jobType -> !kept.contains(jobType));
+
+        if (!directIo.isEmpty()) {
+            folded.add(merge(directIo, OTHER_TYPE_NAME, kept));
+        }
+        if (!ioRatio.isEmpty()) {
+            folded.add(merge(ioRatio, directIo.isEmpty() ? OTHER_TYPE_NAME : OTHER_TYPE_NAME + IO_RATIO_SUFFIX,
+                    kept));
+        }
+
+        System.out.println(String.format("Folded %d job types into %d, %d job types remain",
+                directIo.size() + ioRatio.size(), folded.size() - kept.size(), folded.size()));
+        return folded;
+    }
+
+    @Override
+    public String toString() {
+        return "threshold: " + threshold;
+    }
+
+    /**
+     * Check whether the demand distributions a folded job type needs are probability density
+     * functions.
+     */
+    private static boolean isFoldable(JobTypeDescription jobType) {
+        String ioSpecification = jobType.getUseIoRatio() ? jobType.getIoTimeRatioStoEx() : jobType.getIoTimeStoEx();
+        return StoExParsingHelper.isDoublePdf(jobType.getCpuDemandStoEx())
+                && StoExParsingHelper.isDoublePdf(ioSpecification);
+    }
+
+    /**
+     * Merge a group of job types into a synthetic job type.
+     */
+    private static JobTypeDescription merge(List<JobTypeDescription> group, String name,
+            List<JobTypeDescription> kept) {
+
+        for (JobTypeDescription jobType : kept) {
+            if (name.equals(jobType.getTypeName())) {
+                throw new IllegalArgumentException("Cannot fold job types into " + name
+                        + ", a job type with this name already exists.");
+            }
+        }
+
+        double frequency = group.stream().mapToDouble(JobTypeDescription::getRelativeFrequency).sum();
+
+        // Job types that are never submitted are weighted equally
+        double[] frequencies = new double[group.size()];
+        double schedulingDelay = 0;
+        for (int i = 0; i < frequencies.length; i++) {
+            frequencies[i] = frequency > 0 ? group.get(i).getRelativeFrequency() / frequency : 1.0 / frequencies.length;
+            schedulingDelay += frequencies[i] * group.get(i).getSchedulingDelay();
+        }
+
+        JobTypeDescription other = new JobTypeDescription();
+        other.setTypeName(name);
+        other.setRelativeFrequency(frequency);
+        other.setUseIoRatio(group.get(0).getUseIoRatio());
+        other.setSchedulingDelay((int) Math.round(schedulingDelay));
+        other.setCpuDemandStoEx(mixPdfs(group, frequencies, JobTypeDescription::getCpuDemandStoEx, name));
+        other.setIoTimeStoEx(mixPdfs(group, frequencies, JobTypeDescription::getIoTimeStoEx, name));
+        other.setIoTimeRatioStoEx(mixPdfs(group, frequencies, JobTypeDescription::getIoTimeRatioStoEx, name));
+        other.setInterarrivalStoEx(mixPdfs(group, frequencies, JobTypeDescription::getInterarrivalStoEx, name));
+        other.setRequiredJobslotsStoEx(
+                mixPmfs(group, frequencies, JobTypeDescription::getRequiredJobslotsStoEx, name));
+        other.setResourceDemandRounds(
+                mixPmfs(group, frequencies, JobTypeDescription::getResourceDemandRounds, name));
+
+        List<String> names = new ArrayList<>();
+        for (JobTypeDescription jobType : group) {
+            names.add(jobType.getTypeName());
+        }
+        System.out.println("Folded " + names + " into " + name + " with relative frequency " + frequency);
+
+        return other;
+    }
+
+    /**
+     * Mix a distribution of the job types of a group, weighted by their normalized frequencies. If
+     * all job types have the same expression, it is used unchanged.
+     *
+     * @return The mixture, or null if the distribution is not a PDF for every job type.
+     */
+    private static String mixPdfs(List<JobTypeDescription> group, double[] frequencies,
+            Function<JobTypeDescription, String> field, String name) {
+
+        String first = field.apply(group.get(0));
+        if (group.stream().allMatch(jobType -> first != null && first.equals(field.apply(jobType)))) {
+            return first;
+        }
+        if (!group.stream().allMatch(jobType -> StoExParsingHelper.isDoublePdf(field.apply(jobType)))) {
+            return null;
+        }
+
+        DoublePdf[] pdfs = new DoublePdf[group.size()];
+        for (int i = 0; i < pdfs.length; i++) {
+            pdfs[i] = DoublePdf.parse(field.apply(group.get(i)));
+        }
+        try {
+            return DoublePdf.mixture(pdfs, frequencies).toStoEx();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cannot fold job types into " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Mix an integer distribution of the job types of a group, weighted by their normalized
+     * frequencies. If all job types have the same expression, it is used unchanged. The probabilities
+     * are written without exponent, like those of the mixed PDFs.
+     *
+     * @return The mixture.
+     */
+    private static String mixPmfs(List<JobTypeDescription> group, double[] frequencies,
+            Function<JobTypeDescription, String> field, String name) {
+
+        String first = field.apply(group.get(0));
+        if (group.stream().allMatch(jobType -> first != null && first.equals(field.apply(jobType)))) {
+            return first;
+        }
+
+        Map<Integer, Double> mixture = new TreeMap<>();
+        for (int i = 0; i < frequencies.length; i++) {
+            Map<Integer, Double> pmf;
+            try {
+                pmf = StoExParsingHelper.parseIntPmf(field.apply(group.get(i)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Cannot fold job type " + group.get(i).getTypeName() + " into "
+                        + name + ": " + e.getMessage(), e);
+            }
+
+            double sum = pmf.values().stream().mapToDouble(Double::doubleValue).sum();
+            for (Map.Entry<Integer, Double> sample : pmf.entrySet()) {
+                mixture.merge(sample.getKey(), frequencies[i] * sample.getValue() / sum, Double::sum);
+            }
+        }
+
+        StringBuilder builder = new StringBuilder("IntPMF[");
+        for (Map.Entry<Integer, Double> sample : mixture.entrySet()) {
+            builder.append('(').append(sample.getKey()).append(';').append(DoublePdf.format(sample.getValue()))
+                    .append(')');
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,331 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Instances of this class contain the options that control how a simulation model is constructed
+ * from the blueprint model and the parameter descriptions. The default options construct the model
+ * sequentially.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class ModelConstructionOptions {
+
+    private boolean parallelConstruction = false;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private ModelSerializationFormat serializationFormat = ModelSerializationFormat.XMI;
+    private boolean expandReplicas = false;
+    private boolean parallelSaving = true;
+    private MonitoringGranularity monitoringGranularity = MonitoringGranularity.PER_CORE;
+    private double utilizationWindowLength = 600.0;
+    private final Map<MonitorKind, MonitorAggregation> monitorAggregations = new EnumMap<>(MonitorKind.class);
+    private DemandDistributionCompaction demandCompaction = null;
+    private NodeTypeCoarsening nodeTypeCoarsening = null;
+    private JobTypeFolding jobTypeFolding = null;
+    private ExperimentConfiguration experimentConfiguration = null;
+    private File modelCacheDirectory = null;
+    private int modelCacheSize = 16;
+    private File metricsReportFile = null;
+
+    /**
+     * Construct a new model construction options instance with default values.
+     */
+    public ModelConstructionOptions() {
+    }
+
+    /**
+     * @return whether independent parts of the model are constructed concurrently
+     */
+    public boolean getParallelConstruction() {
+        return parallelConstruction;
+    }
+
+    /**
+     * @param parallelConstruction
+     *            whether independent parts of the model should be constructed concurrently
+     */
+    public void setParallelConstruction(boolean parallelConstruction) {
+        this.parallelConstruction = parallelConstruction;
+    }
+
+    /**
+     * @return the maximum number of threads used for parallel construction
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @param parallelism
+     *            the maximum number of threads used for parallel construction
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the format the constructed models are saved in
+     */
+    public ModelSerializationFormat getSerializationFormat() {
+        return serializationFormat;
+    }
+
+    /**
+     * @param serializationFormat
+     *            the format the constructed models are saved in. Binary models are saved with an
+     *            additional file extension and can only be read by the simulator inside of Eclipse
+     *            and by resource sets that register the binary resource factory of
+     *            {@link org.palladiosimulator.wlcgmodel.util.ModelSerialization}, not by the model
+     *            editors.
+     */
+    public void setSerializationFormat(ModelSerializationFormat serializationFormat) {
+        this.serializationFormat = serializationFormat;
+    }
+
+    /**
+     * @return whether the replicas of each node type are pre-materialized in the resource
+     *         environment and allocation as separate resource containers and allocation contexts.
+     *         This only saves the architectural template from copying them, the template
+     *         transformation still runs when every simulation run starts and adds the load balancer
+     */
+    public boolean getExpandReplicas() {
+        return expandReplicas;
+    }
+
+    /**
+     * @param expandReplicas
+     *            whether the replicas of each node type should be pre-materialized in the resource
+     *            environment and allocation as separate resource containers and allocation
+     *            contexts. This only saves the architectural template from copying them, the
+     *            template transformation still runs when every simulation run starts and adds the
+     *            load balancer
+     */
+    public void setExpandReplicas(boolean expandReplicas) {
+        this.expandReplicas = expandReplicas;
+    }
+
+    /**
+     * @return the number of threads to be used for construction steps that may run concurrently,
+     *         which is 1 if parallel construction is disabled
+     */
+    public int getEffectiveParallelism() {
+        return parallelConstruction ? Math.max(1, parallelism) : 1;
+    }
+
+    /**
+     * @return whether the constructed models are saved concurrently
+     */
+    public boolean getParallelSaving() {
+        return parallelSaving;
+    }
+
+    /**
+     * @param parallelSaving
+     *            whether the constructed models should be saved concurrently
+     */
+    public void setParallelSaving(boolean parallelSaving) {
+        this.parallelSaving = parallelSaving;
+    }
+
+    /**
+     * @return the number of threads to be used to save the constructed models, which is 1 if
+     *         parallel saving is disabled
+     */
+    public int getSavingParallelism() {
+        return parallelSaving ? Math.max(1, parallelism) : 1;
+    }
+
+    /**
+     * @return the granularity of the CPU monitoring of the node types
+     */
+    public MonitoringGranularity getMonitoringGranularity() {
+        return monitoringGranularity;
+    }
+
+    /**
+     * @param monitoringGranularity
+     *            the granularity of the CPU monitoring of the node types
+     */
+    public void setMonitoringGranularity(MonitoringGranularity monitoringGranularity) {
+        this.monitoringGranularity = monitoringGranularity;
+    }
+
+    /**
+     * @return the length of the time windows for the aggregated CPU utilization in simulated seconds
+     */
+    public double getUtilizationWindowLength() {
+        return utilizationWindowLength;
+    }
+
+    /**
+     * @param utilizationWindowLength
+     *            the length of the time windows for the aggregated CPU utilization in simulated seconds
+     */
+    public void setUtilizationWindowLength(double utilizationWindowLength) {
+        this.utilizationWindowLength = utilizationWindowLength;
+    }
+
+    /**
+     * @param kind
+     *            the kind of generated monitor
+     * @return the aggregation of the measurements of the monitors of this kind, which is feed
+     *         through unless configured otherwise
+     */
+    public MonitorAggregation getMonitorAggregation(MonitorKind kind) {
+        return monitorAggregations.getOrDefault(kind, MonitorAggregation.feedThrough());
+    }
+
+    /**
+     * @param kind
+     *            the kind of generated monitor
+     * @param aggregation
+     *            the aggregation of the measurements of the monitors of this kind
+     */
+    public void setMonitorAggregation(MonitorKind kind, MonitorAggregation aggregation) {
+        monitorAggregations.put(kind, aggregation);
+    }
+
+    /**
+     * @return the configured aggregations of the generated monitors by monitor kind
+     */
+    public Map<MonitorKind, MonitorAggregation> getMonitorAggregations() {
+        return Collections.unmodifiableMap(monitorAggregations);
+    }
+
+    /**
+     * @return the compaction applied to the demand distributions of the job types when the
+     *         parameter files are imported, or null if they are used unchanged
+     */
+    public DemandDistributionCompaction getDemandCompaction() {
+        return demandCompaction;
+    }
+
+    /**
+     * @param demandCompaction
+     *            the compaction applied to the demand distributions of the job types when the
+     *            parameter files are imported, or null to use them unchanged
+     */
+    public void setDemandCompaction(DemandDistributionCompaction demandCompaction) {
+        this.demandCompaction = demandCompaction;
+    }
+
+    /**
+     * @return the coarsening applied to the node types when the parameter files are imported, or
+     *         null if every node type is modelled separately
+     */
+    public NodeTypeCoarsening getNodeTypeCoarsening() {
+        return nodeTypeCoarsening;
+    }
+
+    /**
+     * @param nodeTypeCoarsening
+     *            the coarsening applied to the node types when the parameter files are imported, or
+     *            null to model every node type separately
+     */
+    public void setNodeTypeCoarsening(NodeTypeCoarsening nodeTypeCoarsening) {
+        this.nodeTypeCoarsening = nodeTypeCoarsening;
+    }
+
+    /**
+     * @return the folding applied to rare job types when the parameter files are imported, or null
+     *         if every job type is modelled separately
+     */
+    public JobTypeFolding getJobTypeFolding() {
+        return jobTypeFolding;
+    }
+
+    /**
+     * @param jobTypeFolding
+     *            the folding applied to rare job types when the parameter files are imported, or
+     *            null to model every job type separately
+     */
+    public void setJobTypeFolding(JobTypeFolding jobTypeFolding) {
+        this.jobTypeFolding = jobTypeFolding;
+    }
+
+    /**
+     * @return the configuration of the generated ExperimentAutomation experiments, or null if the
+     *         experiments of the blueprint model are kept unchanged
+     */
+    public ExperimentConfiguration getExperimentConfiguration() {
+        return experimentConfiguration;
+    }
+
+    /**
+     * @param experimentConfiguration
+     *            the configuration of the generated ExperimentAutomation experiments, or null to
+     *            keep the experiments of the blueprint model unchanged
+     */
+    public void setExperimentConfiguration(ExperimentConfiguration experimentConfiguration) {
+        this.experimentConfiguration = experimentConfiguration;
+    }
+
+    /**
+     * @return the directory in which constructed model sets are cached, or null if the cache is
+     *         disabled
+     */
+    public File getModelCacheDirectory() {
+        return modelCacheDirectory;
+    }
+
+    /**
+     * @param modelCacheDirectory
+     *            the directory in which constructed model sets are cached, or null to disable the
+     *            cache
+     */
+    public void setModelCacheDirectory(File modelCacheDirectory) {
+        this.modelCacheDirectory = modelCacheDirectory;
+    }
+
+    /**
+     * @return the maximum number of model sets kept in the cache
+     */
+    public int getModelCacheSize() {
+        return modelCacheSize;
+    }
+
+    /**
+     * @param modelCacheSize
+     *            the maximum number of model sets kept in the cache
+     */
+    public void setModelCacheSize(int modelCacheSize) {
+        this.modelCacheSize = modelCacheSize;
+    }
+
+    /**
+     * @return the file the construction metrics report is written to, or null if no report is
+     *         written
+     */
+    public File getMetricsReportFile() {
+        return metricsReportFile;
+    }
+
+    /**
+     * @param metricsReportFile
+     *            the file the construction metrics report is written to, or null to not write a
+     *            report. The report contains timings, so it should not be placed in the model
+     *            directory, where it would change the model set on every construction.
+     */
+    public void setMetricsReportFile(File metricsReportFile) {
+        this.metricsReportFile = metricsReportFile;
+    }
+
+    @Override
+    public String toString() {
+        return "Parallel construction: " + this.parallelConstruction + ", parallelism: " + this.parallelism
+                + ", serialization format: " + this.serializationFormat + ", expand replicas: "
+                + this.expandReplicas + ", parallel saving: "
+                + this.parallelSaving + ", monitoring granularity: " + this.monitoringGranularity
+                + ", utilization window length: " + this.utilizationWindowLength + ", monitor aggregations: "
+                + this.monitorAggregations + ", demand compaction: " + this.demandCompaction
+                + ", node type coarsening: " + this.nodeTypeCoarsening + ", job type folding: "
+                + this.jobTypeFolding + ", experiments: "
+                + this.experimentConfiguration
+                + ", model cache directory: " + this.modelCacheDirectory + ", model cache size: "
+                + this.modelCacheSize + ", metrics report: " + this.metricsReportFile;
+    }
+}
@@ -1,10 +1,15 @@
 package org.palladiosimulator.wlcgmodel;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.palladiosimulator.pcm.core.CoreFactory;
 import org.palladiosimulator.pcm.core.PCMRandomVariable;
@@ -67,6 +72,38 @@ public class ModelConstructionUtils {
         return result;
     }
 
+    /**
+     * Change the value specification of the variable usage with the given name in a list of
+     * variable usages, e.g. the component parameter usages of a component.
+     *
+     * @param variableUsages
+     *            The variable usages to search.
+     * @param parameterName
+     *            The name of the variable whose value should be changed.
+     * @param valueSpecification
+     *            The new specification for the variable.
+     * @return True if a value characterisation for the variable was found and changed, else false.
+     */
+    public static boolean setVariableUsageValue(List<VariableUsage> variableUsages, String parameterName,
+            String valueSpecification) {
+
+        for (VariableUsage usage : variableUsages) {
+            if (usage.getNamedReference__VariableUsage() == null
+                    || !parameterName.equals(usage.getNamedReference__VariableUsage().getReferenceName())) {
+                continue;
+            }
+
+            for (VariableCharacterisation characterisation : usage.getVariableCharacterisation_VariableUsage()) {
+                if (characterisation.getType() == VariableCharacterisationType.VALUE
+                        && characterisation.getSpecification_VariableCharacterisation() != null) {
+                    characterisation.getSpecification_VariableCharacterisation().setSpecification(valueSpecification);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Find the object with known ID in the list and return it, return null if there is no such
      * object.
@@ -88,6 +125,98 @@ public class ModelConstructionUtils {
         }
     }
 
+    /**
+     * Build an index of all objects with an ID contained in the provided resource in a single pass
+     * over its contents. The index is kept up to date by the resource itself afterwards: Objects
+     * attached to or detached from the resource are added to or removed from the index.
+     *
+     * Resources that already have an index are not indexed again.
+     *
+     * @param resource
+     *            The resource whose contents should be indexed. If null or not an EMF resource
+     *            implementation, nothing is indexed.
+     */
+    public static void indexIds(Resource resource) {
+        if (!(resource instanceof ResourceImpl)) {
+            return;
+        }
+
+        ResourceImpl resourceImpl = (ResourceImpl) resource;
+        if (resourceImpl.getIntrinsicIDToEObjectMap() != null) {
+            return;
+        }
+
+        Map<String, EObject> index = new HashMap<>();
+
+        TreeIterator<EObject> i = resource.getAllContents();
+        while (i.hasNext()) {
+            EObject obj = i.next();
+
+            String objId = EcoreUtil.getID(obj);
+            if (objId != null) {
+                index.putIfAbsent(objId, obj);
+            }
+        }
+
+        // The resource maintains this map when objects are attached or detached
+        resourceImpl.setIntrinsicIDToEObjectMap(index);
+    }
+
+    /**
+     * Find the object with known ID in the provided resource using its ID index (see
+     * {@link #indexIds(Resource)}). Falls back to searching all contents of the resource in case
+     * the resource has not been indexed or the index entry is outdated, and updates the index with
+     * the found object.
+     *
+     * @param resource
+     *            The resource to be searched for the object with given ID.
+     * @param id
+     *            The ID of the object to be searched for.
+     * @param objectClass
+     *            The expected class of the object.
+     * @param <T>
+     *            The type of the object to be searched for, which has to be an Ecore object.
+     * @return The found object, or null if there is no such object or it is not of the expected
+     *         class.
+     */
+    public static <T extends EObject> T findObjectWithId(Resource resource, String id, Class<T> objectClass) {
+        if (resource == null || id == null) {
+            return null;
+        }
+
+        EObject result = null;
+        Map<String, EObject> index = null;
+        if (resource instanceof ResourceImpl) {
+            index = ((ResourceImpl) resource).getIntrinsicIDToEObjectMap();
+            if (index != null) {
+                result = index.get(id);
+            }
+        }
+
+        // IDs of objects may have been changed after they were indexed. The resource's own lookup
+        // would use the same outdated index, so search the contents instead.
+        if (result == null || result.eResource() != resource || !id.equals(EcoreUtil.getID(result))) {
+            result = null;
+
+            TreeIterator<EObject> i = resource.getAllContents();
+            while (i.hasNext() && result == null) {
+                EObject obj = i.next();
+                if (id.equals(EcoreUtil.getID(obj))) {
+                    result = obj;
+                }
+            }
+
+            if (result != null && index != null) {
+                index.put(id, result);
+            }
+        }
+
+        if (objectClass.isInstance(result)) {
+            return objectClass.cast(result);
+        }
+        return null;
+    }
+
     /**
      * Find the object with know ID in all objects contained in the passed object, or null if there
      * is no such object.
@@ -133,6 +262,26 @@ public class ModelConstructionUtils {
         }
     }
 
+    /**
+     * Set the ID of an Ecore object to an ID derived from the provided path, see
+     * {@link IdMappingCopier#nameBasedId(String)}. Setting the ID of an object with the same path
+     * always results in the same ID, so unchanged objects are serialized identically every time a
+     * model is constructed. Ignores objects that do not have an ID associated with them.
+     *
+     * @param object
+     *            The object whose ID should be changed.
+     * @param path
+     *            A path that identifies the object, e.g. the ID of the blueprint element it is based
+     *            on followed by the name of its job type. Has to be unique within the model.
+     */
+    public static void setDeterministicID(EObject object, String path) {
+        try {
+            EcoreUtil.setID(object, IdMappingCopier.nameBasedId(path));
+        } catch (IllegalArgumentException e) {
+            // Objects without an ID are skipped, see setRandomID
+        }
+    }
+
     /**
      * Change the ID of an Ecore object by appending the provided string. Ignores objects that do
      * not have an ID associated with them.
@@ -182,6 +331,32 @@ public class ModelConstructionUtils {
         }
     }
 
+    /**
+     * Set the ID of an Ecore object and all IDs of object contained in it via a containment
+     * reference to IDs derived from the provided path. The IDs of the contained objects are derived
+     * from the path and their containment path relative to the object. Ignores objects that do not
+     * have an ID associated with them.
+     *
+     * @param object
+     *            The object whose contained objects should be traversed and whose IDs should be
+     *            changed. If null, do nothing.
+     * @param path
+     *            A path that identifies the object, see {@link #setDeterministicID(EObject, String)}.
+     */
+    public static void setDeterministicIDsRecursively(EObject object, String path) {
+        if (object == null) {
+            return;
+        }
+
+        setDeterministicID(object, path);
+
+        TreeIterator<EObject> i = object.eAllContents();
+        while (i.hasNext()) {
+            EObject obj = i.next();
+            setDeterministicID(obj, path + "/" + EcoreUtil.getRelativeURIFragmentPath(object, obj));
+        }
+    }
+
     /**
      * Set the ID of an Ecore object and all IDs of object contained in it via a containment
      * reference by appending a string. Ignores objects that do not have an ID associated with them.
@@ -209,7 +384,7 @@ public class ModelConstructionUtils {
 
     /**
      * Make a deep copy of the provided objects and change all IDs of objects contained in it via a
-     * containment reference.
+     * containment reference. New IDs are assigned while copying.
      *
      * @param object
      *            The Ecore object to be copied.
@@ -218,30 +393,30 @@ public class ModelConstructionUtils {
      * @return A deep copy of the object where all IDs have been changed.
      */
     public static <T extends EObject> T copyChangeIds(T object) {
+        return new IdMappingCopier(IdMappingCopier.randomIds()).copyWithReferences(object);
+    }
 
-        // This returns a deep copy including all containment references
-        T result = EcoreUtil.copy(object);
-
-        // Reset ID of the top-level object
-        EcoreUtil.setID(result, EcoreUtil.generateUUID());
-
-        TreeIterator<EObject> i = result.eAllContents();
-        while (i.hasNext()) {
-            EObject obj = i.next();
-
-            // Reset all IDs for contained objects that have IDs
-            try {
-                EcoreUtil.setID(obj, EcoreUtil.generateUUID());
-            } catch (IllegalArgumentException e) {
-                // Object does not have ID, do not reset anything
-            }
-        }
-        return result;
+    /**
+     * Make a deep copy of the provided objects and change all IDs of objects contained in it via a
+     * containment reference. The new IDs are derived from the original IDs and the provided path,
+     * so copying the same object with the same path always results in the same IDs.
+     *
+     * @param object
+     *            The Ecore object to be copied.
+     * @param path
+     *            A path that identifies the copy, e.g. the name of the node type it is made for.
+     * @param <T>
+     *            The type of the object. Has to be an Ecore object.
+     * @return A deep copy of the object where all IDs have been changed.
+     */
+    public static <T extends EObject> T copyChangeIds(T object, String path) {
+        return new IdMappingCopier(IdMappingCopier.deterministicIds(path)).copyWithReferences(object);
     }
 
     /**
      * Make a deep copy of an Ecore object (copy including copies of object included in containment
-     * references), and append a suffix to each ID in the copied object tree.
+     * references), and append a suffix to each ID in the copied object tree. IDs are changed while
+     * copying.
      *
      * @param object
      *            The object to be copied. If null, nothing is copied and null returned.
@@ -257,9 +432,7 @@ public class ModelConstructionUtils {
             return null;
         }
 
-        T result = EcoreUtil.copy(object);
-        appendIDsRecursively(result, suffix);
-        return result;
+        return new IdMappingCopier(IdMappingCopier.appendToIds(suffix)).copyWithReferences(object);
     }
 
     /**
@@ -306,12 +479,53 @@ public class ModelConstructionUtils {
     public static BranchAction duplicateBehaviours(ForkAction containingAction, String duplicationCountParameterName,
             int maxThreads) {
 
-        ForkAction localContainingAction = ModelConstructionUtils.copyChangeIds(containingAction);
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int i = 1; i <= maxThreads; i++) {
+            threadCounts.add(i);
+        }
+        return duplicateBehaviours(containingAction, duplicationCountParameterName, threadCounts);
+    }
+
+    /**
+     * Duplicate the contents of a fork action for each of the given thread counts. The branch
+     * transitions are created in the order of the thread counts. As guarded branch transitions are
+     * evaluated in order, the most likely thread counts should be passed first.
+     *
+     * The IDs of the created objects are derived from the IDs of the fork action and its contents
+     * and the thread counts, so duplicating the same fork action always results in the same IDs.
+     *
+     * @param containingAction
+     *            The forked action containing the behaviour to be duplicated.
+     * @param duplicationCountParameterName
+     *            The name of the variable that is used to choose the correct number of threads the
+     *            action is to be split into.
+     * @param threadCounts
+     *            The numbers of forks the action should be able to be split into.
+     * @return A branch action that contains the fork actions and a branch condition that selects
+     *         the correct fork action based on the duplication count parameter.
+     */
+    public static BranchAction duplicateBehaviours(ForkAction containingAction, String duplicationCountParameterName,
+            List<Integer> threadCounts) {
+
+        if (threadCounts.isEmpty()) {
+            throw new IllegalArgumentException("At least one thread count is required.");
+        }
+
+        String forkId = EcoreUtil.getID(containingAction);
 
         BranchAction branchResult = SeffFactory.eINSTANCE.createBranchAction();
+        setDeterministicID(branchResult, forkId + "/threadCountBranch");
 
-        for (int i = 1; i <= maxThreads; i++) {
-            ForkAction newFork = ModelConstructionUtils.copyAppendIds(localContainingAction, "_threadcount_" + i);
+        for (int i : threadCounts) {
+            if (i < 1) {
+                throw new IllegalArgumentException("Invalid thread count: " + i);
+            }
+
+            // Each copy of the fork action gets the IDs of the original objects with the thread
+            // count appended, which avoids creating an intermediate copy of the fork action
+            String threadCountSuffix = "_threadcount_" + i;
+            IdMappingCopier copier = new IdMappingCopier(IdMappingCopier.appendToIds(threadCountSuffix));
+            ForkAction newFork = copier.copyWithReferences(containingAction);
 
             SynchronisationPoint syncPoint = newFork.getSynchronisingBehaviours_ForkAction();
             if (syncPoint == null) {
@@ -338,13 +552,17 @@ public class ModelConstructionUtils {
             GuardedBranchTransition transition = SeffFactory.eINSTANCE.createGuardedBranchTransition();
             transition.setBranchCondition_GuardedBranchTransition(branchCondition);
             transition.setEntityName("transition_run_with_" + i + "_cores");
+            setDeterministicID(transition, forkId + threadCountSuffix + "/transition");
 
             // Create behaviour for inside of the branched paths
             ResourceDemandingBehaviour behaviour = SeffFactory.eINSTANCE.createResourceDemandingBehaviour();
+            setDeterministicID(behaviour, forkId + threadCountSuffix + "/behaviour");
 
             StartAction start = SeffFactory.eINSTANCE.createStartAction();
             start.setEntityName("startAction in Branch Transition, core count:" + i);
             StopAction stop = SeffFactory.eINSTANCE.createStopAction();
+            setDeterministicID(start, forkId + threadCountSuffix + "/start");
+            setDeterministicID(stop, forkId + threadCountSuffix + "/stop");
 
             transition.setBranchBehaviour_BranchTransition(behaviour);
             transition.setBranchAction_AbstractBranchTransition(branchResult);
@@ -0,0 +1,21 @@
+package org.palladiosimulator.wlcgmodel;
+
+/**
+ * The file formats constructed simulation models can be saved in.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public enum ModelSerializationFormat {
+
+    /** XML Metadata Interchange, the default format of EMF and the Palladio editors. */
+    XMI,
+
+    /**
+     * The compact binary resource format of EMF. Models in this format are faster to save and load,
+     * but can only be read by loaders that enable binary deserialization. They are saved with an
+     * additional file extension, see {@link org.palladiosimulator.wlcgmodel.util.ModelSerialization},
+     * so the Palladio editors do not mistake them for XMI models, but cannot open them either.
+     */
+    BINARY
+}
@@ -0,0 +1,151 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The predicted size of a simulation model and the predicted cost of simulating it, as computed by
+ * the {@link ModelSizeEstimator} without constructing the model.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public final class ModelSizeEstimate {
+
+    long eObjects;
+    long createdEObjects;
+    int monitors;
+    int measuringPoints;
+    long resourceContainerReplicas;
+    long cpuReplicas;
+    long hddReplicas;
+    int threadCountBranches;
+    int forkedBehaviours;
+    double jobsPerHour = Double.NaN;
+    double eventsPerHour = Double.NaN;
+    double measurementsPerHour = Double.NaN;
+    final List<String> warnings = new ArrayList<>();
+
+    /**
+     * Create an empty estimate, which is filled by the estimator.
+     */
+    ModelSizeEstimate() {
+    }
+
+    /**
+     * @return the number of model elements contained in the constructed models
+     */
+    public long getEObjects() {
+        return eObjects;
+    }
+
+    /**
+     * @return the number of model elements created by the construction
+     */
+    public long getCreatedEObjects() {
+        return createdEObjects;
+    }
+
+    /**
+     * @return the number of monitors in the constructed monitor repository
+     */
+    public int getMonitors() {
+        return monitors;
+    }
+
+    /**
+     * @return the number of measuring points in the constructed measuring point repository
+     */
+    public int getMeasuringPoints() {
+        return measuringPoints;
+    }
+
+    /**
+     * @return the number of resource containers simulated, i.e. the sum of the node counts
+     */
+    public long getResourceContainerReplicas() {
+        return resourceContainerReplicas;
+    }
+
+    /**
+     * @return the number of simulated CPU cores, i.e. the sum of cores times node count
+     */
+    public long getCpuReplicas() {
+        return cpuReplicas;
+    }
+
+    /**
+     * @return the number of simulated HDD resources, i.e. the sum of job slots times node count
+     */
+    public long getHddReplicas() {
+        return hddReplicas;
+    }
+
+    /**
+     * @return the number of thread count branches in the grid job SEFF
+     */
+    public int getThreadCountBranches() {
+        return threadCountBranches;
+    }
+
+    /**
+     * @return the number of forked behaviours in the grid job SEFF
+     */
+    public int getForkedBehaviours() {
+        return forkedBehaviours;
+    }
+
+    /**
+     * @return the expected number of completed jobs per simulated hour, NaN if unknown
+     */
+    public double getJobsPerHour() {
+        return jobsPerHour;
+    }
+
+    /**
+     * @return the expected number of simulation events per simulated hour, NaN if unknown
+     */
+    public double getEventsPerHour() {
+        return eventsPerHour;
+    }
+
+    /**
+     * @return the expected number of measurements recorded by the generated monitors per simulated
+     *         hour, NaN if unknown
+     */
+    public double getMeasurementsPerHour() {
+        return measurementsPerHour;
+    }
+
+    /**
+     * @return the problems found while estimating, e.g. parameters that could not be read
+     */
+    public List<String> getWarnings() {
+        return Collections.unmodifiableList(warnings);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Model size estimate:");
+        builder.append(String.format("%n  EObjects:                   %,d (%,d created)", eObjects, createdEObjects));
+        builder.append(String.format("%n  Monitors:                   %,d", monitors));
+        builder.append(String.format("%n  Measuring points:           %,d", measuringPoints));
+        builder.append(String.format("%n  Simulated nodes:            %,d", resourceContainerReplicas));
+        builder.append(String.format("%n  CPU replicas:               %,d", cpuReplicas));
+        builder.append(String.format("%n  HDD replicas:               %,d", hddReplicas));
+        builder.append(String.format("%n  Thread count branches:      %,d", threadCountBranches));
+        builder.append(String.format("%n  Forked behaviours:          %,d", forkedBehaviours));
+        builder.append(String.format("%n  Jobs per simulated hour:    %s", format(jobsPerHour)));
+        builder.append(String.format("%n  Events per simulated hour:  %s", format(eventsPerHour)));
+        builder.append(String.format("%n  Measurements per sim. hour: %s", format(measurementsPerHour)));
+        for (String warning : warnings) {
+            builder.append(String.format("%n  Warning: %s", warning));
+        }
+        return builder.toString();
+    }
+
+    private static String format(double value) {
+        return Double.isNaN(value) ? "unknown" : String.format("%,.0f", value);
+    }
+}
@@ -0,0 +1,482 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.palladiosimulator.edp2.models.measuringpoint.MeasuringPointRepository;
+import org.palladiosimulator.monitorrepository.Monitor;
+import org.palladiosimulator.monitorrepository.MonitorRepository;
+import org.palladiosimulator.pcm.resourceenvironment.ResourceContainer;
+import org.palladiosimulator.pcm.seff.ForkAction;
+import org.palladiosimulator.pcm.seff.ForkedBehaviour;
+import org.palladiosimulator.pcm.seff.ResourceDemandingSEFF;
+import org.palladiosimulator.pcm.usagemodel.Branch;
+import org.palladiosimulator.pcm.usagemodel.BranchTransition;
+import org.palladiosimulator.pcm.usagemodel.ClosedWorkload;
+import org.palladiosimulator.pcm.usagemodel.OpenWorkload;
+import org.palladiosimulator.pcm.usagemodel.UsageModel;
+import org.palladiosimulator.pcm.usagemodel.UsageScenario;
+import org.palladiosimulator.pcm.usagemodel.Workload;
+import org.palladiosimulator.wlcgmodel.util.StoExParsingHelper;
+
+/**
+ * Instances of this class predict the size of the simulation model {@link WLCGModelConstructor}
+ * would construct from a parameter set, and the cost of simulating it, without constructing or
+ * writing any model. This allows rejecting oversized parameter sets before starting a long
+ * construction and simulation run.
+ *
+ * The model size is computed from the sizes of the blueprint elements that are copied for each job
+ * and node type. The simulation cost is a rough estimate based on the following assumptions:
+ * <ul>
+ * <li>The job slots of all nodes are used as long as the workload provides enough jobs. Each job
+ * occupies as many job slots as it requires threads.</li>
+ * <li>Each thread of a job runs on its own job slot. Cores are shared equally between the job slots
+ * of a node.</li>
+ * <li>In each resource demand round, each thread issues one CPU and one I/O demand.</li>
+ * <li>Each resource demand causes two events (request and completion). Each job causes four events
+ * for its system and external call and two events per thread for forking and joining it.</li>
+ * </ul>
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class ModelSizeEstimator {
+
+    // Resource demand rounds set on the blueprint job component if a job type does not specify them
+    static final int DEFAULT_RESOURCE_DEMAND_ROUNDS = 10;
+
+    // Simulation events besides the resource demands, see class description
+    private static final int EVENTS_PER_JOB = 4;
+    private static final int EVENTS_PER_THREAD = 2;
+    private static final int EVENTS_PER_DEMAND = 2;
+    private static final int DEMANDS_PER_ROUND = 2;
+
+    // A per-core CPU monitor records a state change when a CPU demand starts and when it ends
+    private static final int CPU_STATE_CHANGES_PER_DEMAND = 2;
+
+    // Stereotype applications added to each job component and node type
+    private static final int STEREOTYPES_PER_JOB_TYPE = 1;
+    private static final int STEREOTYPES_PER_NODE_TYPE = 2;
+
+    // Model elements created for each job type besides copied blueprint elements and variable
+    // usages: component, provided role, required role, interface, signature, assembly context,
+    // composite provided role, delegation connector and grid job connector
+    private static final int ELEMENTS_PER_JOB_COMPONENT = 9;
+    private static final int VARIABLE_USAGES_PER_JOB_TYPE = 5;
+
+    // System provided role, measuring point and delegation connector per job type
+    private static final int SYSTEM_ELEMENTS_PER_JOB_TYPE = 3;
+
+    // Guarded branch transition, branch condition, behaviour, start and stop action per thread count
+    private static final int ELEMENTS_PER_THREAD_COUNT_BRANCH = 5;
+
+    // Blueprint monitors removed by the construction: system call and external call monitor
+    private static final int REMOVED_BLUEPRINT_MONITORS = 2;
+
+    private static final double SECONDS_PER_HOUR = 3600;
+
+    private final ModelConstructionOptions options;
+
+    private final long blueprintElements;
+    private final int blueprintMonitors;
+    private final int blueprintMeasuringPoints;
+    private final long removedElements;
+
+    private final long jobSeffSize;
+    private final long variableUsageSize;
+    private final long branchTransitionSize;
+    private final long forkSize;
+    private final long forkedBehaviourSize;
+    private final long containerSize;
+
+    private final long cpuMonitorSize;
+    private final long utilizationMonitorSize;
+    private final long systemOperationMonitorSize;
+    private final long externalCallMonitorSize;
+
+    private final Workload workload;
+
+    /**
+     * Create an estimator for the simulation models constructed from a blueprint.
+     *
+     * @param template
+     *            The blueprint the simulation models are constructed from. The template is not
+     *            modified.
+     * @param options
+     *            The options the simulation models are constructed with.
+     */
+    public ModelSizeEstimator(BlueprintTemplate template, ModelConstructionOptions options) {
+        this.options = options;
+
+        Resource repository = template.getModel(WLCGModelConstructor.REPO_MODEL_FILENAME);
+        Resource resourceEnvironment = template.getModel(WLCGModelConstructor.RESOURCE_ENVIRONMENT_MODEL_FILENAME);
+        Resource usageModel = template.getModel(WLCGModelConstructor.USAGE_MODEL_FILENAME);
+        Resource monitorRepository = template.getModel(WLCGModelConstructor.MONITOR_DIRECTORY_NAME + "/"
+                + WLCGModelConstructor.MONITOR_REPOSITORY_FILENAME);
+        Resource measuringPointRepository = template.getModel(WLCGModelConstructor.MONITOR_DIRECTORY_NAME + "/"
+                + WLCGModelConstructor.MEASURINGPOINT_REPOSITORY_FILENAME);
+
+        long elements = 0;
+        for (String modelFile : template.getModelFiles()) {
+            elements += WLCGModelConstructor.countElements(template.getModel(modelFile).getContents());
+        }
+        this.blueprintElements = elements;
+
+        this.blueprintMonitors = ((MonitorRepository) monitorRepository.getContents().get(0)).getMonitors().size();
+        this.blueprintMeasuringPoints = ((MeasuringPointRepository) measuringPointRepository.getContents().get(0))
+                .getMeasuringPoints().size();
+
+        ResourceDemandingSEFF jobSeff = findBlueprintObject(repository, WLCGModelConstructor.BLUEPRINT_JOB_SEFF,
+                ResourceDemandingSEFF.class);
+        ForkAction fork = findBlueprintObject(repository, WLCGModelConstructor.BLUEPRINT_FORK_ACTION,
+                ForkAction.class);
+        ResourceContainer container = findBlueprintObject(resourceEnvironment, WLCGModelConstructor.BLUEPRINT_NODE,
+                ResourceContainer.class);
+        Branch jobTypeBranch = findBlueprintObject(usageModel,
+                WLCGModelConstructor.BLUEPRINT_USAGEMODEL_BRANCH_JOBTYPE, Branch.class);
+
+        if (fork.getSynchronisingBehaviours_ForkAction() == null || fork.getSynchronisingBehaviours_ForkAction()
+                .getSynchronousForkedBehaviours_SynchronisationPoint().isEmpty()) {
+            throw new IllegalArgumentException("Invalid model blueprint, missing forked behaviour!");
+        }
+        if (jobTypeBranch.getBranchTransitions_Branch().isEmpty()) {
+            throw new IllegalArgumentException("Invalid model blueprint, missing job type branch transition!");
+        }
+
+        ForkedBehaviour forkedBehaviour = fork.getSynchronisingBehaviours_ForkAction()
+                .getSynchronousForkedBehaviours_SynchronisationPoint().get(0);
+        BranchTransition branchTransition = jobTypeBranch.getBranchTransitions_Branch().get(0);
+
+        this.jobSeffSize = WLCGModelConstructor.countElements(jobSeff);
+        this.variableUsageSize = WLCGModelConstructor
+                .countElements(ModelConstructionUtils.createVariableUsageWithValue("PARAMETER", "0"));
+        this.branchTransitionSize = WLCGModelConstructor.countElements(branchTransition);
+        this.forkSize = WLCGModelConstructor.countElements(fork);
+        this.forkedBehaviourSize = WLCGModelConstructor.countElements(forkedBehaviour);
+        this.containerSize = WLCGModelConstructor.countElements(container);
+
+        Monitor cpuMonitor = findBlueprintObject(monitorRepository, WLCGModelConstructor.BLUEPRINT_CPU_MONITOR,
+                Monitor.class);
+        Monitor systemCallMonitor = findBlueprintObject(monitorRepository,
+                WLCGModelConstructor.BLUEPRINT_SYSTEM_CALL_MONITOR, Monitor.class);
+        Monitor externalCallMonitor = findBlueprintObject(monitorRepository,
+                WLCGModelConstructor.BLUEPRINT_EXTERNAL_CALL_MONITOR, Monitor.class);
+
+        this.cpuMonitorSize = monitorSize(cpuMonitor, MonitorKind.CPU);
+        this.systemOperationMonitorSize = monitorSize(findBlueprintObject(monitorRepository,
+                WLCGModelConstructor.BLUEPRINT_SYSTEM_OPERATION_MONITOR, Monitor.class), MonitorKind.SYSTEM_OPERATION);
+        this.externalCallMonitorSize = monitorSize(externalCallMonitor, MonitorKind.EXTERNAL_CALL);
+
+        // The utilization monitor replaces the measurement specifications of the CPU monitor with a
+        // single specification and its time window
+        this.utilizationMonitorSize = WLCGModelConstructor.countElements(cpuMonitor)
+                - WLCGModelConstructor.countElements(cpuMonitor.getMeasurementSpecifications()) + 2;
+
+        this.removedElements = this.forkSize + this.branchTransitionSize
+                + WLCGModelConstructor.countElements(systemCallMonitor, externalCallMonitor);
+
+        UsageModel usage = (UsageModel) usageModel.getContents().get(0);
+        List<UsageScenario> scenarios = usage.getUsageScenario_UsageModel();
+        this.workload = scenarios.isEmpty() ? null : scenarios.get(0).getWorkload_UsageScenario();
+    }
+
+    /**
+     * Predict the size and simulation cost of the simulation model constructed from a parameter set.
+     *
+     * @param nodes
+     *            The node types the model would be constructed with.
+     * @param jobs
+     *            The job types the model would be constructed with.
+     * @return The estimate.
+     */
+    public ModelSizeEstimate estimate(List<NodeTypeDescription> nodes, List<JobTypeDescription> jobs) {
+        ModelSizeEstimate estimate = new ModelSizeEstimate();
+
+        estimateModelSize(estimate, nodes, jobs);
+        estimateSimulationCost(estimate, nodes, jobs);
+
+        return estimate;
+    }
+
+    /**
+     * Count the model elements, monitors, measuring points and replicas of the constructed model.
+     *
+     * @param estimate
+     *            The estimate to fill.
+     * @param nodes
+     *            The node types.
+     * @param jobs
+     *            The job types.
+     */
+    private void estimateModelSize(ModelSizeEstimate estimate, List<NodeTypeDescription> nodes,
+            List<JobTypeDescription> jobs) {
+
+        int jobTypes = jobs.size();
+        long created = 0;
+
+        // Repository: job components and the thread count branches of the grid job SEFF
+        created += jobTypes * (ELEMENTS_PER_JOB_COMPONENT + STEREOTYPES_PER_JOB_TYPE + this.jobSeffSize
+                + VARIABLE_USAGES_PER_JOB_TYPE * this.variableUsageSize);
+
+        List<Integer> threadCounts = WLCGModelConstructor.requiredThreadCounts(jobs, nodes);
+        estimate.threadCountBranches = threadCounts.size();
+
+        // Branch action containing the thread count branches
+        created += 1;
+        for (int threadCount : threadCounts) {
+            created += ELEMENTS_PER_THREAD_COUNT_BRANCH + this.forkSize + (threadCount - 1) * this.forkedBehaviourSize;
+            estimate.forkedBehaviours += threadCount;
+        }
+
+        // System, usage model and job response time monitoring
+        created += jobTypes * (SYSTEM_ELEMENTS_PER_JOB_TYPE + this.systemOperationMonitorSize);
+        created += jobTypes * this.branchTransitionSize;
+        created += jobTypes * (1 + this.externalCallMonitorSize);
+
+        int monitors = 2 * jobTypes;
+
+        // Resource environment, CPU monitoring and allocation
+        for (NodeTypeDescription node : nodes) {
+            created += this.containerSize + STEREOTYPES_PER_NODE_TYPE + 1;
+            if (this.options.getExpandReplicas() && node.getNodeCount() > 1) {
+                created += (long) (node.getNodeCount() - 1) * (this.containerSize + STEREOTYPES_PER_NODE_TYPE + 1);
+            }
+
+            int nodeMonitors = cpuMonitorCount(node);
+            monitors += nodeMonitors;
+
+            if (this.options.getMonitoringGranularity() == MonitoringGranularity.AGGREGATED) {
+                created += nodeMonitors * (1 + this.utilizationMonitorSize);
+            } else {
+                created += nodeMonitors * (1 + this.cpuMonitorSize);
+            }
+
+            estimate.resourceContainerReplicas += node.getNodeCount();
+            estimate.cpuReplicas += (long) node.getCores() * node.getNodeCount();
+            estimate.hddReplicas += (long) node.getJobslots() * node.getNodeCount();
+        }
+
+        estimate.createdEObjects = created;
+        estimate.eObjects = this.blueprintElements - this.removedElements + created;
+        estimate.monitors = this.blueprintMonitors - REMOVED_BLUEPRINT_MONITORS + monitors;
+        estimate.measuringPoints = this.blueprintMeasuringPoints + monitors;
+    }
+
+    /**
+     * Estimate the number of jobs, simulation events and measurements per simulated hour.
+     *
+     * @param estimate
+     *            The estimate to fill.
+     * @param nodes
+     *            The node types.
+     * @param jobs
+     *            The job types.
+     */
+    private void estimateSimulationCost(ModelSizeEstimate estimate, List<NodeTypeDescription> nodes,
+            List<JobTypeDescription> jobs) {
+
+        // Job slots of all nodes and the CPU processing rate available to each of them
+        double jobSlots = 0;
+        double slotProcessingRate = 0;
+        for (NodeTypeDescription node : nodes) {
+            double nodeSlots = (double) node.getJobslots() * node.getNodeCount();
+            jobSlots += nodeSlots;
+            if (node.getJobslots() > 0) {
+                slotProcessingRate += nodeSlots * node.getComputingRate()
+                        * Math.min(1.0, (double) node.getCores() / node.getJobslots());
+            }
+        }
+
+        if (jobSlots <= 0) {
+            estimate.warnings.add("The node types do not provide any job slots.");
+            return;
+        }
+        slotProcessingRate /= jobSlots;
+
+        // Frequency weighted averages over the job types
+        double frequencySum = 0;
+        double duration = 0;
+        double slots = 0;
+        double events = 0;
+        double cpuDemands = 0;
+
+        for (JobTypeDescription job : jobs) {
+            double threads;
+            double inverseThreads = 0;
+            double rounds;
+            double cpuDemand;
+            double ioDemand;
+
+            try {
+                Map<Integer, Double> threadCounts = StoExParsingHelper.parseIntPmf(job.getRequiredJobslotsStoEx());
+                double probabilitySum = threadCounts.values().stream().mapToDouble(Double::doubleValue).sum();
+                for (Map.Entry<Integer, Double> threadCount : threadCounts.entrySet()) {
+                    inverseThreads += threadCount.getValue() / probabilitySum / threadCount.getKey();
+                }
+                threads = StoExParsingHelper.mean(job.getRequiredJobslotsStoEx());
+
+                rounds = job.getResourceDemandRounds() != null
+                        ? StoExParsingHelper.mean(job.getResourceDemandRounds())
+                        : DEFAULT_RESOURCE_DEMAND_ROUNDS;
+
+                cpuDemand = StoExParsingHelper.mean(job.getCpuDemandStoEx());
+                ioDemand = job.getUseIoRatio()
+                        ? StoExParsingHelper.mean(job.getIoTimeRatioStoEx()) * cpuDemand
+                        : StoExParsingHelper.mean(job.getIoTimeStoEx());
+            } catch (IllegalArgumentException e) {
+                estimate.warnings.add("Job type " + job.getTypeName() + " is not included in the simulation cost: "
+                        + e.getMessage());
+                continue;
+            }
+
+            double frequency = job.getRelativeFrequency();
+            frequencySum += frequency;
+
+            duration += frequency
+                    * (job.getSchedulingDelay() + (cpuDemand / slotProcessingRate + ioDemand) * inverseThreads);
+            slots += frequency * threads;
+            events += frequency * (EVENTS_PER_JOB + EVENTS_PER_THREAD * threads
+                    + EVENTS_PER_DEMAND * DEMANDS_PER_ROUND * rounds * threads);
+            cpuDemands += frequency * rounds * threads;
+        }
+
+        if (frequencySum <= 0) {
+            estimate.warnings.add("No job type with a positive relative frequency could be read.");
+            return;
+        }
+        duration /= frequencySum;
+        slots /= frequencySum;
+        events /= frequencySum;
+        cpuDemands /= frequencySum;
+
+        double jobsPerSecond = jobThroughput(estimate, jobSlots / slots, duration);
+        if (Double.isNaN(jobsPerSecond)) {
+            return;
+        }
+
+        estimate.jobsPerHour = jobsPerSecond * SECONDS_PER_HOUR;
+        estimate.eventsPerHour = estimate.jobsPerHour * events;
+
+        int cpuMonitors = 0;
+        for (NodeTypeDescription node : nodes) {
+            cpuMonitors += cpuMonitorCount(node);
+        }
+
+        double cpuMeasurements = 0;
+        if (this.options.getMonitoringGranularity() == MonitoringGranularity.AGGREGATED) {
+            cpuMeasurements = cpuMonitors * SECONDS_PER_HOUR / this.options.getUtilizationWindowLength();
+        } else if (this.options.getMonitoringGranularity() == MonitoringGranularity.PER_CORE) {
+            cpuMeasurements = measurementsPerHour(MonitorKind.CPU, cpuMonitors,
+                    CPU_STATE_CHANGES_PER_DEMAND * estimate.jobsPerHour * cpuDemands);
+        }
+
+        estimate.measurementsPerHour = cpuMeasurements
+                + measurementsPerHour(MonitorKind.SYSTEM_OPERATION, jobs.size(), estimate.jobsPerHour)
+                + measurementsPerHour(MonitorKind.EXTERNAL_CALL, jobs.size(), estimate.jobsPerHour);
+    }
+
+    /**
+     * Estimate the number of jobs completed per simulated second from the workload of the blueprint
+     * usage model.
+     *
+     * @param estimate
+     *            The estimate warnings are added to.
+     * @param concurrentJobs
+     *            The maximum number of jobs that can be executed at the same time.
+     * @param duration
+     *            The average duration of a job in simulated seconds.
+     * @return The number of jobs per simulated second, or NaN if the workload could not be read.
+     */
+    private double jobThroughput(ModelSizeEstimate estimate, double concurrentJobs, double duration) {
+        try {
+            if (this.workload instanceof ClosedWorkload) {
+                ClosedWorkload closedWorkload = (ClosedWorkload) this.workload;
+                double thinkTime = StoExParsingHelper
+                        .mean(closedWorkload.getThinkTime_ClosedWorkload().getSpecification());
+                return Math.min(closedWorkload.getPopulation(), concurrentJobs) / (duration + thinkTime);
+
+            } else if (this.workload instanceof OpenWorkload) {
+                double interarrivalTime = StoExParsingHelper.mean(
+                        ((OpenWorkload) this.workload).getInterArrivalTime_OpenWorkload().getSpecification());
+                double capacity = concurrentJobs / duration;
+
+                if (1 / interarrivalTime > capacity) {
+                    estimate.warnings.add("The job arrival rate exceeds the capacity of the node types, jobs will "
+                            + "queue up during the simulation.");
+                    return capacity;
+                }
+                return 1 / interarrivalTime;
+            }
+        } catch (IllegalArgumentException | NullPointerException e) {
+            estimate.warnings.add("Could not read the workload of the usage model: " + e);
+            return Double.NaN;
+        }
+
+        estimate.warnings.add("The usage model does not contain a workload.");
+        return Double.NaN;
+    }
+
+    /**
+     * Estimate the measurements recorded per simulated hour by a kind of monitor.
+     *
+     * @param kind
+     *            The kind of monitor.
+     * @param monitorCount
+     *            The number of monitors of this kind.
+     * @param feedThroughMeasurements
+     *            The measurements per simulated hour of all monitors if every measurement is
+     *            recorded.
+     * @return The recorded measurements per simulated hour.
+     */
+    private double measurementsPerHour(MonitorKind kind, int monitorCount, double feedThroughMeasurements) {
+        MonitorAggregation aggregation = this.options.getMonitorAggregation(kind);
+        if (aggregation.isFeedThrough()) {
+            return feedThroughMeasurements;
+        }
+        return monitorCount * SECONDS_PER_HOUR / aggregation.getWindowLength();
+    }
+
+    /**
+     * @param node
+     *            The node type.
+     * @return the number of CPU monitors created for the node type
+     */
+    private int cpuMonitorCount(NodeTypeDescription node) {
+        switch (this.options.getMonitoringGranularity()) {
+        case PER_CORE:
+            return node.getCores();
+        case AGGREGATED:
+            return 1;
+        case NONE:
+        default:
+            return 0;
+        }
+    }
+
+    /**
+     * Count the elements of a copy of a blueprint monitor configured with the aggregation of its
+     * monitor kind.
+     *
+     * @param blueprintMonitor
+     *            The blueprint monitor.
+     * @param kind
+     *            The kind of the monitors copied from the blueprint monitor.
+     * @return The number of elements of each copy.
+     */
+    private long monitorSize(Monitor blueprintMonitor, MonitorKind kind) {
+        Monitor copy = EcoreUtil.copy(blueprintMonitor);
+        this.options.getMonitorAggregation(kind).applyTo(copy, EcoreUtil.getID(blueprintMonitor));
+        return WLCGModelConstructor.countElements(copy);
+    }
+
+    private static <T extends EObject> T findBlueprintObject(Resource resource, String id, Class<T> objectClass) {
+        T object = ModelConstructionUtils.findObjectWithId(resource, id, objectClass);
+        if (object == null) {
+            throw new IllegalArgumentException("Invalid model blueprint, missing " + id + "!");
+        }
+        return object;
+    }
+}
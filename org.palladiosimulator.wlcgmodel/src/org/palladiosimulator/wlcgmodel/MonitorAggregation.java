@@ -0,0 +1,162 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.palladiosimulator.monitorrepository.MeasurementSpecification;
+import org.palladiosimulator.monitorrepository.Monitor;
+import org.palladiosimulator.monitorrepository.MonitorRepositoryFactory;
+import org.palladiosimulator.monitorrepository.StatisticalCharacterization;
+import org.palladiosimulator.monitorrepository.TimeDrivenAggregation;
+
+/**
+ * Instances of this class describe how the measurements of a generated monitor are processed by
+ * the simulator. Measurements are either stored unchanged or aggregated to a single value per time
+ * window, which reduces the size of the simulation results considerably for long simulation runs.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public final class MonitorAggregation {
+
+    /**
+     * The statistics a time window of measurements can be aggregated to.
+     */
+    public enum Statistic {
+        /** The arithmetic mean of the measurements in a window. */
+        ARITHMETIC_MEAN,
+
+        /** The geometric mean of the measurements in a window. */
+        GEOMETRIC_MEAN,
+
+        /** The harmonic mean of the measurements in a window. */
+        HARMONIC_MEAN,
+
+        /** The median, i.e. the 50th percentile, of the measurements in a window. */
+        MEDIAN
+    }
+
+    private static final MonitorAggregation FEED_THROUGH = new MonitorAggregation(null, 0);
+
+    private final Statistic statistic;
+    private final double windowLength;
+
+    private MonitorAggregation(Statistic statistic, double windowLength) {
+        this.statistic = statistic;
+        this.windowLength = windowLength;
+    }
+
+    /**
+     * @return an aggregation that stores every measurement unchanged, as configured in the
+     *         blueprint monitors
+     */
+    public static MonitorAggregation feedThrough() {
+        return FEED_THROUGH;
+    }
+
+    /**
+     * Create an aggregation that stores a single value per non-overlapping time window.
+     *
+     * @param statistic
+     *            The statistic the measurements of a window are aggregated to.
+     * @param windowLength
+     *            The length of a time window in simulated seconds.
+     * @return The aggregation.
+     */
+    public static MonitorAggregation timeDriven(Statistic statistic, double windowLength) {
+        if (statistic == null) {
+            throw new IllegalArgumentException("Aggregation statistic must not be null.");
+        }
+        if (!(windowLength > 0)) {
+            throw new IllegalArgumentException("Aggregation window length must be positive, got " + windowLength);
+        }
+        return new MonitorAggregation(statistic, windowLength);
+    }
+
+    /**
+     * @return whether measurements are stored unchanged
+     */
+    public boolean isFeedThrough() {
+        return statistic == null;
+    }
+
+    /**
+     * @return the statistic the measurements of a window are aggregated to, or null for feed
+     *         through
+     */
+    public Statistic getStatistic() {
+        return statistic;
+    }
+
+    /**
+     * @return the length of a time window in simulated seconds
+     */
+    public double getWindowLength() {
+        return windowLength;
+    }
+
+    /**
+     * Configure all measurement specifications of a monitor to use this aggregation. Monitors are
+     * left unchanged for feed through, so they keep the processing type of their blueprint. The IDs
+     * of the created processing types are derived from the path of the monitor, see
+     * {@link ModelConstructionUtils#setDeterministicIDsRecursively(org.eclipse.emf.ecore.EObject, String)}.
+     *
+     * @param monitor
+     *            The monitor to configure.
+     * @param path
+     *            A path that identifies the monitor within the model.
+     */
+    public void applyTo(Monitor monitor, String path) {
+        if (isFeedThrough()) {
+            return;
+        }
+
+        List<MeasurementSpecification> specifications = monitor.getMeasurementSpecifications();
+        for (int i = 0; i < specifications.size(); i++) {
+            TimeDrivenAggregation processingType = MonitorRepositoryFactory.eINSTANCE.createTimeDrivenAggregation();
+            processingType.setWindowLength(windowLength);
+            processingType.setWindowIncrement(windowLength);
+            processingType.setStatisticalCharacterization(createStatisticalCharacterization());
+            ModelConstructionUtils.setDeterministicIDsRecursively(processingType,
+                    path + "/measurementSpecification" + i + "/processingType");
+
+            specifications.get(i).setProcessingType(processingType);
+        }
+    }
+
+    private StatisticalCharacterization createStatisticalCharacterization() {
+        switch (statistic) {
+        case GEOMETRIC_MEAN:
+            return MonitorRepositoryFactory.eINSTANCE.createGeometricMean();
+        case HARMONIC_MEAN:
+            return MonitorRepositoryFactory.eINSTANCE.createHarmonicMean();
+        case MEDIAN:
+            return MonitorRepositoryFactory.eINSTANCE.createMedian();
+        case ARITHMETIC_MEAN:
+        default:
+            return MonitorRepositoryFactory.eINSTANCE.createArithmeticMean();
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof MonitorAggregation)) {
+            return false;
+        }
+        MonitorAggregation other = (MonitorAggregation) obj;
+        return statistic == other.statistic && Double.compare(windowLength, other.windowLength) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(statistic, windowLength);
+    }
+
+    @Override
+    public String toString() {
+        return isFeedThrough() ? "feed through" : statistic + " over " + windowLength + " s";
+    }
+}
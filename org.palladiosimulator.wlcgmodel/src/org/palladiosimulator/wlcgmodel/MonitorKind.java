@@ -0,0 +1,19 @@
+package org.palladiosimulator.wlcgmodel;
+
+/**
+ * The kinds of monitors that are duplicated from blueprint monitors during model construction.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public enum MonitorKind {
+
+    /** The state monitors of the CPU cores of each node type. */
+    CPU,
+
+    /** The response time monitors of the system operation of each job type. */
+    SYSTEM_OPERATION,
+
+    /** The job response time monitors of the external call of each job type. */
+    EXTERNAL_CALL
+}
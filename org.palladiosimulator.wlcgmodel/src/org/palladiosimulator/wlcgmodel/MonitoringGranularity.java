@@ -0,0 +1,24 @@
+package org.palladiosimulator.wlcgmodel;
+
+/**
+ * The granularity of the CPU monitoring added to the node types of a constructed simulation
+ * model.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public enum MonitoringGranularity {
+
+    /** Record the state of each CPU core of each node type separately. */
+    PER_CORE,
+
+    /**
+     * Record a single utilization series per node type, the overall utilization of all of its CPU
+     * cores in time windows. This reduces the number of measurements considerably on many-core
+     * nodes.
+     */
+    AGGREGATED,
+
+    /** Do not monitor the CPUs of the node types. */
+    NONE
+}
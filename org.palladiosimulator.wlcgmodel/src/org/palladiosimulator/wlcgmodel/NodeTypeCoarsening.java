@@ -0,0 +1,230 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-processing stage of the parameter import that merges node types which only differ slightly
+ * in their computing rate. Every node type becomes a resource container with its own monitors and
+ * load balanced replica group, so merging similar node types shrinks the resource environment and
+ * speeds up quick-turnaround studies.
+ *
+ * Node types with the same number of cores and job slots are sorted by computing rate and grouped
+ * greedily, so that the fastest node type of a group is at most the tolerance faster than the
+ * slowest one. Each group is replaced by a representative with the summed node count and the
+ * computing rate averaged over the cores of all nodes, which preserves the total computing capacity.
+ * The throughput of the individual nodes does change, which is reported as the expected error.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class NodeTypeCoarsening {
+
+    private final double tolerance;
+
+    /**
+     * Create a coarsening stage.
+     *
+     * @param tolerance
+     *            The maximum relative difference between the computing rates of merged node types,
+     *            e.g. 0.1 to merge node types up to 10% faster than the slowest one.
+     * @throws IllegalArgumentException
+     *             Thrown if the tolerance is negative.
+     */
+    public NodeTypeCoarsening(double tolerance) {
+        if (!(tolerance >= 0) || Double.isInfinite(tolerance)) {
+            throw new IllegalArgumentException("Tolerance must be a non-negative number.");
+        }
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * @return the maximum relative difference between the computing rates of merged node types
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Merge similar node types. Each representative takes the position of the first node type it
+     * replaces, node types that are not merged are returned unchanged. The merged node types and
+     * the expected error are printed for each representative.
+     *
+     * @param nodeTypes
+     *            The node type descriptions to coarsen, which are not modified.
+     * @param results
+     *            A list the merged groups are added to, or null if they are not needed.
+     * @return The coarsened node type descriptions.
+     */
+    public List<NodeTypeDescription> coarsen(List<NodeTypeDescription> nodeTypes, List<Result> results) {
+
+        // Only node types with the same cores and job slots are merged
+        Map<String, List<NodeTypeDescription>> shapes = new LinkedHashMap<>();
+        for (NodeTypeDescription nodeType : nodeTypes) {
+            shapes.computeIfAbsent(nodeType.getCores() + "/" + nodeType.getJobslots(), shape -> new ArrayList<>())
+                    .add(nodeType);
+        }
+
+        Map<NodeTypeDescription, NodeTypeDescription> replacements = new LinkedHashMap<>();
+        List<Result> merged = new ArrayList<>();
+
+        for (List<NodeTypeDescription> shape : shapes.values()) {
+            List<NodeTypeDescription> sorted = new ArrayList<>(shape);
+            sorted.sort(Comparator.comparingDouble(NodeTypeDescription::getComputingRate));
+
+            int start = 0;
+            while (start < sorted.size()) {
+                double maxRate = sorted.get(start).getComputingRate() * (1 + tolerance);
+                int end = start + 1;
+                while (end < sorted.size() && sorted.get(end).getComputingRate() <= maxRate) {
+                    end++;
+                }
+
+                List<NodeTypeDescription> group = sorted.subList(start, end);
+                if (group.size() > 1) {
+                    Result result = merge(group);
+                    for (NodeTypeDescription nodeType : group) {
+                        replacements.put(nodeType, result.getRepresentative());
+                    }
+                    merged.add(result);
+                }
+                start = end;
+            }
+        }
+
+        List<NodeTypeDescription> coarsened = new ArrayList<>();
+        for (NodeTypeDescription nodeType : nodeTypes) {
+            NodeTypeDescription replacement = replacements.getOrDefault(nodeType, nodeType);
+            if (!coarsened.contains(replacement)) {
+                coarsened.add(replacement);
+            }
+        }
+
+        for (Result result : merged) {
+            System.out.println("Coarsened " + result);
+        }
+        System.out.println(String.format("Coarsened %d node types to %d, largest expected throughput error %.2f%%",
+                nodeTypes.size(), coarsened.size(),
+                merged.stream().mapToDouble(Result::getThroughputError).max().orElse(0) * 100));
+
+        if (results != null) {
+            results.addAll(merged);
+        }
+        return coarsened;
+    }
+
+    /**
+     * Merge a group of node types with the same cores and job slots into a representative.
+     */
+    private static Result merge(List<NodeTypeDescription> group) {
+        int nodeCount = 0;
+        double capacity = 0;
+        NodeTypeDescription largest = group.get(0);
+
+        for (NodeTypeDescription nodeType : group) {
+            nodeCount += nodeType.getNodeCount();
+            capacity += nodeType.getNodeCount() * nodeType.getComputingRate();
+            if (nodeType.getNodeCount() > largest.getNodeCount()) {
+                largest = nodeType;
+            }
+        }
+
+        // All nodes of the group have the same number of cores, so averaging the computing rate
+        // over the nodes preserves the total computing capacity
+        double computingRate = nodeCount > 0 ? capacity / nodeCount
+                : group.stream().mapToDouble(NodeTypeDescription::getComputingRate).average().getAsDouble();
+
+        // Jobs are distributed over the job slots independently of the computing rate, so each
+        // job is expected to run on a node that is faster or slower than the representative
+        double throughputError = 0;
+        double inverseRate = 0;
+        for (NodeTypeDescription nodeType : group) {
+            double share = nodeCount > 0 ? (double) nodeType.getNodeCount() / nodeCount : 1.0 / group.size();
+            throughputError += share * Math.abs(nodeType.getComputingRate() / computingRate - 1);
+            inverseRate += share / nodeType.getComputingRate();
+        }
+        double walltimeChange = 1 / (computingRate * inverseRate) - 1;
+
+        String largestName = largest.getName();
+        boolean sameName = group.stream().allMatch(nodeType -> largestName.equals(nodeType.getName()));
+        String name = sameName ? largestName : largestName + " (+" + (group.size() - 1) + " similar)";
+
+        NodeTypeDescription representative = new NodeTypeDescription();
+        representative.setName(name);
+        representative.setCores(largest.getCores());
+        representative.setJobslots(largest.getJobslots());
+        representative.setNodeCount(nodeCount);
+        representative.setComputingRate(computingRate);
+
+        List<String> mergedNames = new ArrayList<>();
+        for (NodeTypeDescription nodeType : group) {
+            mergedNames.add(nodeType.getName() + " @ " + nodeType.getComputingRate());
+        }
+
+        return new Result(representative, mergedNames, throughputError, walltimeChange);
+    }
+
+    @Override
+    public String toString() {
+        return "tolerance: " + tolerance;
+    }
+
+    /**
+     * A representative node type and the error expected from merging node types into it.
+     */
+    public static final class Result {
+        private final NodeTypeDescription representative;
+        private final List<String> mergedTypes;
+        private final double throughputError;
+        private final double walltimeChange;
+
+        Result(NodeTypeDescription representative, List<String> mergedTypes, double throughputError,
+                double walltimeChange) {
+            this.representative = representative;
+            this.mergedTypes = mergedTypes;
+            this.throughputError = throughputError;
+            this.walltimeChange = walltimeChange;
+        }
+
+        /**
+         * @return the node type replacing the merged node types
+         */
+        public NodeTypeDescription getRepresentative() {
+            return representative;
+        }
+
+        /**
+         * @return the names and computing rates of the merged node types
+         */
+        public List<String> getMergedTypes() {
+            return Collections.unmodifiableList(mergedTypes);
+        }
+
+        /**
+         * @return the expected relative error of the throughput of a single node, i.e. the
+         *         node-weighted mean deviation of the computing rates from the representative
+         */
+        public double getThroughputError() {
+            return throughputError;
+        }
+
+        /**
+         * @return the relative change of the expected CPU time of a job on the merged nodes, e.g.
+         *         -0.01 if jobs finish one percent earlier on the representative
+         */
+        public double getWalltimeChange() {
+            return walltimeChange;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d nodes at %.4f from %s, throughput error %.2f%%, walltime %+.2f%%",
+                    representative.getName(), representative.getNodeCount(), representative.getComputingRate(),
+                    mergedTypes, throughputError * 100, walltimeChange * 100);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Signals that a parameter file could not be read because it is not valid JSON or contains an
+ * invalid job or node type description. The exception describes the location of the error in the
+ * file.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class ParameterFileException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final File file;
+    private final String path;
+    private final int line;
+    private final int column;
+
+    /**
+     * Create a new exception for an error at a location in a parameter file.
+     *
+     * @param file
+     *            The parameter file.
+     * @param path
+     *            The JSON path of the invalid element, e.g. <code>$[3].cores</code>, or null if
+     *            unknown.
+     * @param line
+     *            The line of the error, or -1 if unknown.
+     * @param column
+     *            The column of the error, or -1 if unknown.
+     * @param problem
+     *            A description of the error.
+     * @param cause
+     *            The exception causing the error, or null.
+     */
+    public ParameterFileException(File file, String path, int line, int column, String problem, Throwable cause) {
+        super(formatMessage(file, path, line, column, problem), cause);
+        this.file = file;
+        this.path = path;
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * @return the parameter file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the JSON path of the invalid element, or null if unknown
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the line of the error, or -1 if unknown
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * @return the column of the error, or -1 if unknown
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    private static String formatMessage(File file, String path, int line, int column, String problem) {
+        StringBuilder message = new StringBuilder(String.valueOf(file));
+        if (line >= 0) {
+            message.append(':').append(line);
+            if (column >= 0) {
+                message.append(':').append(column);
+            }
+        }
+        if (path != null) {
+            message.append(" (").append(path).append(')');
+        }
+        return message.append(": ").append(problem).toString();
+    }
+}
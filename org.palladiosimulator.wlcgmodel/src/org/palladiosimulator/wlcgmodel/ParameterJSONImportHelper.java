@@ -1,23 +1,49 @@
 package org.palladiosimulator.wlcgmodel;
 
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.Arrays;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonSyntaxException;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 
 /**
  * This class provides functionality to load and parse model calibration
  * parameter JSON files. JSON handling is powered by Gson.
  *
+ * Parameter files are read element by element, so only a single job or node
+ * type description has to be parsed at a time. Each description is validated
+ * as soon as it has been read. Files compressed with gzip are detected
+ * automatically.
+ *
  * @author Maximilian Stemmer-Grabow
  */
 public class ParameterJSONImportHelper {
 
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int GZIP_MAGIC = 0x8b1f;
+
+	private static final Pattern READER_LOCATION = Pattern.compile(" at line (\\d+) column (\\d+)");
+
+	private static final Gson GSON = new Gson();
+
 	/**
 	 * Read and parse a JSON file that contains descriptions of a certain parameter
 	 * set type.
@@ -31,25 +57,260 @@ public class ParameterJSONImportHelper {
 	 * @return A list of job type description objects, or null if the import failed.
 	 */
 	public static <T> List<T> readParameterFile(File jsonFile, Class<T[]> classOfT) {
+		@SuppressWarnings("unchecked")
+		Class<T> elementClass = (Class<T>) classOfT.getComponentType();
 
-		List<T> result = null;
 		try {
-			JsonReader reader = new JsonReader(new FileReader(jsonFile));
-			Gson gson = new Gson();
+			return readParameters(jsonFile, elementClass);
+		} catch (IOException e) {
+			System.out.println("Could not read parameter file: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Read, parse and validate a JSON file that contains an array of descriptions
+	 * of a certain parameter set type.
+	 *
+	 * @param jsonFile
+	 *            The JSON file to read, optionally compressed with gzip.
+	 * @param elementClass
+	 *            Class of the descriptions to read.
+	 * @param <T>
+	 *            Class of the descriptions to read.
+	 * @return The descriptions in the order they appear in the file.
+	 * @throws ParameterFileException
+	 *             Thrown if the file is not valid JSON or contains an invalid
+	 *             description.
+	 * @throws IOException
+	 *             Thrown if the file could not be read.
+	 */
+	public static <T> List<T> readParameters(File jsonFile, Class<T> elementClass) throws IOException {
+		List<T> result = new ArrayList<>();
+		streamParameters(jsonFile, elementClass, result::add);
+		return result;
+	}
+
+	/**
+	 * Read, parse and validate a JSON file that contains an array of descriptions
+	 * of a certain parameter set type, passing each description to a consumer as
+	 * soon as it has been read. Descriptions are not retained by this method, so
+	 * memory usage does not grow with the size of the file.
+	 *
+	 * @param jsonFile
+	 *            The JSON file to read, optionally compressed with gzip.
+	 * @param elementClass
+	 *            Class of the descriptions to read.
+	 * @param consumer
+	 *            The consumer the descriptions are passed to, in the order they
+	 *            appear in the file.
+	 * @param <T>
+	 *            Class of the descriptions to read.
+	 * @return The number of descriptions read.
+	 * @throws ParameterFileException
+	 *             Thrown if the file is not valid JSON or contains an invalid
+	 *             description. Descriptions before the invalid one have already
+	 *             been passed to the consumer.
+	 * @throws IOException
+	 *             Thrown if the file could not be read.
+	 */
+	public static <T> int streamParameters(File jsonFile, Class<T> elementClass, Consumer<? super T> consumer)
+			throws IOException {
+
+		TypeAdapter<T> adapter = GSON.getAdapter(elementClass);
+		Set<String> names = new HashSet<>();
+		int count = 0;
+
+		try (JsonReader reader = new JsonReader(openReader(jsonFile))) {
 			try {
-				result = Arrays.asList(gson.fromJson(reader, classOfT));
-			} catch (JsonSyntaxException e) {
-				System.out.println("File " + jsonFile + " does not have correct JSON syntax:" + e);
-				return null;
+				reader.beginArray();
+
+				while (reader.hasNext()) {
+					String elementPath = reader.getPath();
+					int[] elementLocation = location(reader);
+
+					T element = adapter.read(reader);
+
+					Problem problem = element == null ? new Problem(null, "Description must not be null.")
+							: validate(element, names);
+					if (problem != null) {
+						String path = problem.field == null ? elementPath : elementPath + "." + problem.field;
+						throw new ParameterFileException(jsonFile, path, elementLocation[0], elementLocation[1],
+								problem.message, null);
+					}
+
+					consumer.accept(element);
+					count++;
+				}
+
+				reader.endArray();
+
+				if (reader.peek() != JsonToken.END_DOCUMENT) {
+					throw newSyntaxException(jsonFile, reader, "Unexpected content after the array.", null);
+				}
+			} catch (MalformedJsonException e) {
+				throw newSyntaxException(jsonFile, reader, "Malformed JSON.", e);
+			} catch (JsonParseException | IllegalStateException | NumberFormatException e) {
+				throw newSyntaxException(jsonFile, reader, e.getMessage(), e);
 			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Open a parameter file for reading. Files starting with the gzip header are
+	 * decompressed while reading.
+	 *
+	 * @param file
+	 *            The file to open.
+	 * @return A reader for the UTF-8 encoded content of the file.
+	 * @throws IOException
+	 *             Thrown if the file could not be opened.
+	 */
+	private static Reader openReader(File file) throws IOException {
+		InputStream stream = new BufferedInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE);
 
-			reader.close();
+		try {
+			stream.mark(2);
+			int magic = stream.read() | (stream.read() << 8);
+			stream.reset();
 
+			if (magic == GZIP_MAGIC) {
+				stream = new BufferedInputStream(new GZIPInputStream(stream, BUFFER_SIZE), BUFFER_SIZE);
+			}
 		} catch (IOException e) {
-			System.out.println("Could not read node type file: " + jsonFile);
-			result = null;
+			stream.close();
+			throw e;
 		}
 
-		return result;
+		return new InputStreamReader(stream, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Check a description for missing or invalid values.
+	 *
+	 * @param element
+	 *            The description to check.
+	 * @param names
+	 *            The names of the descriptions read before. The name of the
+	 *            description is added if it is valid. Job types must have unique
+	 *            names, as they are referenced by name during the construction.
+	 * @return The problem of the description, or null if the description is valid.
+	 */
+	private static Problem validate(Object element, Set<String> names) {
+		if (element instanceof NodeTypeDescription) {
+			NodeTypeDescription node = (NodeTypeDescription) element;
+
+			if (isBlank(node.getName())) {
+				return new Problem("name", "Node type name is missing.");
+			}
+			if (!(node.getComputingRate() > 0) || Double.isInfinite(node.getComputingRate())) {
+				return new Problem("computingRate", "Computing rate must be positive.");
+			}
+			if (node.getCores() < 1) {
+				return new Problem("cores", "Number of cores must be at least 1.");
+			}
+			if (node.getJobslots() < 1) {
+				return new Problem("jobslots", "Number of job slots must be at least 1.");
+			}
+			if (node.getNodeCount() < 1) {
+				return new Problem("nodeCount", "Node count must be at least 1.");
+			}
+			if (!names.add(node.getName())) {
+				// Node types are not referenced by name, so this is only reported
+				System.out.println("Warning: Duplicate node type name " + node.getName()
+						+ ", the node types cannot be told apart in the simulation results.");
+			}
+
+		} else if (element instanceof JobTypeDescription) {
+			JobTypeDescription job = (JobTypeDescription) element;
+
+			if (isBlank(job.getTypeName())) {
+				return new Problem("typeName", "Job type name is missing.");
+			}
+			if (isBlank(job.getCpuDemandStoEx())) {
+				return new Problem("cpuDemandStoEx", "CPU demand is missing.");
+			}
+			if (job.getUseIoRatio() && isBlank(job.getIoTimeRatioStoEx())) {
+				return new Problem("ioTimeRatioStoEx", "I/O time ratio is missing, but useIoRatio is set.");
+			}
+			if (!job.getUseIoRatio() && isBlank(job.getIoTimeStoEx())) {
+				return new Problem("ioTimeStoEx", "I/O time is missing.");
+			}
+			if (isBlank(job.getRequiredJobslotsStoEx())) {
+				return new Problem("requiredJobslotsStoEx", "Number of required job slots is missing.");
+			}
+			if (!(job.getRelativeFrequency() >= 0 && job.getRelativeFrequency() <= 1)) {
+				return new Problem("relativeFrequency", "Relative frequency must be between 0 and 1.");
+			}
+			if (job.getSchedulingDelay() < 0) {
+				return new Problem("schedulingDelay", "Scheduling delay must not be negative.");
+			}
+			if (!names.add(job.getTypeName())) {
+				return new Problem("typeName", "Duplicate job type name " + job.getTypeName() + ".");
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * A problem of an invalid description.
+	 */
+	private static final class Problem {
+		private final String field;
+		private final String message;
+
+		/**
+		 * @param field
+		 *            The name of the invalid field, or null if the whole
+		 *            description is invalid.
+		 * @param message
+		 *            A description of the problem.
+		 */
+		Problem(String field, String message) {
+			this.field = field;
+			this.message = message;
+		}
+	}
+
+	private static boolean isBlank(String value) {
+		return value == null || value.trim().isEmpty();
+	}
+
+	/**
+	 * Create an exception for a syntax error at the current position of a reader.
+	 *
+	 * @param file
+	 *            The file being read.
+	 * @param reader
+	 *            The reader positioned at the error.
+	 * @param problem
+	 *            A description of the error.
+	 * @param cause
+	 *            The exception causing the error, or null.
+	 * @return The exception.
+	 */
+	private static ParameterFileException newSyntaxException(File file, JsonReader reader, String problem,
+			Throwable cause) {
+		int[] location = location(reader);
+		return new ParameterFileException(file, reader.getPath(), location[0], location[1], problem, cause);
+	}
+
+	/**
+	 * Get the current position of a reader. Gson only exposes it as part of the
+	 * string representation of the reader.
+	 *
+	 * @param reader
+	 *            The reader.
+	 * @return The line and column, -1 if unknown.
+	 */
+	private static int[] location(JsonReader reader) {
+		Matcher matcher = READER_LOCATION.matcher(reader.toString());
+		if (matcher.find()) {
+			return new int[] { Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)) };
+		}
+		return new int[] { -1, -1 };
 	}
 }
@@ -0,0 +1,310 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.palladiosimulator.wlcgmodel.util.ModelSaveReport;
+import org.palladiosimulator.wlcgmodel.util.ParallelExecutionHelper;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * A what-if study that constructs one model set for every combination of factors of a grid of
+ * {@link SweepDimension}s, e.g. node counts scaled by 0.5, 1 and 2 combined with computing rates
+ * scaled by 1 and 1.25.
+ *
+ * All variants are constructed concurrently from a shared {@link BlueprintTemplate}, each into its
+ * own subdirectory of the output directory. The subdirectory also contains the node and job type
+ * descriptions of the variant. A manifest mapping each variant to its factors is written to the
+ * output directory.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class ParameterSweep {
+
+    /**
+     * Name of the manifest file written to the output directory.
+     */
+    public static final String MANIFEST_FILENAME = "sweep-manifest.json";
+
+    private static final String NODES_FILENAME = "nodes.json";
+    private static final String JOBS_FILENAME = "jobs.json";
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final Map<SweepDimension, double[]> dimensions = new LinkedHashMap<>();
+
+    /**
+     * Create a sweep without dimensions, which consists of a single variant with the base
+     * parameters.
+     */
+    public ParameterSweep() {
+    }
+
+    /**
+     * Add a dimension to the grid.
+     *
+     * @param dimension
+     *            The dimension.
+     * @param factors
+     *            The factors the parameters of the dimension are multiplied with.
+     * @return This sweep.
+     * @throws IllegalArgumentException
+     *             Thrown if no factor is given or a factor is not positive.
+     */
+    public ParameterSweep addDimension(SweepDimension dimension, double... factors) {
+        if (factors.length == 0) {
+            throw new IllegalArgumentException("Sweep dimension " + dimension + " needs at least one factor.");
+        }
+        for (double factor : factors) {
+            if (!(factor > 0) || Double.isInfinite(factor)) {
+                throw new IllegalArgumentException("Sweep factors need to be positive, got " + factor + ".");
+            }
+        }
+        dimensions.put(dimension, factors.clone());
+        return this;
+    }
+
+    /**
+     * Create the variants of the sweep, i.e. one variant for every combination of factors. The
+     * first dimension varies slowest.
+     *
+     * @param baseNodes
+     *            The base node type descriptions, which are not modified.
+     * @param baseJobs
+     *            The base job type descriptions, which are not modified.
+     * @return The variants.
+     * @throws IllegalArgumentException
+     *             Thrown if a factor cannot be applied to the base parameters.
+     */
+    public List<Variant> createVariants(List<NodeTypeDescription> baseNodes, List<JobTypeDescription> baseJobs) {
+        List<Map<SweepDimension, Double>> combinations = new ArrayList<>();
+        combinations.add(new LinkedHashMap<>());
+
+        for (Map.Entry<SweepDimension, double[]> dimension : dimensions.entrySet()) {
+            List<Map<SweepDimension, Double>> extended = new ArrayList<>();
+            for (Map<SweepDimension, Double> combination : combinations) {
+                for (double factor : dimension.getValue()) {
+                    Map<SweepDimension, Double> extendedCombination = new LinkedHashMap<>(combination);
+                    extendedCombination.put(dimension.getKey(), factor);
+                    extended.add(extendedCombination);
+                }
+            }
+            combinations = extended;
+        }
+
+        List<Variant> variants = new ArrayList<>(combinations.size());
+        for (Map<SweepDimension, Double> combination : combinations) {
+            List<NodeTypeDescription> nodes = copy(baseNodes, NodeTypeDescription.class);
+            List<JobTypeDescription> jobs = copy(baseJobs, JobTypeDescription.class);
+            Map<String, Double> factors = new LinkedHashMap<>();
+
+            for (Map.Entry<SweepDimension, Double> factor : combination.entrySet()) {
+                factor.getKey().apply(nodes, jobs, factor.getValue());
+                factors.put(factor.getKey().getName(), factor.getValue());
+            }
+
+            variants.add(new Variant(String.format("variant-%03d", variants.size()), factors, nodes, jobs));
+        }
+        return variants;
+    }
+
+    /**
+     * Construct the model sets of all variants concurrently and write the manifest. A variant that
+     * fails to be constructed is reported in the manifest and does not stop the other variants.
+     *
+     * @param template
+     *            The blueprint model the variants are constructed from.
+     * @param outputDirectory
+     *            The directory the variant directories and the manifest are written to.
+     * @param baseNodes
+     *            The base node type descriptions.
+     * @param baseJobs
+     *            The base job type descriptions.
+     * @param options
+     *            The options controlling the construction of each variant. Its parallelism limits
+     *            the number of variants constructed at the same time.
+     * @return The outcome for each variant, in the order of {@link #createVariants(List, List)}.
+     * @throws IOException
+     *             Thrown if the manifest could not be written.
+     */
+    public List<VariantResult> run(BlueprintTemplate template, File outputDirectory,
+            List<NodeTypeDescription> baseNodes, List<JobTypeDescription> baseJobs, ModelConstructionOptions options)
+            throws IOException {
+
+        List<Variant> variants = createVariants(baseNodes, baseJobs);
+        System.out.println("Constructing " + variants.size() + " sweep variants");
+
+        List<VariantResult> results = ParallelExecutionHelper.mapOrdered(variants,
+                variant -> construct(template, new File(outputDirectory, variant.getName()), variant, options),
+                options.getParallelism());
+
+        writeManifest(new File(outputDirectory, MANIFEST_FILENAME), results);
+        return results;
+    }
+
+    /**
+     * Construct the model set of a single variant.
+     */
+    private static VariantResult construct(BlueprintTemplate template, File variantDirectory, Variant variant,
+            ModelConstructionOptions options) {
+
+        try {
+            URI variantURI = URI.createFileURI(variantDirectory.getAbsolutePath());
+            ResourceSet resourceSet = template.instantiate(variantURI);
+            template.writeOtherFiles(resourceSet.getURIConverter(), variantURI);
+
+            writeJson(new File(variantDirectory, NODES_FILENAME), variant.getNodes());
+            writeJson(new File(variantDirectory, JOBS_FILENAME), variant.getJobs());
+
+            ModelSaveReport saveReport = new WLCGModelConstructor(options).completeModels(resourceSet, variantURI,
+                    variant.getNodes(), variant.getJobs());
+
+            if (saveReport.hasErrors()) {
+                System.out.println("Could not save the models of " + variant.getName());
+                return new VariantResult(variant, variantDirectory, false);
+            }
+            System.out.println("Constructed " + variant.getName() + " " + variant.getFactors());
+            return new VariantResult(variant, variantDirectory, true);
+
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Could not construct " + variant.getName() + ": " + e);
+            return new VariantResult(variant, variantDirectory, false);
+        }
+    }
+
+    private void writeManifest(File manifestFile, List<VariantResult> results) throws IOException {
+        Map<String, Object> manifest = new LinkedHashMap<>();
+
+        Map<String, double[]> grid = new LinkedHashMap<>();
+        for (Map.Entry<SweepDimension, double[]> dimension : dimensions.entrySet()) {
+            grid.put(dimension.getKey().getName(), dimension.getValue());
+        }
+        manifest.put("dimensions", grid);
+
+        List<Map<String, Object>> variants = new ArrayList<>();
+        for (VariantResult result : results) {
+            Map<String, Object> variant = new LinkedHashMap<>();
+            variant.put("name", result.getVariant().getName());
+            variant.put("directory", result.getVariant().getName());
+            variant.put("nodes", result.getVariant().getName() + "/" + NODES_FILENAME);
+            variant.put("jobs", result.getVariant().getName() + "/" + JOBS_FILENAME);
+            variant.put("factors", result.getVariant().getFactors());
+            variant.put("success", result.getSuccess());
+            variants.add(variant);
+        }
+        manifest.put("variants", variants);
+
+        writeJson(manifestFile, manifest);
+    }
+
+    private static void writeJson(File file, Object content) throws IOException {
+        Files.createDirectories(file.getParentFile().toPath());
+        try (Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            GSON.toJson(content, writer);
+        }
+    }
+
+    private static <T> List<T> copy(List<T> descriptions, Class<T> descriptionClass) {
+        List<T> copies = new ArrayList<>(descriptions.size());
+        for (T description : descriptions) {
+            copies.add(GSON.fromJson(GSON.toJsonTree(description), descriptionClass));
+        }
+        return copies;
+    }
+
+    /**
+     * The parameters of a single point of the sweep grid.
+     */
+    public static final class Variant {
+        private final String name;
+        private final Map<String, Double> factors;
+        private final List<NodeTypeDescription> nodes;
+        private final List<JobTypeDescription> jobs;
+
+        Variant(String name, Map<String, Double> factors, List<NodeTypeDescription> nodes,
+                List<JobTypeDescription> jobs) {
+            this.name = name;
+            this.factors = factors;
+            this.nodes = nodes;
+            this.jobs = jobs;
+        }
+
+        /**
+         * @return the name of the variant, which is also the name of its directory
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the factor of each dimension by dimension name
+         */
+        public Map<String, Double> getFactors() {
+            return Collections.unmodifiableMap(factors);
+        }
+
+        /**
+         * @return the node type descriptions of the variant
+         */
+        public List<NodeTypeDescription> getNodes() {
+            return nodes;
+        }
+
+        /**
+         * @return the job type descriptions of the variant
+         */
+        public List<JobTypeDescription> getJobs() {
+            return jobs;
+        }
+    }
+
+    /**
+     * The outcome of constructing the model set of a variant.
+     */
+    public static final class VariantResult {
+        private final Variant variant;
+        private final File directory;
+        private final boolean success;
+
+        VariantResult(Variant variant, File directory, boolean success) {
+            this.variant = variant;
+            this.directory = directory;
+            this.success = success;
+        }
+
+        /**
+         * @return the variant
+         */
+        public Variant getVariant() {
+            return variant;
+        }
+
+        /**
+         * @return the directory containing the model set of the variant
+         */
+        public File getDirectory() {
+            return directory;
+        }
+
+        /**
+         * @return whether the model set has been constructed and saved
+         */
+        public boolean getSuccess() {
+            return success;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.palladiosimulator.wlcgmodel;
+
+import java.util.List;
+
+/**
+ * A parameter of a {@link ParameterSweep} that is varied by multiplying it with a factor. The
+ * dimension is applied to copies of the base node and job type descriptions of each variant.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public abstract class SweepDimension {
+
+    private static final String NODE_COUNT = "node-count";
+    private static final String COMPUTING_RATE = "computing-rate";
+    private static final String JOB_FREQUENCY = "job-frequency/";
+
+    private final String name;
+
+    /**
+     * Create a dimension.
+     *
+     * @param name
+     *            The name of the dimension, as used in the sweep manifest.
+     */
+    protected SweepDimension(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the name of the dimension, as used in the sweep manifest
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Apply a factor of this dimension to the parameters of a variant.
+     *
+     * @param nodes
+     *            The node type descriptions of the variant, which may be modified.
+     * @param jobs
+     *            The job type descriptions of the variant, which may be modified.
+     * @param factor
+     *            The factor.
+     * @throws IllegalArgumentException
+     *             Thrown if the factor cannot be applied to the parameters.
+     */
+    public abstract void apply(List<NodeTypeDescription> nodes, List<JobTypeDescription> jobs, double factor);
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Create a dimension that scales the number of nodes of every node type. Node counts are
+     * rounded and at least 1.
+     *
+     * @return The dimension.
+     */
+    public static SweepDimension nodeCount() {
+        return new SweepDimension(NODE_COUNT) {
+            @Override
+            public void apply(List<NodeTypeDescription> nodes, List<JobTypeDescription> jobs, double factor) {
+                for (NodeTypeDescription node : nodes) {
+                    node.setNodeCount((int) Math.max(1, Math.round(node.getNodeCount() * factor)));
+                }
+            }
+        };
+    }
+
+    /**
+     * Create a dimension that scales the computing rate of every node type, e.g. to simulate faster
+     * CPUs.
+     *
+     * @return The dimension.
+     */
+    public static SweepDimension computingRate() {
+        return new SweepDimension(COMPUTING_RATE) {
+            @Override
+            public void apply(List<NodeTypeDescription> nodes, List<JobTypeDescription> jobs, double factor) {
+                for (NodeTypeDescription node : nodes) {
+                    node.setComputingRate(node.getComputingRate() * factor);
+                }
+            }
+        };
+    }
+
+    /**
+     * Create a dimension that shifts the job mix by scaling the relative frequency of a job type.
+     * The frequencies of all job types are normalized afterwards, so their sum does not change.
+     *
+     * @param typeName
+     *            The name of the job type.
+     * @return The dimension.
+     */
+    public static SweepDimension jobFrequency(String typeName) {
+        return new SweepDimension(JOB_FREQUENCY + typeName) {
+            @Override
+            public void apply(List<NodeTypeDescription> nodes, List<JobTypeDescription> jobs, double factor) {
+                double sum = 0;
+                double scaledSum = 0;
+                boolean found = false;
+
+                for (JobTypeDescription job : jobs) {
+                    sum += job.getRelativeFrequency();
+                    if (typeName.equals(job.getTypeName())) {
+                        job.setRelativeFrequency(job.getRelativeFrequency() * factor);
+                        found = true;
+                    }
+                    scaledSum += job.getRelativeFrequency();
+                }
+
+                if (!found) {
+                    throw new IllegalArgumentException("Unknown job type " + typeName + ".");
+                }
+                if (scaledSum <= 0) {
+                    throw new IllegalArgumentException("Relative frequencies sum up to zero.");
+                }
+
+                for (JobTypeDescription job : jobs) {
+                    job.setRelativeFrequency(job.getRelativeFrequency() * sum / scaledSum);
+                }
+            }
+        };
+    }
+
+    /**
+     * Get a dimension by its name, i.e. <code>node-count</code>, <code>computing-rate</code> or
+     * <code>job-frequency/&lt;job type&gt;</code>.
+     *
+     * @param name
+     *            The name of the dimension.
+     * @return The dimension.
+     * @throws IllegalArgumentException
+     *             Thrown if there is no dimension with this name.
+     */
+    public static SweepDimension forName(String name) {
+        if (NODE_COUNT.equals(name)) {
+            return nodeCount();
+        }
+        if (COMPUTING_RATE.equals(name)) {
+            return computingRate();
+        }
+        if (name.startsWith(JOB_FREQUENCY) && name.length() > JOB_FREQUENCY.length()) {
+            return jobFrequency(name.substring(JOB_FREQUENCY.length()));
+        }
+        throw new IllegalArgumentException("Unknown sweep dimension " + name + ".");
+    }
+}
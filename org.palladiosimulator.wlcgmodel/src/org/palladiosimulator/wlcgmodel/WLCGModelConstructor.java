@@ -1,24 +1,35 @@
 package org.palladiosimulator.wlcgmodel;
 
+import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.eclipse.emf.common.util.TreeIterator;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
-import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.resource.URIConverter;
 import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.modelversioning.emfprofile.Stereotype;
 import org.palladiosimulator.edp2.models.measuringpoint.MeasuringPoint;
 import org.palladiosimulator.edp2.models.measuringpoint.MeasuringPointRepository;
 import org.palladiosimulator.mdsdprofiles.api.StereotypeAPI;
+import org.palladiosimulator.metricspec.constants.MetricDescriptionConstants;
+import org.palladiosimulator.monitorrepository.MeasurementSpecification;
 import org.palladiosimulator.monitorrepository.Monitor;
 import org.palladiosimulator.monitorrepository.MonitorRepository;
+import org.palladiosimulator.monitorrepository.MonitorRepositoryFactory;
+import org.palladiosimulator.monitorrepository.TimeDriven;
 import org.palladiosimulator.pcm.allocation.Allocation;
 import org.palladiosimulator.pcm.allocation.AllocationContext;
 import org.palladiosimulator.pcm.allocation.AllocationFactory;
@@ -31,13 +42,11 @@ import org.palladiosimulator.pcm.core.composition.ProvidedDelegationConnector;
 import org.palladiosimulator.pcm.parameter.VariableUsage;
 import org.palladiosimulator.pcm.repository.BasicComponent;
 import org.palladiosimulator.pcm.repository.CompositeComponent;
-import org.palladiosimulator.pcm.repository.Interface;
 import org.palladiosimulator.pcm.repository.OperationInterface;
 import org.palladiosimulator.pcm.repository.OperationProvidedRole;
 import org.palladiosimulator.pcm.repository.OperationRequiredRole;
 import org.palladiosimulator.pcm.repository.OperationSignature;
 import org.palladiosimulator.pcm.repository.Repository;
-import org.palladiosimulator.pcm.repository.RepositoryComponent;
 import org.palladiosimulator.pcm.repository.RepositoryFactory;
 import org.palladiosimulator.pcm.resourceenvironment.ProcessingResourceSpecification;
 import org.palladiosimulator.pcm.resourceenvironment.ResourceContainer;
@@ -47,17 +56,21 @@ import org.palladiosimulator.pcm.seff.BranchAction;
 import org.palladiosimulator.pcm.seff.ExternalCallAction;
 import org.palladiosimulator.pcm.seff.ForkAction;
 import org.palladiosimulator.pcm.seff.ResourceDemandingSEFF;
-import org.palladiosimulator.pcm.seff.ServiceEffectSpecification;
 import org.palladiosimulator.pcm.usagemodel.Branch;
 import org.palladiosimulator.pcm.usagemodel.BranchTransition;
 import org.palladiosimulator.pcm.usagemodel.EntryLevelSystemCall;
 import org.palladiosimulator.pcm.usagemodel.ScenarioBehaviour;
 import org.palladiosimulator.pcm.usagemodel.UsageModel;
-import org.palladiosimulator.pcm.usagemodel.UsageScenario;
 import org.palladiosimulator.pcmmeasuringpoint.ActiveResourceMeasuringPoint;
 import org.palladiosimulator.pcmmeasuringpoint.ExternalCallActionMeasuringPoint;
 import org.palladiosimulator.pcmmeasuringpoint.PcmmeasuringpointFactory;
 import org.palladiosimulator.pcmmeasuringpoint.SystemOperationMeasuringPoint;
+import org.palladiosimulator.wlcgmodel.util.ConcurrentModelSaver;
+import org.palladiosimulator.wlcgmodel.util.ConstructionMetrics;
+import org.palladiosimulator.wlcgmodel.util.ModelSaveReport;
+import org.palladiosimulator.wlcgmodel.util.ModelSerialization;
+import org.palladiosimulator.wlcgmodel.util.ParallelExecutionHelper;
+import org.palladiosimulator.wlcgmodel.util.StoExParsingHelper;
 
 /**
  * Instances of this class can be used to calibrate Palladio simulation models by constructing them
@@ -74,42 +87,60 @@ import org.palladiosimulator.pcmmeasuringpoint.SystemOperationMeasuringPoint;
 public class WLCGModelConstructor {
 
     // Required model files for completion
-    private static final String REPO_MODEL_FILENAME = "jobs.repository";
+    static final String REPO_MODEL_FILENAME = "jobs.repository";
     private static final String SYSTEM_MODEL_FILENAME = "jobs.system";
-    private static final String RESOURCE_ENVIRONMENT_MODEL_FILENAME = "nodes.resourceenvironment";
+    static final String RESOURCE_ENVIRONMENT_MODEL_FILENAME = "nodes.resourceenvironment";
     private static final String ALLOCATION_MODEL_FILENAME = "newAllocation.allocation";
-    private static final String USAGE_MODEL_FILENAME = "wlcg.usagemodel";
-    private static final String MONITOR_DIRECTORY_NAME = "monitor";
-    private static final String MEASURINGPOINT_REPOSITORY_FILENAME = "measuringpoints.measuringpoint";
-    private static final String MONITOR_REPOSITORY_FILENAME = "wlcg.monitorrepository";
+    static final String USAGE_MODEL_FILENAME = "wlcg.usagemodel";
+    static final String MONITOR_DIRECTORY_NAME = "monitor";
+    static final String MEASURINGPOINT_REPOSITORY_FILENAME = "measuringpoints.measuringpoint";
+    static final String MONITOR_REPOSITORY_FILENAME = "wlcg.monitorrepository";
+
+    /** The models changed by the construction, relative to the models path. */
+    static final List<String> CONSTRUCTED_MODEL_FILES = Collections.unmodifiableList(Arrays.asList(
+            REPO_MODEL_FILENAME, SYSTEM_MODEL_FILENAME, RESOURCE_ENVIRONMENT_MODEL_FILENAME, ALLOCATION_MODEL_FILENAME,
+            USAGE_MODEL_FILENAME, MONITOR_DIRECTORY_NAME + "/" + MEASURINGPOINT_REPOSITORY_FILENAME,
+            MONITOR_DIRECTORY_NAME + "/" + MONITOR_REPOSITORY_FILENAME));
 
     // IDs for the model elements used during construction
-    private static final String COMPUTE_JOB_COMPOSITE_COMPONENT_ID = "WLCGBlueprint_computeJobCompositeComponent";
+    static final String COMPUTE_JOB_COMPOSITE_COMPONENT_ID = "WLCGBlueprint_computeJobCompositeComponent";
     private static final String BLUEPRINT_JOB_COMPONENT_ID = "WLCGBlueprint_blueprintJobComponent";
 
-    private static final String BLUEPRINT_GRID_JOB_COMPONENT_ID = "gridJobComponent";
-    private static final String BLUEPRINT_GRID_JOB_SEFF = "gridJobSEFF";
+    static final String BLUEPRINT_GRID_JOB_SEFF = "gridJobSEFF";
 
     private static final String GRID_JOB_INTERFACE = "gridJobInterface";
     private static final String BLUEPRINT_GRID_JOB_PROVIDED_ROLE = "gridJobProvidedRole";
     private static final String BLUEPRINT_GRID_JOB_ASSEMBLY = "gridJobAssembly";
 
-    private static final String BLUEPRINT_JOB_SEFF = "WLCGBlueprint_runBlueprintJobSEFF";
+    static final String BLUEPRINT_JOB_SEFF = "WLCGBlueprint_runBlueprintJobSEFF";
     private static final String BLUEPRINT_JOB_EXTERNAL_CALL_ACTION = "jobExternalCallAction";
 
-    private static final String BLUEPRINT_FORK_ACTION = "blueprintForkAction";
+    static final String BLUEPRINT_FORK_ACTION = "blueprintForkAction";
 
     private static final String COMPUTE_ASSEMBLY_CONTEXT_SYSTEM = "WLCGBlueprint_computeJobAssemblyContextSystem";
-    private static final String BLUEPRINT_NODE = "WLCGBlueprint_blueprintNode";
-    private static final String BLUEPRINT_CPU = "WLCGBlueprint_blueprintCPU";
-    private static final String BLUEPRINT_HDD = "WLCGBlueprint_blueprintHDD";
-    private static final String BLUEPRINT_CPU_MONITOR = "resourceMonitorCPU";
-    private static final String BLUEPRINT_SYSTEM_CALL_MONITOR = "responseTimeTypeMonitor";
-    private static final String BLUEPRINT_EXTERNAL_CALL_MONITOR = "externalCallResponseTimeMonitor";
-
-    private static final String BLUEPRINT_USAGE_SCENARIO = "WLCGBlueprint_blueprintUsageScenario";
-    private static final String BLUEPRINT_ENTRY_LEVEL_SYSTEM_CALL = "WLCGBlueprint_blueprintEntryLevelSystemCall";
-    private static final String BLUEPRINT_USAGEMODEL_BRANCH_JOBTYPE = "branchUsageModelJobtype";
+    static final String BLUEPRINT_NODE = "WLCGBlueprint_blueprintNode";
+    static final String BLUEPRINT_CPU = "WLCGBlueprint_blueprintCPU";
+    static final String BLUEPRINT_HDD = "WLCGBlueprint_blueprintHDD";
+    static final String BLUEPRINT_CPU_MONITOR = "resourceMonitorCPU";
+    static final String BLUEPRINT_SYSTEM_CALL_MONITOR = "responseTimeTypeMonitor";
+    static final String BLUEPRINT_SYSTEM_OPERATION_MONITOR = "systemOperationMonitor";
+    static final String BLUEPRINT_EXTERNAL_CALL_MONITOR = "externalCallResponseTimeMonitor";
+
+    static final String BLUEPRINT_ENTRY_LEVEL_SYSTEM_CALL = "WLCGBlueprint_blueprintEntryLevelSystemCall";
+    static final String BLUEPRINT_USAGEMODEL_BRANCH_JOBTYPE = "branchUsageModelJobtype";
+
+    // Names of the construction phases reported in the construction metrics
+    static final String PHASE_LOAD = "load";
+    static final String PHASE_REPOSITORY = "repository";
+    static final String PHASE_SYSTEM = "system";
+    static final String PHASE_RESOURCE_ENVIRONMENT = "resourceEnvironment";
+    static final String PHASE_USAGE_MODEL = "usageModel";
+    static final String PHASE_MONITORS = "monitors";
+    static final String PHASE_ALLOCATION = "allocation";
+    static final String PHASE_SAVE = "save";
+
+    // Name of the configuration parameter for the I/O demand of a job component
+    static final String IO_DEMAND_FROM_RATIO_PARAMETER = "IO_DEMAND_FROM_RATIO";
 
     // Used for holding model elements that are needed to connect models
     private Map<String, OperationInterface> jobInterfaces = new HashMap<>();
@@ -121,15 +152,35 @@ public class WLCGModelConstructor {
     private List<ResourceContainer> resourceContainerTypes = new ArrayList<>();
     private AssemblyContext computeJobAssembly = null;
 
+    // Appended to the names and IDs of pre-expanded resource container replicas
+    static final String REPLICA_SUFFIX = "_replica_";
+
+    // Maximum thread count supported if the node types do not limit it
+    static final int DEFAULT_MAX_THREAD_COUNT = 8;
+
     private static final boolean DUPLICATE_IO = true;
     private static final boolean FAST_IO = false;
 
     private List<Resource> openedResources = new ArrayList<>();
 
+    private final ModelConstructionOptions options;
+    private final ConstructionMetrics metrics = new ConstructionMetrics();
+
     /**
-     * Create a simulation model construction object.
+     * Create a simulation model construction object using the default construction options.
      */
     public WLCGModelConstructor() {
+        this(new ModelConstructionOptions());
+    }
+
+    /**
+     * Create a simulation model construction object.
+     *
+     * @param options
+     *            The options controlling the model construction.
+     */
+    public WLCGModelConstructor(ModelConstructionOptions options) {
+        this.options = options;
     }
 
     /**
@@ -143,15 +194,38 @@ public class WLCGModelConstructor {
      *            The list of node types to be inserted into the model.
      * @param jobs
      *            The list of job types to be inserted into the model.
+     * @return A report describing the outcome of saving each of the completed models.
      */
-    public void completeModels(final URI modelsPath, List<NodeTypeDescription> nodes, List<JobTypeDescription> jobs) {
+    public ModelSaveReport completeModels(final URI modelsPath, List<NodeTypeDescription> nodes,
+            List<JobTypeDescription> jobs) {
+        return completeModels(ModelSerialization.createResourceSet(), modelsPath, nodes, jobs);
+    }
 
-        ResourceSet resourceSet = new ResourceSetImpl();
+    /**
+     * Complete simulation models from node and job type descriptions. Models that are already
+     * contained in the resource set, e.g. an instance of a {@link BlueprintTemplate}, are completed
+     * without loading them from their location. All other models are loaded from the models path.
+     * The completed models are saved to the models path.
+     *
+     * @param resourceSet
+     *            The resource set to load the models into.
+     * @param modelsPath
+     *            The path to the models to be completed.
+     * @param nodes
+     *            The list of node types to be inserted into the model.
+     * @param jobs
+     *            The list of job types to be inserted into the model.
+     * @return A report describing the outcome of saving each of the completed models.
+     */
+    public ModelSaveReport completeModels(ResourceSet resourceSet, final URI modelsPath,
+            List<NodeTypeDescription> nodes, List<JobTypeDescription> jobs) {
 
         Repository repository = loadModel(modelsPath, REPO_MODEL_FILENAME, resourceSet, Repository.class);
 
         // Complete the repository model
-        this.completeRepositoryModel(repository, jobs);
+        try (ConstructionMetrics.Timer timer = this.metrics.time(PHASE_REPOSITORY)) {
+            this.completeRepositoryModel(repository, jobs, nodes);
+        }
 
         // Load monitor repositories
         MeasuringPointRepository measuringPointRepo = loadModel(modelsPath.appendSegment(MONITOR_DIRECTORY_NAME),
@@ -163,66 +237,157 @@ public class WLCGModelConstructor {
         // Complete the system model
         org.palladiosimulator.pcm.system.System system = loadModel(modelsPath, SYSTEM_MODEL_FILENAME, resourceSet,
                 org.palladiosimulator.pcm.system.System.class);
-        this.completeSystemModel(system, jobs, monitorRepo, measuringPointRepo);
+        try (ConstructionMetrics.Timer timer = this.metrics.time(PHASE_SYSTEM)) {
+            this.completeSystemModel(system, jobs, monitorRepo, measuringPointRepo);
+        }
 
         // Load and complete resource environment
         ResourceEnvironment resEnv = loadModel(modelsPath, RESOURCE_ENVIRONMENT_MODEL_FILENAME, resourceSet,
                 ResourceEnvironment.class);
-        this.completeResourceEnvironment(resEnv, nodes, monitorRepo, measuringPointRepo);
+        try (ConstructionMetrics.Timer timer = this.metrics.time(PHASE_RESOURCE_ENVIRONMENT)) {
+            this.completeResourceEnvironment(resEnv, nodes, monitorRepo, measuringPointRepo);
+        }
 
         // Complete the Usage Model
         UsageModel usageModel = loadModel(modelsPath, USAGE_MODEL_FILENAME, resourceSet, UsageModel.class);
 
         // Retrieve usage scenario response time monitor
-        List<Monitor> allMonitors = monitorRepo.getMonitors();
-        Monitor blueprintResponseTimeMonitor = ModelConstructionUtils.findObjectWithId(allMonitors,
-                BLUEPRINT_SYSTEM_CALL_MONITOR);
+        Monitor blueprintResponseTimeMonitor = findBlueprintObject(monitorRepo, BLUEPRINT_SYSTEM_CALL_MONITOR,
+                Monitor.class);
 
         if (blueprintResponseTimeMonitor == null) {
             throw new IllegalArgumentException("Invalid monitor repository, missing entry level system call monitor.");
         }
 
-        completeUsageModel(usageModel, jobs, blueprintResponseTimeMonitor, monitorRepo, measuringPointRepo);
+        try (ConstructionMetrics.Timer timer = this.metrics.time(PHASE_USAGE_MODEL)) {
+            completeUsageModel(usageModel, jobs, blueprintResponseTimeMonitor, monitorRepo, measuringPointRepo);
+        }
 
-        // Remove blueprint monitor from monitor repository
-        blueprintResponseTimeMonitor.setMonitorRepository(null);
+        try (ConstructionMetrics.Timer timer = this.metrics.time(PHASE_MONITORS)) {
+            // Remove blueprint monitor from monitor repository
+            blueprintResponseTimeMonitor.setMonitorRepository(null);
 
-        // Insert monitors for job response times
-        Monitor blueprintJobResponseTimeMonitor = ModelConstructionUtils.findObjectWithId(allMonitors,
-                BLUEPRINT_EXTERNAL_CALL_MONITOR);
+            // Insert monitors for job response times
+            Monitor blueprintJobResponseTimeMonitor = findBlueprintObject(monitorRepo,
+                    BLUEPRINT_EXTERNAL_CALL_MONITOR, Monitor.class);
 
-        if (blueprintJobResponseTimeMonitor == null) {
-            throw new IllegalArgumentException("Invalid monitor repository, missing external call monitor.");
-        }
+            if (blueprintJobResponseTimeMonitor == null) {
+                throw new IllegalArgumentException("Invalid monitor repository, missing external call monitor.");
+            }
 
-        for (Map.Entry<String, ExternalCallAction> entry : this.externalCallActions.entrySet()) {
-            this.addExternalCallMonitoring(measuringPointRepo, monitorRepo, entry.getValue(),
-                    blueprintJobResponseTimeMonitor, entry.getKey());
-        }
+            for (Map.Entry<String, ExternalCallAction> entry : this.externalCallActions.entrySet()) {
+                this.addExternalCallMonitoring(measuringPointRepo, monitorRepo, entry.getValue(),
+                        blueprintJobResponseTimeMonitor, entry.getKey());
+            }
 
-        // Remove blueprint monitor from monitor repository
-        blueprintJobResponseTimeMonitor.setMonitorRepository(null);
+            // Remove blueprint monitor from monitor repository
+            blueprintJobResponseTimeMonitor.setMonitorRepository(null);
+        }
 
         // Complete Allocation Model
         Allocation allocation = loadModel(modelsPath, ALLOCATION_MODEL_FILENAME, resourceSet, Allocation.class);
 
-        for (ResourceContainer nodeType : resourceContainerTypes) {
+        try (ConstructionMetrics.Timer timer = this.metrics.time(PHASE_ALLOCATION)) {
+            for (ResourceContainer nodeType : resourceContainerTypes) {
 
-            AllocationContext context = AllocationFactory.eINSTANCE.createAllocationContext();
+                AllocationContext context = AllocationFactory.eINSTANCE.createAllocationContext();
+                ModelConstructionUtils.setDeterministicID(context, EcoreUtil.getID(nodeType) + "/allocationContext");
 
-            context.setResourceContainer_AllocationContext(nodeType);
-            context.setAssemblyContext_AllocationContext(computeJobAssembly);
+                context.setResourceContainer_AllocationContext(nodeType);
+                context.setAssemblyContext_AllocationContext(computeJobAssembly);
 
-            context.setAllocation_AllocationContext(allocation);
+                context.setAllocation_AllocationContext(allocation);
+            }
+            this.metrics.count(PHASE_ALLOCATION, "allocationContexts", resourceContainerTypes.size());
         }
 
-        // Save all modified models
-        try {
-            for (Resource resource : this.openedResources) {
-                resource.save(null);
+        // Save all modified models. Binary models are saved to files with their own extension, all
+        // of them are moved before saving so that the references between them are updated.
+        ModelSerializationFormat format = this.options.getSerializationFormat();
+        List<URI> replacedModels = new ArrayList<>();
+        for (Resource resource : this.openedResources) {
+            URI modelURI = ModelSerialization.modelURI(resource.getURI(), format);
+            if (!modelURI.equals(resource.getURI())) {
+                replacedModels.add(resource.getURI());
+                resource.setURI(modelURI);
+            }
+        }
+
+        ModelSaveReport saveReport;
+        try (ConstructionMetrics.Timer timer = this.metrics.time(PHASE_SAVE)) {
+            Map<Object, Object> saveOptions = ModelSerialization.saveOptions(format);
+            saveReport = ConcurrentModelSaver.saveAll(this.openedResources, resource -> saveOptions,
+                    this.options.getSavingParallelism());
+        }
+        countSavedResources(saveReport);
+
+        if (!replacedModels.isEmpty() && !saveReport.hasErrors()) {
+            replaceModelFiles(resourceSet.getURIConverter(), modelsPath, replacedModels, format, saveReport);
+        }
+
+        // Generate the experiments, which are not part of the constructed models
+        ExperimentConfiguration experimentConfiguration = this.options.getExperimentConfiguration();
+        if (experimentConfiguration != null) {
+            URI experimentsURI = modelsPath.appendSegment(ExperimentModelGenerator.EXPERIMENTS_FILENAME);
+            try {
+                ExperimentModelGenerator.generate(resourceSet.getURIConverter(), experimentsURI,
+                        experimentConfiguration);
+            } catch (IOException e) {
+                saveReport.add(new ModelSaveReport.Entry(experimentsURI, ModelSaveReport.Status.FAILED, 0, 0, 0, e));
+            }
+        }
+
+        System.out.println(saveReport);
+        System.out.println(this.metrics);
+
+        // Record the parameters so that later calibrations can update the models incrementally. The
+        // record is only valid if all models were saved.
+        if (!saveReport.hasErrors()) {
+            try {
+                new ConstructionParameterRecord(nodes, jobs, this.options.getMonitoringGranularity(),
+                        this.options.getMonitorAggregations(), this.options.getExpandReplicas()).write(
+                                resourceSet.getURIConverter(),
+                                modelsPath.appendSegment(ConstructionParameterRecord.FILENAME));
+            } catch (IOException e) {
+                System.out.println("Error while saving construction parameters, e: " + e);
+            }
+        }
+
+        // The report is kept out of the model set, its timings differ in every construction
+        File metricsReportFile = this.options.getMetricsReportFile();
+        if (metricsReportFile != null) {
+            try {
+                this.metrics.write(resourceSet.getURIConverter(),
+                        URI.createFileURI(metricsReportFile.getAbsolutePath()));
+            } catch (IOException e) {
+                System.out.println("Error while saving construction metrics, e: " + e);
+            }
+        }
+
+        return saveReport;
+    }
+
+    /**
+     * @return the time spent in each construction phase and the amount of work done in it
+     */
+    public ConstructionMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Add the outcome of saving the models to the save phase counters.
+     *
+     * @param saveReport
+     *            The report describing the saved models.
+     */
+    private void countSavedResources(ModelSaveReport saveReport) {
+        for (ModelSaveReport.Entry entry : saveReport.getEntries()) {
+            this.metrics.count(PHASE_SAVE, "resources", 1);
+            this.metrics.count(PHASE_SAVE, entry.getStatus().name().toLowerCase(), 1);
+            this.metrics.count(PHASE_SAVE, "bytesSerialized", entry.getBytes());
+            if (entry.getStatus() == ModelSaveReport.Status.WRITTEN) {
+                this.metrics.count(PHASE_SAVE, "bytesWritten", entry.getBytes());
             }
-        } catch (IOException e) {
-            System.out.println("Error while saving resources, e: " + e);
         }
     }
 
@@ -234,16 +399,21 @@ public class WLCGModelConstructor {
      *            The repository model the jobs should be inserted into.
      * @param jobTypes
      *            The job types to be inserted.
+     * @param nodeTypes
+     *            The node types the jobs are executed on.
      */
-    private void completeRepositoryModel(Repository repository, List<JobTypeDescription> jobTypes) {
+    private void completeRepositoryModel(Repository repository, List<JobTypeDescription> jobTypes,
+            List<NodeTypeDescription> nodeTypes) {
 
-        List<RepositoryComponent> components = repository.getComponents__Repository();
+        CompositeComponent computeJob = findBlueprintObject(repository, COMPUTE_JOB_COMPOSITE_COMPONENT_ID,
+                CompositeComponent.class);
 
-        CompositeComponent computeJob = (CompositeComponent) ModelConstructionUtils.findObjectWithId(components,
-                COMPUTE_JOB_COMPOSITE_COMPONENT_ID);
+        BasicComponent blueprintJob = findBlueprintObject(repository, BLUEPRINT_JOB_COMPONENT_ID,
+                BasicComponent.class);
 
-        BasicComponent blueprintJob = (BasicComponent) ModelConstructionUtils.findObjectWithId(components,
-                BLUEPRINT_JOB_COMPONENT_ID);
+        if (computeJob == null || blueprintJob == null) {
+            throw new IllegalArgumentException("Invalid model blueprint, missing job components!");
+        }
 
         List<Stereotype> blueprintStereotypes = StereotypeAPI.getAppliedStereotypes(blueprintJob);
 
@@ -254,42 +424,61 @@ public class WLCGModelConstructor {
             throw new IllegalArgumentException("Invalid model blueprint, missing middleware dependency stereotype!");
         }
 
-        ServiceEffectSpecification seff = ModelConstructionUtils
-                .findObjectWithId(blueprintJob.getServiceEffectSpecifications__BasicComponent(), BLUEPRINT_JOB_SEFF);
+        ResourceDemandingSEFF seff = findBlueprintObject(repository, BLUEPRINT_JOB_SEFF, ResourceDemandingSEFF.class);
 
         if (seff == null) {
             throw new IllegalArgumentException("Invalid model blueprint!");
         }
 
         // Get the grid job Interface
-        List<Interface> interfaces = repository.getInterfaces__Repository();
-        OperationInterface gridJobInterface = (OperationInterface) ModelConstructionUtils.findObjectWithId(interfaces,
-                GRID_JOB_INTERFACE);
+        OperationInterface gridJobInterface = findBlueprintObject(repository, GRID_JOB_INTERFACE,
+                OperationInterface.class);
 
         if (gridJobInterface == null) {
             throw new IllegalArgumentException("Invalid model blueprint, missing grid job interface!");
         }
 
         // Complete SEFF for Grid Job Component
-        BasicComponent gridJob = (BasicComponent) ModelConstructionUtils.findObjectWithId(components,
-                BLUEPRINT_GRID_JOB_COMPONENT_ID);
+        OperationProvidedRole gridJobProvidedRole = findBlueprintObject(repository,
+                BLUEPRINT_GRID_JOB_PROVIDED_ROLE, OperationProvidedRole.class);
+
+        ResourceDemandingSEFF gridJobSeff = findBlueprintObject(repository, BLUEPRINT_GRID_JOB_SEFF,
+                ResourceDemandingSEFF.class);
 
-        OperationProvidedRole gridJobProvidedRole = (OperationProvidedRole) ModelConstructionUtils.findObjectWithId(
-                gridJob.getProvidedRoles_InterfaceProvidingEntity(), BLUEPRINT_GRID_JOB_PROVIDED_ROLE);
+        AssemblyContext gridJobAssembly = findBlueprintObject(repository, BLUEPRINT_GRID_JOB_ASSEMBLY,
+                AssemblyContext.class);
 
-        ServiceEffectSpecification gridJobSeff = ModelConstructionUtils
-                .findObjectWithId(gridJob.getServiceEffectSpecifications__BasicComponent(), BLUEPRINT_GRID_JOB_SEFF);
-        ResourceDemandingSEFF resourceGridJobSeff = (ResourceDemandingSEFF) gridJobSeff;
+        if (gridJobProvidedRole == null || gridJobSeff == null || gridJobAssembly == null) {
+            throw new IllegalArgumentException("Invalid model blueprint, missing grid job component elements!");
+        }
 
-        constructMultithreadedSEFF(resourceGridJobSeff);
+        ExternalCallAction blueprintExternalCall = findBlueprintObject(seff, BLUEPRINT_JOB_EXTERNAL_CALL_ACTION,
+                ExternalCallAction.class);
 
-        // Build the job type components and add them to the models
-        ResourceDemandingSEFF resourceSeff = (ResourceDemandingSEFF) seff;
-        for (JobTypeDescription job : jobTypes) {
-            System.out.println("Adding job type to repository: " + job.getTypeName());
-            buildAndAddJobComponentWithProvidedInterface(repository, job, resourceSeff, computeJob,
-                    middlewareDependencyStereotype, gridJobInterface, gridJobProvidedRole);
+        if (blueprintExternalCall == null) {
+            throw new IllegalArgumentException("Invalid model blueprint, missing job external call action!");
         }
+
+        constructMultithreadedSEFF(gridJobSeff, requiredThreadCounts(jobTypes, nodeTypes));
+
+        // Resolve all references of the blueprint SEFF up front. Copying it afterwards does not modify
+        // the blueprint, so components for different job types can be built concurrently.
+        EcoreUtil.resolveAll(seff);
+
+        // Build the job type components independently of each other
+        List<JobComponentParts> jobComponents = ParallelExecutionHelper.mapOrdered(jobTypes, job -> {
+            try (ConstructionMetrics.Timer timer = this.metrics.time(PHASE_REPOSITORY, job.getTypeName())) {
+                return buildJobComponent(job, seff, blueprintExternalCall);
+            }
+        }, this.options.getEffectiveParallelism());
+
+        // Add them to the models in a single thread
+        for (JobComponentParts jobComponent : jobComponents) {
+            System.out.println("Adding job type to repository: " + jobComponent.jobType.getTypeName());
+            addJobComponentWithProvidedInterface(repository, jobComponent, computeJob, middlewareDependencyStereotype,
+                    gridJobInterface, gridJobProvidedRole, gridJobAssembly);
+        }
+        this.metrics.count(PHASE_REPOSITORY, "jobComponents", jobComponents.size());
     }
 
     /**
@@ -297,14 +486,12 @@ public class WLCGModelConstructor {
      *
      * @param seff
      *            The SEFF to be duplicated.
+     * @param threadCounts
+     *            The thread counts jobs can be executed with, the most likely first.
      */
-    private void constructMultithreadedSEFF(ResourceDemandingSEFF seff) {
+    private void constructMultithreadedSEFF(ResourceDemandingSEFF seff, List<Integer> threadCounts) {
 
-        ForkAction forkAction = null;
-        EObject forkObject = ModelConstructionUtils.findObjectWithIdRecursively(seff, BLUEPRINT_FORK_ACTION);
-        if (forkObject instanceof ForkAction) {
-            forkAction = (ForkAction) forkObject;
-        }
+        ForkAction forkAction = findBlueprintObject(seff, BLUEPRINT_FORK_ACTION, ForkAction.class);
 
         if (forkAction == null) {
             throwNewInvalidModelException("Repository", "Could not find fork action in job RDSEFF.");
@@ -316,13 +503,84 @@ public class WLCGModelConstructor {
         // Remove fork from SEFF
         forkAction.setResourceDemandingBehaviour_AbstractAction(null);
 
-        BranchAction branch = ModelConstructionUtils.duplicateBehaviours(forkAction, "threadCount", 8);
+        System.out.println("Creating job behaviours for thread counts " + threadCounts);
+
+        BranchAction branch = ModelConstructionUtils.duplicateBehaviours(forkAction, "threadCount", threadCounts);
+        this.metrics.count(PHASE_REPOSITORY, "threadCountBranches", threadCounts.size());
+        this.metrics.count(PHASE_REPOSITORY, "elementsCreated", countElements(branch));
         branch.setResourceDemandingBehaviour_AbstractAction(seff);
 
         branch.setPredecessor_AbstractAction(predecessorAction);
         branch.setSuccessor_AbstractAction(successorAction);
     }
 
+    /**
+     * Determine the thread counts the grid job SEFF needs to support. These are the values of the
+     * number of required job slots of all job types, ordered by their probability weighted by the
+     * relative frequency of the job types, so that the most common thread count is checked first.
+     *
+     * If the required job slots of a job type cannot be read, all thread counts up to the maximum
+     * number of cores of a node type are included.
+     *
+     * @param jobTypes
+     *            The job types of the model.
+     * @param nodeTypes
+     *            The node types of the model.
+     * @return The thread counts, the most likely first.
+     */
+    static List<Integer> requiredThreadCounts(List<JobTypeDescription> jobTypes,
+            List<NodeTypeDescription> nodeTypes) {
+
+        int maxCores = nodeTypes.stream().mapToInt(NodeTypeDescription::getCores).max()
+                .orElse(DEFAULT_MAX_THREAD_COUNT);
+
+        Map<Integer, Double> weights = new HashMap<>();
+        boolean includeAllThreadCounts = false;
+
+        for (JobTypeDescription jobType : jobTypes) {
+            Map<Integer, Double> jobslots;
+            try {
+                jobslots = StoExParsingHelper.parseIntPmf(jobType.getRequiredJobslotsStoEx());
+            } catch (IllegalArgumentException e) {
+                System.out.println("Could not read required job slots of job type " + jobType.getTypeName()
+                        + ", including all thread counts up to " + maxCores + ": " + e.getMessage());
+                includeAllThreadCounts = true;
+                continue;
+            }
+
+            for (Map.Entry<Integer, Double> sample : jobslots.entrySet()) {
+                int threadCount = sample.getKey();
+
+                if (threadCount < 1) {
+                    throw new IllegalArgumentException("Invalid number of required job slots " + threadCount
+                            + " for job type " + jobType.getTypeName());
+                }
+                if (sample.getValue() <= 0) {
+                    continue;
+                }
+                if (threadCount > maxCores) {
+                    System.out.println("Warning: Job type " + jobType.getTypeName() + " requires " + threadCount
+                            + " job slots, but no node type has more than " + maxCores + " cores.");
+                }
+
+                weights.merge(threadCount, jobType.getRelativeFrequency() * sample.getValue(), Double::sum);
+            }
+        }
+
+        if (includeAllThreadCounts || weights.isEmpty()) {
+            for (int i = 1; i <= maxCores; i++) {
+                weights.putIfAbsent(i, 0.0);
+            }
+        }
+
+        List<Integer> threadCounts = new ArrayList<>(weights.keySet());
+        threadCounts.sort((a, b) -> {
+            int byWeight = Double.compare(weights.get(b), weights.get(a));
+            return byWeight != 0 ? byWeight : Integer.compare(a, b);
+        });
+        return threadCounts;
+    }
+
     /**
      * Complete the system model by connecting roles and interfaces associated to the inserted job
      * types from the repository model.
@@ -339,21 +597,30 @@ public class WLCGModelConstructor {
     private void completeSystemModel(org.palladiosimulator.pcm.system.System system, List<JobTypeDescription> jobs,
             MonitorRepository monitorRepo, MeasuringPointRepository measuringPointRepo) {
 
-        List<AssemblyContext> systemAssemblies = system.getAssemblyContexts__ComposedStructure();
-        AssemblyContext computeAssembly = ModelConstructionUtils.findObjectWithId(systemAssemblies,
-                COMPUTE_ASSEMBLY_CONTEXT_SYSTEM);
+        AssemblyContext computeAssembly = findBlueprintObject(system, COMPUTE_ASSEMBLY_CONTEXT_SYSTEM,
+                AssemblyContext.class);
 
         // Used later to connect interfaces with usage model
         this.computeJobAssembly = computeAssembly;
 
+        // Find the original monitor from the monitoring repository
+        Monitor blueprintSystemMonitor = findBlueprintObject(monitorRepo, BLUEPRINT_SYSTEM_OPERATION_MONITOR,
+                Monitor.class);
+
+        if (blueprintSystemMonitor == null) {
+            throw new IllegalArgumentException("Invalid monitor repository, missing system operation monitor.");
+        }
+
         for (JobTypeDescription jobDescription : jobs) {
             String jobTypeName = jobDescription.getTypeName();
+            String path = jobTypePath(jobTypeName);
 
             OperationInterface jobInterface = jobInterfaces.get(jobTypeName);
             OperationProvidedRole assemblyProvidedRole = providedRolesComputeJobAssembly.get(jobTypeName);
 
             // Create new system provided role and add to system model
             OperationProvidedRole role = RepositoryFactory.eINSTANCE.createOperationProvidedRole();
+            ModelConstructionUtils.setDeterministicID(role, path + "/systemProvidedRole");
             role.setEntityName("provided_role_system_" + jobTypeName);
             role.setProvidedInterface__OperationProvidedRole(jobInterface);
 
@@ -364,6 +631,7 @@ public class WLCGModelConstructor {
 
             SystemOperationMeasuringPoint systemOperationMp = PcmmeasuringpointFactory.eINSTANCE
                     .createSystemOperationMeasuringPoint();
+            ModelConstructionUtils.setDeterministicID(systemOperationMp, path + "/systemOperationMeasuringPoint");
             systemOperationMp.setOperationSignature(this.jobSignatures.get(jobTypeName));
             systemOperationMp.setRole(role);
             systemOperationMp.setSystem(system);
@@ -371,30 +639,27 @@ public class WLCGModelConstructor {
             systemOperationMp.setMeasuringPointRepository(measuringPointRepo);
 
             // Create corresponding monitor
-
-            // Find the original monitor from the monitoring repository
-            List<Monitor> monitors = monitorRepo.getMonitors();
-            Monitor blueprintSystemMonitor = ModelConstructionUtils.findObjectWithId(monitors,
-                    "systemOperationMonitor");
-
-            if (blueprintSystemMonitor == null) {
-                throw new IllegalArgumentException("Invalid monitor repository, missing system operation monitor.");
-            }
-
             Monitor duplicatedSystemMonitor = ModelConstructionUtils.copyAppendIds(blueprintSystemMonitor, jobTypeName);
 
             String systemMonitorName = MessageFormat.format("Response Time Monitor System Operation {0}", jobTypeName);
             duplicatedSystemMonitor.setEntityName(systemMonitorName);
+            this.options.getMonitorAggregation(MonitorKind.SYSTEM_OPERATION).applyTo(duplicatedSystemMonitor,
+                    path + "/systemOperationMonitor");
 
             addMonitorToModel(measuringPointRepo, monitorRepo, systemOperationMp, duplicatedSystemMonitor);
+            this.metrics.count(PHASE_SYSTEM, "measuringPoints", 1);
+            this.metrics.count(PHASE_SYSTEM, "monitors", 1);
 
             ProvidedDelegationConnector connector = CompositionFactory.eINSTANCE.createProvidedDelegationConnector();
+            ModelConstructionUtils.setDeterministicID(connector, path + "/systemDelegationConnector");
             connector.setOuterProvidedRole_ProvidedDelegationConnector(role);
             connector.setInnerProvidedRole_ProvidedDelegationConnector(assemblyProvidedRole);
             connector.setAssemblyContext_ProvidedDelegationConnector(computeAssembly);
 
             // Add connector to system model
             connector.setParentStructure__Connector(system);
+            this.metrics.count(PHASE_SYSTEM, "elementsCreated", countElements(role, systemOperationMp,
+                    duplicatedSystemMonitor, connector));
         }
     }
 
@@ -414,9 +679,7 @@ public class WLCGModelConstructor {
     private void completeResourceEnvironment(ResourceEnvironment resEnv, List<NodeTypeDescription> nodes,
             MonitorRepository monitorRepo, MeasuringPointRepository measuringPointRepo) {
 
-        List<ResourceContainer> resourceContainers = resEnv.getResourceContainer_ResourceEnvironment();
-        ResourceContainer blueprintContainer = ModelConstructionUtils.findObjectWithId(resourceContainers,
-                BLUEPRINT_NODE);
+        ResourceContainer blueprintContainer = findBlueprintObject(resEnv, BLUEPRINT_NODE, ResourceContainer.class);
 
         if (blueprintContainer == null) {
             throw new IllegalArgumentException(
@@ -438,87 +701,167 @@ public class WLCGModelConstructor {
         }
 
         // Find the original monitor from the monitoring repository
-        List<Monitor> allMonitors = monitorRepo.getMonitors();
-        Monitor blueprintCpuMonitor = ModelConstructionUtils.findObjectWithId(allMonitors, BLUEPRINT_CPU_MONITOR);
+        Monitor blueprintCpuMonitor = findBlueprintObject(monitorRepo, BLUEPRINT_CPU_MONITOR, Monitor.class);
 
         if (blueprintCpuMonitor == null) {
             throw new IllegalArgumentException("Invalid monitor repository, missing CPU resource monitor.");
         }
 
-        Monitor blueprintResponseTimeMonitor = ModelConstructionUtils.findObjectWithId(allMonitors,
-                BLUEPRINT_SYSTEM_CALL_MONITOR);
+        ProcessingResourceSpecification blueprintCpuSpec = findBlueprintObject(resEnv, BLUEPRINT_CPU,
+                ProcessingResourceSpecification.class);
 
-        if (blueprintResponseTimeMonitor == null) {
-            throw new IllegalArgumentException("Invalid monitor repository, missing entry level system call monitor.");
+        ProcessingResourceSpecification blueprintHddSpec = findBlueprintObject(resEnv, BLUEPRINT_HDD,
+                ProcessingResourceSpecification.class);
+
+        if (blueprintCpuSpec == null || blueprintHddSpec == null) {
+            throw new IllegalArgumentException("Invalid resource environment model, missing blueprint resources.");
         }
 
-        for (NodeTypeDescription nodeType : nodes) {
-            String nodeTypeName = nodeType.getName();
+        // Resolve all references of the blueprint elements up front. Copying them afterwards does
+        // not modify the blueprint, so node types can be built concurrently.
+        EcoreUtil.resolveAll(blueprintContainer);
+        EcoreUtil.resolveAll(blueprintCpuMonitor);
+
+        // Build the resource containers and their monitoring independently of each other
+        Map<NodeTypeDescription, String> paths = nodeTypePaths(nodes);
+        List<NodeTypeParts> nodeTypes = ParallelExecutionHelper.mapOrdered(nodes, nodeType -> {
+            try (ConstructionMetrics.Timer timer = this.metrics.time(PHASE_RESOURCE_ENVIRONMENT,
+                    nodeType.getName())) {
+                return buildNodeType(nodeType, paths.get(nodeType), blueprintContainer, blueprintCpuSpec,
+                        blueprintHddSpec, blueprintCpuMonitor);
+            }
+        }, this.options.getEffectiveParallelism());
 
-            ResourceContainer newNode = EcoreUtil.copy(blueprintContainer);
+        // Add them to the models in a single thread
+        for (NodeTypeParts nodeTypeParts : nodeTypes) {
+            NodeTypeDescription nodeType = nodeTypeParts.nodeType;
+            ResourceContainer newNode = nodeTypeParts.container;
 
-            newNode.setEntityName(nodeTypeName);
+            // Add new measuring points and monitors for the new resource
+            for (ActiveResourceMeasuringPoint point : nodeTypeParts.measuringPoints) {
+                point.setMeasuringPointRepository(measuringPointRepo);
+            }
 
-            List<ProcessingResourceSpecification> resourceSpecs = newNode
-                    .getActiveResourceSpecifications_ResourceContainer();
+            for (Monitor monitor : nodeTypeParts.monitors) {
+                monitor.setMonitorRepository(monitorRepo);
+            }
 
-            ProcessingResourceSpecification cpuResourceSpec = ModelConstructionUtils.findObjectWithId(resourceSpecs,
-                    BLUEPRINT_CPU);
+            // Add new resource container to tracked resource containers
+            this.resourceContainerTypes.add(newNode);
 
-            ProcessingResourceSpecification hddResourceSpec = ModelConstructionUtils.findObjectWithId(resourceSpecs,
-                    BLUEPRINT_HDD);
+            // Add new node to resource environment
+            newNode.setResourceEnvironment_ResourceContainer(resEnv);
 
-            // Set CPU properties
-            cpuResourceSpec.setNumberOfReplicas(nodeType.getCores());
+            // Add stereotypes for Architectural Template Application
+            // This needs to be done last so that the new node is already included in a
+            // resource
+            StereotypeAPI.applyStereotype(newNode, loadBalancedResourceContainerStereotype);
+            StereotypeAPI.applyStereotype(newNode, middlewareHostStereotype);
 
-            PCMRandomVariable processingRate = CoreFactory.eINSTANCE.createPCMRandomVariable();
-            processingRate.setSpecification(String.valueOf(nodeType.getComputingRate()));
+            // Set duplication number and capacity to correct values. Pre-expanded node types
+            // consist of single node replicas. They keep the load balancing stereotype, as the
+            // load balancer the template adds to the system at simulation start distributes the
+            // jobs over the containers carrying it.
+            applyNodeTypeTaggedValues(newNode, nodeType,
+                    this.options.getExpandReplicas() ? Math.min(1, nodeType.getNodeCount()) : nodeType.getNodeCount());
+
+            // Add the pre-expanded replicas in the same way, each of them is a single node
+            for (ResourceContainer replica : nodeTypeParts.replicas) {
+                this.resourceContainerTypes.add(replica);
+                replica.setResourceEnvironment_ResourceContainer(resEnv);
+                StereotypeAPI.applyStereotype(replica, loadBalancedResourceContainerStereotype);
+                StereotypeAPI.applyStereotype(replica, middlewareHostStereotype);
+                applyNodeTypeTaggedValues(replica, nodeType, 1);
+                this.metrics.count(PHASE_RESOURCE_ENVIRONMENT, "elementsCreated", countElements(replica));
+            }
+            this.metrics.count(PHASE_RESOURCE_ENVIRONMENT, "replicas", nodeTypeParts.replicas.size());
 
-            cpuResourceSpec.setProcessingRate_ProcessingResourceSpecification(processingRate);
+            this.metrics.count(PHASE_RESOURCE_ENVIRONMENT, "measuringPoints", nodeTypeParts.measuringPoints.size());
+            this.metrics.count(PHASE_RESOURCE_ENVIRONMENT, "monitors", nodeTypeParts.monitors.size());
+            this.metrics.count(PHASE_RESOURCE_ENVIRONMENT, "elementsCreated", countElements(newNode)
+                    + countElements(nodeTypeParts.measuringPoints) + countElements(nodeTypeParts.monitors));
+        }
+        this.metrics.count(PHASE_RESOURCE_ENVIRONMENT, "nodeTypes", nodeTypes.size());
+    }
 
-            // Set I/O properties
-            int ioReplicas = 1;
-            if (DUPLICATE_IO) {
-                ioReplicas = nodeType.getJobslots();
-            }
-            hddResourceSpec.setNumberOfReplicas(ioReplicas);
+    /**
+     * Build a new resource container from a node type description, together with the measuring
+     * points and monitors for its CPU according to the monitoring granularity and, if replicas are
+     * expanded at construction time, a copy of the container for every further node. The created
+     * elements are not connected to any model yet and do not modify the blueprint, so this method
+     * can be called concurrently for different node types.
+     *
+     * @param nodeType
+     *            The node type description the new resource container should be based on.
+     * @param path
+     *            The path the IDs of the new model elements are derived from, see
+     *            {@link #nodeTypePaths(List)}.
+     * @param blueprintContainer
+     *            The blueprint resource container to be copied.
+     * @param blueprintCpuSpec
+     *            The CPU resource specification of the blueprint container.
+     * @param blueprintHddSpec
+     *            The HDD resource specification of the blueprint container.
+     * @param blueprintCpuMonitor
+     *            The blueprint monitor used to duplicate CPU monitors.
+     * @return The detached model elements for the node type.
+     */
+    private NodeTypeParts buildNodeType(NodeTypeDescription nodeType, String path,
+            ResourceContainer blueprintContainer, ProcessingResourceSpecification blueprintCpuSpec,
+            ProcessingResourceSpecification blueprintHddSpec, Monitor blueprintCpuMonitor) {
 
-            PCMRandomVariable processingRateHDD = CoreFactory.eINSTANCE.createPCMRandomVariable();
+        String nodeTypeName = nodeType.getName();
 
-            int ioRate = 1;
-            if (FAST_IO) {
-                ioRate = nodeType.getJobslots();
-            }
-            processingRateHDD.setSpecification(String.valueOf(ioRate));
+        // Copy the blueprint node, all IDs for the copied objects are changed to avoid conflicts.
+        // The new IDs are derived from the node type path, so they are the same in every build.
+        IdMappingCopier copier = new IdMappingCopier(IdMappingCopier.deterministicIds(path));
+        ResourceContainer newNode = copier.copyWithReferences(blueprintContainer);
+        this.metrics.count(PHASE_RESOURCE_ENVIRONMENT, "idsRewritten", copier.getAssignedIdCount());
 
-            hddResourceSpec.setProcessingRate_ProcessingResourceSpecification(processingRateHDD);
-            hddResourceSpec.setResourceContainer_ProcessingResourceSpecification(newNode);
+        newNode.setEntityName(nodeTypeName);
 
-            // Add new measuring points for the new resource
-            addMeasuringpointsAndMonitors(measuringPointRepo, monitorRepo, cpuResourceSpec, blueprintCpuMonitor,
-                    nodeTypeName);
+        NodeTypeParts parts = new NodeTypeParts(nodeType, path, newNode);
 
-            // Change all IDs for the copied objects to avoid conflicts
-            ModelConstructionUtils.setRandomIDsRecursively(newNode);
+        ProcessingResourceSpecification cpuResourceSpec = (ProcessingResourceSpecification) copier
+                .get(blueprintCpuSpec);
 
-            // Add new resource container to tracked resource containers
-            this.resourceContainerTypes.add(newNode);
+        ProcessingResourceSpecification hddResourceSpec = (ProcessingResourceSpecification) copier
+                .get(blueprintHddSpec);
 
-            // Add new node to resource environment
-            newNode.setResourceEnvironment_ResourceContainer(resEnv);
+        // Set CPU and I/O properties
+        configureCpuSpecification(cpuResourceSpec, nodeType);
+        configureHddSpecification(hddResourceSpec, nodeType);
 
-            // Add stereotypes for Architectural Template Application
-            // This needs to be done last so that the new node is already included in a
-            // resource
-            StereotypeAPI.applyStereotype(newNode, loadBalancedResourceContainerStereotype);
+        hddResourceSpec.setResourceContainer_ProcessingResourceSpecification(newNode);
 
-            // Set duplication number to correct value
-            StereotypeAPI.setTaggedValue(newNode, nodeType.getNodeCount(), "StaticLoadbalancedResourceContainer",
-                    "numberOfReplicas");
+        // Copy the configured node for every further replica. The replica IDs are derived from the
+        // IDs of the node type, so the replicas are the same every time the node type is built.
+        if (this.options.getExpandReplicas()) {
+            for (int replica = 1; replica < nodeType.getNodeCount(); replica++) {
+                IdMappingCopier replicaCopier = new IdMappingCopier(
+                        IdMappingCopier.appendToIds(REPLICA_SUFFIX + replica));
+                ResourceContainer replicaNode = replicaCopier.copyWithReferences(newNode);
+                replicaNode.setEntityName(nodeTypeName + REPLICA_SUFFIX + replica);
+                parts.replicas.add(replicaNode);
+                this.metrics.count(PHASE_RESOURCE_ENVIRONMENT, "idsRewritten", replicaCopier.getAssignedIdCount());
+            }
+        }
 
-            StereotypeAPI.applyStereotype(newNode, middlewareHostStereotype);
-            StereotypeAPI.setTaggedValue(newNode, nodeType.getJobslots(), "MiddlewareHost", "capacity");
+        // Create new measuring points for the new resource. Pre-expanded replicas are not
+        // monitored, so the number of measurement streams does not grow with the node count.
+        switch (this.options.getMonitoringGranularity()) {
+        case PER_CORE:
+            buildMeasuringpointsAndMonitors(parts, cpuResourceSpec, blueprintCpuMonitor, nodeTypeName);
+            break;
+        case AGGREGATED:
+            buildUtilizationMeasuringpointAndMonitor(parts, cpuResourceSpec, blueprintCpuMonitor, nodeTypeName);
+            break;
+        case NONE:
+        default:
+            break;
         }
+
+        return parts;
     }
 
     /**
@@ -541,16 +884,7 @@ public class WLCGModelConstructor {
     private void completeUsageModel(UsageModel usageModel, List<JobTypeDescription> jobs, Monitor responseTimeMonitor,
             MonitorRepository monitorRepo, MeasuringPointRepository measuringpointRepo) {
 
-        List<UsageScenario> usageScenarios = usageModel.getUsageScenario_UsageModel();
-        UsageScenario blueprintUsageScenario = ModelConstructionUtils.findObjectWithId(usageScenarios,
-                BLUEPRINT_USAGE_SCENARIO);
-
-        EObject jobtypeBranchObject = ModelConstructionUtils.findObjectWithIdRecursively(blueprintUsageScenario,
-                BLUEPRINT_USAGEMODEL_BRANCH_JOBTYPE);
-        Branch jobtypeBranch = null;
-        if (jobtypeBranchObject instanceof Branch) {
-            jobtypeBranch = (Branch) jobtypeBranchObject;
-        }
+        Branch jobtypeBranch = findBlueprintObject(usageModel, BLUEPRINT_USAGEMODEL_BRANCH_JOBTYPE, Branch.class);
 
         if (jobtypeBranch == null) {
             throw new IllegalArgumentException("Invalid Usage Model: Could not find job type branch!");
@@ -565,25 +899,28 @@ public class WLCGModelConstructor {
         }
         blueprintTransition = blueprintTransitionList.get(0);
 
+        ScenarioBehaviour blueprintBehaviour = blueprintTransition.getBranchedBehaviour_BranchTransition();
+        if (blueprintBehaviour == null) {
+            throwNewInvalidModelException("Usage Model", "Could not find branched scenario behaviour!");
+        }
+
+        EntryLevelSystemCall blueprintSystemCall = findBlueprintObject(usageModel, BLUEPRINT_ENTRY_LEVEL_SYSTEM_CALL,
+                EntryLevelSystemCall.class);
+        if (blueprintSystemCall == null) {
+            throwNewInvalidModelException("Usage Model", "Could not find entry level system call!");
+        }
+
         for (JobTypeDescription jobType : jobs) {
             String jobTypeName = jobType.getTypeName();
 
-            BranchTransition newTransition = EcoreUtil.copy(blueprintTransition);
+            // Copy the branch transition, this also changes all IDs for the new branch transition
+            IdMappingCopier copier = new IdMappingCopier(IdMappingCopier.appendToIds(jobTypeName));
+            BranchTransition newTransition = copier.copyWithReferences(blueprintTransition);
 
             // Set correct branch probability
             newTransition.setBranchProbability(jobType.getRelativeFrequency());
 
-            ScenarioBehaviour blueprintBehaviour = blueprintTransition.getBranchedBehaviour_BranchTransition();
-            if (blueprintBehaviour == null) {
-                throwNewInvalidModelException("Usage Model", "Could not find branched scenario behaviour!");
-            }
-
-            EObject systemCallObject = ModelConstructionUtils.findObjectWithIdRecursively(newTransition,
-                    BLUEPRINT_ENTRY_LEVEL_SYSTEM_CALL);
-            EntryLevelSystemCall systemCall = null;
-            if (systemCallObject instanceof EntryLevelSystemCall) {
-                systemCall = (EntryLevelSystemCall) systemCallObject;
-            }
+            EntryLevelSystemCall systemCall = (EntryLevelSystemCall) copier.get(blueprintSystemCall);
 
             systemCall.setOperationSignature__EntryLevelSystemCall(jobSignatures.get(jobTypeName));
             systemCall.setProvidedRole_EntryLevelSystemCall(providedRolesSystem.get(jobTypeName));
@@ -595,10 +932,11 @@ public class WLCGModelConstructor {
             // addSystemCallMonitor(measuringpointRepo, monitorRepo, systemCall,
             // responseTimeMonitor, jobTypeName);
 
-            // Change all IDs for the new branch transition
-            ModelConstructionUtils.appendIDsRecursively(newTransition, jobTypeName);
-
             newTransition.setBranch_BranchTransition(jobtypeBranch);
+
+            this.metrics.count(PHASE_USAGE_MODEL, "branchTransitions", 1);
+            this.metrics.count(PHASE_USAGE_MODEL, "idsRewritten", copier.getAssignedIdCount());
+            this.metrics.count(PHASE_USAGE_MODEL, "elementsCreated", countElements(newTransition));
         }
 
         // Remove blueprint branch transition from the usage model. This is important to not alter
@@ -606,23 +944,102 @@ public class WLCGModelConstructor {
         blueprintTransition.setBranch_BranchTransition(null);
     }
 
+    /**
+     * Set the number of cores and the processing rate of a CPU resource specification according to
+     * a node type description.
+     *
+     * @param cpuResourceSpec
+     *            The CPU resource specification to configure.
+     * @param nodeType
+     *            The node type description containing the CPU properties.
+     */
+    static void configureCpuSpecification(ProcessingResourceSpecification cpuResourceSpec,
+            NodeTypeDescription nodeType) {
+
+        cpuResourceSpec.setNumberOfReplicas(nodeType.getCores());
+
+        PCMRandomVariable processingRate = CoreFactory.eINSTANCE.createPCMRandomVariable();
+        processingRate.setSpecification(String.valueOf(nodeType.getComputingRate()));
+
+        cpuResourceSpec.setProcessingRate_ProcessingResourceSpecification(processingRate);
+    }
+
+    /**
+     * Set the number of replicas and the processing rate of a HDD resource specification according
+     * to a node type description.
+     *
+     * @param hddResourceSpec
+     *            The HDD resource specification to configure.
+     * @param nodeType
+     *            The node type description containing the I/O properties.
+     */
+    static void configureHddSpecification(ProcessingResourceSpecification hddResourceSpec,
+            NodeTypeDescription nodeType) {
+
+        int ioReplicas = 1;
+        if (DUPLICATE_IO) {
+            ioReplicas = nodeType.getJobslots();
+        }
+        hddResourceSpec.setNumberOfReplicas(ioReplicas);
+
+        PCMRandomVariable processingRateHDD = CoreFactory.eINSTANCE.createPCMRandomVariable();
+
+        int ioRate = 1;
+        if (FAST_IO) {
+            ioRate = nodeType.getJobslots();
+        }
+        processingRateHDD.setSpecification(String.valueOf(ioRate));
+
+        hddResourceSpec.setProcessingRate_ProcessingResourceSpecification(processingRateHDD);
+    }
+
+    /**
+     * Set the tagged values of the load balancing and middleware stereotypes of a resource container
+     * according to a node type description. The stereotypes must already be applied.
+     *
+     * @param container
+     *            The resource container the tagged values are set on.
+     * @param nodeType
+     *            The node type description containing the node count and number of job slots.
+     */
+    static void applyNodeTypeTaggedValues(ResourceContainer container, NodeTypeDescription nodeType) {
+        applyNodeTypeTaggedValues(container, nodeType, nodeType.getNodeCount());
+    }
+
+    /**
+     * Set the tagged values of the load balancing and middleware stereotypes of a resource container
+     * with a given number of replicas. The stereotypes must already be applied.
+     *
+     * @param container
+     *            The resource container the tagged values are set on.
+     * @param nodeType
+     *            The node type description containing the number of job slots.
+     * @param replicas
+     *            The number of replicas the container is expanded to when the simulation starts.
+     */
+    static void applyNodeTypeTaggedValues(ResourceContainer container, NodeTypeDescription nodeType,
+            int replicas) {
+        StereotypeAPI.setTaggedValue(container, replicas, "StaticLoadbalancedResourceContainer",
+                "numberOfReplicas");
+        StereotypeAPI.setTaggedValue(container, nodeType.getJobslots(), "MiddlewareHost", "capacity");
+    }
+
     /**
      * Duplicate the measuring points and monitors for each core of the provided processing spec.
+     * The new elements are collected in the node type parts and not yet added to any repository.
      *
-     * @param measuringPointRepo
-     *            The repository the duplicated measuring point should be inserted into.
-     * @param monitorRepo
-     *            The repository the duplicated monitors should be inserted into.
+     * @param parts
+     *            The node type parts the created measuring points and monitors are added to.
      * @param processingSpec
      *            The processing spec to be equipped with measuring points and monitors.
      * @param originalMonitor
      *            The blueprint monitor used to duplicate monitors.
      * @param additionalSuffix
-     *            An additional suffix to be included in the IDs of the duplicated monitors.
+     *            An additional suffix to be included in the names of the duplicated monitors. Their
+     *            IDs are derived from the path of the node type parts.
      */
-    private void addMeasuringpointsAndMonitors(MeasuringPointRepository measuringPointRepo,
-            MonitorRepository monitorRepo, ProcessingResourceSpecification processingSpec, Monitor originalMonitor,
-            String additionalSuffix) {
+    private void buildMeasuringpointsAndMonitors(NodeTypeParts parts, ProcessingResourceSpecification processingSpec,
+            Monitor originalMonitor, String additionalSuffix) {
 
         if (additionalSuffix == null) {
             additionalSuffix = "";
@@ -634,25 +1051,82 @@ public class WLCGModelConstructor {
         for (int i = 0; i < coreCount; i++) {
             ActiveResourceMeasuringPoint point = PcmmeasuringpointFactory.eINSTANCE
                     .createActiveResourceMeasuringPoint();
+            ModelConstructionUtils.setDeterministicID(point, parts.path + "/core" + i + "/measuringPoint");
             point.setActiveResource(processingSpec);
             point.setReplicaID(i);
-            point.setMeasuringPointRepository(measuringPointRepo);
+            parts.measuringPoints.add(point);
 
             // Add a monitor for each new measuring point
-            Monitor duplicatedMonitor = ModelConstructionUtils.copyAppendIds(originalMonitor,
-                    "_" + additionalSuffix + "_core" + i);
+            String monitorPath = parts.path + "/core" + i + "/monitor";
+            Monitor duplicatedMonitor = ModelConstructionUtils.copyChangeIds(originalMonitor, monitorPath);
 
             duplicatedMonitor.setMeasuringPoint(point);
-            duplicatedMonitor.setMonitorRepository(monitorRepo);
 
             String monitorName = MessageFormat.format("CPU Monitor {0} (core {1})", additionalSuffix, i);
             duplicatedMonitor.setEntityName(monitorName);
+            this.options.getMonitorAggregation(MonitorKind.CPU).applyTo(duplicatedMonitor, monitorPath);
 
             duplicatedMonitor.setActivated(true);
+            parts.monitors.add(duplicatedMonitor);
         }
 
     }
 
+    /**
+     * Create a single measuring point and monitor that record the overall utilization of the
+     * provided processing spec, i.e. the utilization averaged over all of its cores. The utilization
+     * is recorded in time windows instead of recording every state change of each core. Of
+     * pre-expanded replicas, only the first node is monitored.
+     * The new elements are collected in the node type parts and not yet added to any repository.
+     *
+     * @param parts
+     *            The node type parts the created measuring point and monitor are added to.
+     * @param processingSpec
+     *            The processing spec to be equipped with a measuring point and monitor.
+     * @param originalMonitor
+     *            The blueprint monitor used to duplicate the monitor.
+     * @param additionalSuffix
+     *            An additional suffix to be included in the name of the duplicated monitor. Its IDs
+     *            are derived from the path of the node type parts.
+     */
+    private void buildUtilizationMeasuringpointAndMonitor(NodeTypeParts parts,
+            ProcessingResourceSpecification processingSpec, Monitor originalMonitor, String additionalSuffix) {
+
+        if (additionalSuffix == null) {
+            additionalSuffix = "";
+        }
+
+        ActiveResourceMeasuringPoint point = PcmmeasuringpointFactory.eINSTANCE.createActiveResourceMeasuringPoint();
+        ModelConstructionUtils.setDeterministicID(point, parts.path + "/utilizationMeasuringPoint");
+        point.setActiveResource(processingSpec);
+        // The overall metric covers all cores, the replica ID only identifies the resource
+        point.setReplicaID(0);
+        parts.measuringPoints.add(point);
+
+        Monitor duplicatedMonitor = ModelConstructionUtils.copyChangeIds(originalMonitor,
+                parts.path + "/utilizationMonitor");
+
+        // Replace the per-core state measurements of the blueprint monitor by the overall
+        // utilization of the resource
+        duplicatedMonitor.getMeasurementSpecifications().clear();
+
+        TimeDriven window = MonitorRepositoryFactory.eINSTANCE.createTimeDriven();
+        window.setWindowLength(this.options.getUtilizationWindowLength());
+        window.setWindowIncrement(this.options.getUtilizationWindowLength());
+
+        MeasurementSpecification utilization = MonitorRepositoryFactory.eINSTANCE.createMeasurementSpecification();
+        utilization.setMetricDescription(MetricDescriptionConstants.OVERALL_UTILIZATION_OF_ACTIVE_RESOURCE_TUPLE);
+        utilization.setProcessingType(window);
+        ModelConstructionUtils.setDeterministicIDsRecursively(utilization, parts.path + "/utilizationSpecification");
+        duplicatedMonitor.getMeasurementSpecifications().add(utilization);
+
+        duplicatedMonitor.setMeasuringPoint(point);
+        duplicatedMonitor.setEntityName(MessageFormat.format("CPU Utilization Monitor {0}", additionalSuffix));
+
+        duplicatedMonitor.setActivated(true);
+        parts.monitors.add(duplicatedMonitor);
+    }
+
     /**
      * Add a monitor and corresponding measuring point for the provided External Call Action.
      *
@@ -679,6 +1153,7 @@ public class WLCGModelConstructor {
         // Add a new measuring point for the external call
         ExternalCallActionMeasuringPoint point = PcmmeasuringpointFactory.eINSTANCE
                 .createExternalCallActionMeasuringPoint();
+        ModelConstructionUtils.setDeterministicID(point, jobTypePath(additionalSuffix) + "/externalCallMeasuringPoint");
         point.setExternalCall(externalCall);
         point.setMeasuringPointRepository(measuringPointRepo);
 
@@ -689,8 +1164,14 @@ public class WLCGModelConstructor {
         duplicatedMonitor.setMonitorRepository(monitorRepo);
 
         duplicatedMonitor.setEntityName("Job Response Time Monitor " + additionalSuffix);
+        this.options.getMonitorAggregation(MonitorKind.EXTERNAL_CALL).applyTo(duplicatedMonitor,
+                jobTypePath(additionalSuffix) + "/externalCallMonitor");
 
         duplicatedMonitor.setActivated(true);
+
+        this.metrics.count(PHASE_MONITORS, "measuringPoints", 1);
+        this.metrics.count(PHASE_MONITORS, "monitors", 1);
+        this.metrics.count(PHASE_MONITORS, "elementsCreated", countElements(point, duplicatedMonitor));
     }
 
     /**
@@ -717,68 +1198,101 @@ public class WLCGModelConstructor {
     }
 
     /**
-     * Build a new basic component from a job type description, include it in a composite compute
-     * component and add it to a repository model.
+     * Get the specifications of the component parameters of a job component, in the order they are
+     * added to the component.
+     *
+     * @param jobType
+     *            The job type description containing the parameter values.
+     * @return A map from component parameter names to their stochastic expressions.
+     */
+    static Map<String, String> componentParameterSpecifications(JobTypeDescription jobType) {
+        Map<String, String> parameters = new LinkedHashMap<>();
+        parameters.put("CPU_DEMAND", jobType.getCpuDemandStoEx());
+        parameters.put("IO_RATIO", jobType.getIoTimeRatioStoEx());
+        parameters.put("IO_DEMAND", jobType.getIoTimeStoEx());
+        parameters.put("RESOURCE_DEMAND_ROUNDS", jobType.getResourceDemandRounds());
+        return parameters;
+    }
+
+    /**
+     * Get the specification of the I/O demand parameter set on the assembly context of a job
+     * component. Depending on the job type, the I/O demand is either derived from the CPU demand or
+     * specified directly.
+     *
+     * @param jobType
+     *            The job type description.
+     * @return The stochastic expression for the I/O demand.
+     */
+    static String ioDemandSpecification(JobTypeDescription jobType) {
+        if (jobType.getUseIoRatio()) {
+            return "IO_RATIO.VALUE * CPU_DEMAND.VALUE";
+        } else {
+            return "IO_DEMAND.VALUE";
+        }
+    }
+
+    /**
+     * Set the tagged values of the middleware dependency stereotype of a job component according to
+     * a job type description. The stereotype must already be applied.
+     *
+     * @param component
+     *            The job component the tagged values are set on.
+     * @param jobType
+     *            The job type description containing the number of required resources and the
+     *            scheduling delay.
+     */
+    static void applyJobTypeTaggedValues(BasicComponent component, JobTypeDescription jobType) {
+        StereotypeAPI.setTaggedValue(component, jobType.getRequiredJobslotsStoEx(), "MiddlewareDependency",
+                "numberRequiredResources");
+        StereotypeAPI.setTaggedValue(component, jobType.getSchedulingDelay(), "MiddlewareDependency",
+                "schedulingDelay");
+    }
+
+    /**
+     * Build a new basic component from a job type description, together with its interface, roles,
+     * SEFF and the assembly context and connectors needed to include it in the composite compute
+     * component. The created elements are not connected to any model yet and do not modify the
+     * blueprint, so this method can be called concurrently for different job types.
      *
-     * @param repository
-     *            The repository model the component should be added to.
      * @param jobType
      *            The job type description the new component should be based on.
      * @param blueprintSeff
      *            The SEFF to be included in the component.
-     * @param computeJob
-     *            The composite compute component the basic component role should be added to.
-     * @param stereotypeToApply
-     *            A stereotype to be added to the component. No stereotype will be added if this is
-     *            null.
-     * @param requiredJobInterface
-     *            The job component interface that is required in this component.
-     * @param gridJobProvidedRole
-     *            The provided role for the GridJob component that is used to execute this job's
-     *            resource demands.
-     * @return A new basic component created from the job type description.
+     * @param blueprintExternalCall
+     *            The external call in the blueprint SEFF that calls the GridJob component.
+     * @return The detached model elements for the job type.
      */
-    private BasicComponent buildAndAddJobComponentWithProvidedInterface(Repository repository,
-            JobTypeDescription jobType, ResourceDemandingSEFF blueprintSeff, CompositeComponent computeJob,
-            Stereotype stereotypeToApply, OperationInterface requiredJobInterface,
-            OperationProvidedRole gridJobProvidedRole) {
+    private JobComponentParts buildJobComponent(JobTypeDescription jobType, ResourceDemandingSEFF blueprintSeff,
+            ExternalCallAction blueprintExternalCall) {
 
-        BasicComponent component = RepositoryFactory.eINSTANCE.createBasicComponent();
+        JobComponentParts parts = new JobComponentParts(jobType);
 
         String jobTypeName = jobType.getTypeName();
+        String path = jobTypePath(jobTypeName);
 
-        component.setEntityName(jobTypeName);
-        repository.getComponents__Repository().add(component);
-
-        if (stereotypeToApply != null) {
-            StereotypeAPI.applyStereotype(component, stereotypeToApply);
+        BasicComponent component = RepositoryFactory.eINSTANCE.createBasicComponent();
+        ModelConstructionUtils.setDeterministicID(component, path + "/component");
+        parts.component = component;
 
-            StereotypeAPI.setTaggedValue(component, jobType.getRequiredJobslotsStoEx(), "MiddlewareDependency",
-                    "numberRequiredResources");
-            StereotypeAPI.setTaggedValue(component, jobType.getSchedulingDelay(), "MiddlewareDependency",
-                    "schedulingDelay");
-        }
+        component.setEntityName(jobTypeName);
 
         // Create the interface with a single signature
         OperationInterface typeInterface = RepositoryFactory.eINSTANCE.createOperationInterface();
+        ModelConstructionUtils.setDeterministicID(typeInterface, path + "/interface");
         typeInterface.setEntityName("interface_" + jobTypeName);
-
-        // Add the interface to instance variable for later use
-        jobInterfaces.put(jobTypeName, typeInterface);
-
-        repository.getInterfaces__Repository().add(typeInterface);
+        parts.typeInterface = typeInterface;
 
         // Create a signature for the interface
         OperationSignature jobInterfaceSignature = RepositoryFactory.eINSTANCE.createOperationSignature();
+        ModelConstructionUtils.setDeterministicID(jobInterfaceSignature, path + "/signature");
         jobInterfaceSignature.setEntityName("run_" + jobTypeName);
-
-        // Store for later use in Usage Model
-        jobSignatures.put(jobTypeName, jobInterfaceSignature);
+        parts.signature = jobInterfaceSignature;
 
         typeInterface.getSignatures__OperationInterface().add(jobInterfaceSignature);
 
         // Set the interface for the job
         OperationProvidedRole opProvidedRole = RepositoryFactory.eINSTANCE.createOperationProvidedRole();
+        ModelConstructionUtils.setDeterministicID(opProvidedRole, path + "/providedRole");
         opProvidedRole.setEntityName("provided_role_component_" + jobTypeName);
 
         // Set the interface for the role
@@ -787,28 +1301,26 @@ public class WLCGModelConstructor {
         // Add the provided role to the component
         component.getProvidedRoles_InterfaceProvidingEntity().add(opProvidedRole);
 
-        // Add required role to the component
+        // Add required role to the component, its interface is set when adding it to the model
         OperationRequiredRole requiredRole = RepositoryFactory.eINSTANCE.createOperationRequiredRole();
+        ModelConstructionUtils.setDeterministicID(requiredRole, path + "/requiredRole");
         requiredRole.setEntityName("required_role_component_" + jobTypeName);
-
-        // Set the interface for the required role
-        requiredRole.setRequiredInterface__OperationRequiredRole(requiredJobInterface);
+        parts.requiredRole = requiredRole;
 
         // Add the required role to the component as well
         component.getRequiredRoles_InterfaceRequiringEntity().add(requiredRole);
 
-        ResourceDemandingSEFF seff = EcoreUtil.copy(blueprintSeff);
-        ExternalCallAction externalCall = (ExternalCallAction) ModelConstructionUtils
-                .findObjectWithId(seff.getSteps_Behaviour(), BLUEPRINT_JOB_EXTERNAL_CALL_ACTION);
+        // Copy the SEFF and change all IDs of the copy
+        IdMappingCopier copier = new IdMappingCopier(IdMappingCopier.appendToIds("_" + jobTypeName));
+        ResourceDemandingSEFF seff = copier.copyWithReferences(blueprintSeff);
+        ExternalCallAction externalCall = (ExternalCallAction) copier.get(blueprintExternalCall);
 
         // Set the correct role for the job component's external call to the generic grid job
         externalCall.setRole_ExternalService(requiredRole);
         externalCall.setEntityName("externalCallType_" + jobTypeName);
 
         // Save for duplicated monitors
-        this.externalCallActions.put(jobTypeName, externalCall);
-
-        ModelConstructionUtils.appendIDsRecursively(seff, "_" + jobTypeName);
+        parts.externalCall = externalCall;
 
         seff.setDescribedService__SEFF(jobInterfaceSignature);
 
@@ -816,73 +1328,121 @@ public class WLCGModelConstructor {
         component.getServiceEffectSpecifications__BasicComponent().add(seff);
 
         // Add variables to component
-        VariableUsage cpuVariableUsage = ModelConstructionUtils.createVariableUsageWithValue("CPU_DEMAND",
-                jobType.getCpuDemandStoEx());
-        component.getComponentParameterUsage_ImplementationComponentType().add(cpuVariableUsage);
-
-        VariableUsage ioTimeRatioUsage = ModelConstructionUtils.createVariableUsageWithValue("IO_RATIO",
-                jobType.getIoTimeRatioStoEx());
-        component.getComponentParameterUsage_ImplementationComponentType().add(ioTimeRatioUsage);
-
-        VariableUsage ioTimeVariableUsage = ModelConstructionUtils.createVariableUsageWithValue("IO_DEMAND",
-                jobType.getIoTimeStoEx());
-        component.getComponentParameterUsage_ImplementationComponentType().add(ioTimeVariableUsage);
-
-        VariableUsage resourceDemandRounds = ModelConstructionUtils
-                .createVariableUsageWithValue("RESOURCE_DEMAND_ROUNDS", jobType.getResourceDemandRounds());
-        component.getComponentParameterUsage_ImplementationComponentType().add(resourceDemandRounds);
-
-        // Add component to repository
-        repository.getComponents__Repository().add(component);
+        for (Map.Entry<String, String> parameter : componentParameterSpecifications(jobType).entrySet()) {
+            VariableUsage variableUsage = ModelConstructionUtils.createVariableUsageWithValue(parameter.getKey(),
+                    parameter.getValue());
+            component.getComponentParameterUsage_ImplementationComponentType().add(variableUsage);
+        }
 
-        // Add component to computing job component
+        // Create assembly context for the computing job component
         AssemblyContext assembly = CompositionFactory.eINSTANCE.createAssemblyContext();
+        ModelConstructionUtils.setDeterministicID(assembly, path + "/assemblyContext");
         assembly.setEncapsulatedComponent__AssemblyContext(component);
-        assembly.setParentStructure__AssemblyContext(computeJob);
-
         assembly.setEntityName("assembly_context_" + jobTypeName);
+        parts.assembly = assembly;
 
         // Add dependent parameter usage
-        VariableUsage ioFromRatioVariableUsage = null;
-        if (jobType.getUseIoRatio()) {
-            ioFromRatioVariableUsage = ModelConstructionUtils.createVariableUsageWithValue("IO_DEMAND_FROM_RATIO",
-                    "IO_RATIO.VALUE * CPU_DEMAND.VALUE");
-        } else {
-            ioFromRatioVariableUsage = ModelConstructionUtils.createVariableUsageWithValue("IO_DEMAND_FROM_RATIO",
-                    "IO_DEMAND.VALUE");
-
-        }
+        VariableUsage ioFromRatioVariableUsage = ModelConstructionUtils
+                .createVariableUsageWithValue(IO_DEMAND_FROM_RATIO_PARAMETER, ioDemandSpecification(jobType));
 
         assembly.getConfigParameterUsages__AssemblyContext().add((ioFromRatioVariableUsage));
 
         // Provided Role for the Composite Component (Computing Job)
         OperationProvidedRole compositeRole = RepositoryFactory.eINSTANCE.createOperationProvidedRole();
+        ModelConstructionUtils.setDeterministicID(compositeRole, path + "/compositeProvidedRole");
         compositeRole.setProvidedInterface__OperationProvidedRole(typeInterface);
         compositeRole.setEntityName("run_" + jobTypeName);
-        computeJob.getProvidedRoles_InterfaceProvidingEntity().add(compositeRole);
-
-        providedRolesComputeJobAssembly.put(jobTypeName, compositeRole);
+        parts.compositeRole = compositeRole;
 
         // Create connector between composite component and basic component
         ProvidedDelegationConnector connector = CompositionFactory.eINSTANCE.createProvidedDelegationConnector();
+        ModelConstructionUtils.setDeterministicID(connector, path + "/delegationConnector");
         connector.setAssemblyContext_ProvidedDelegationConnector(assembly);
         // opProvidedRole is the role associated with the basic compute job
         // (implementing the interface)
         connector.setInnerProvidedRole_ProvidedDelegationConnector(opProvidedRole);
         connector.setOuterProvidedRole_ProvidedDelegationConnector(compositeRole);
-        connector.setParentStructure__Connector(computeJob);
-
-        // Create connection between basic component and grid job component
-        List<AssemblyContext> computeJobAssemblies = computeJob.getAssemblyContexts__ComposedStructure();
-        AssemblyContext gridJobAssembly = ModelConstructionUtils.findObjectWithId(computeJobAssemblies,
-                BLUEPRINT_GRID_JOB_ASSEMBLY);
+        parts.delegationConnector = connector;
 
+        // Create connection between basic component and grid job component, the grid job side is
+        // connected when adding it to the model
         AssemblyConnector gridJobConnector = CompositionFactory.eINSTANCE.createAssemblyConnector();
-        gridJobConnector.setProvidedRole_AssemblyConnector(gridJobProvidedRole);
+        ModelConstructionUtils.setDeterministicID(gridJobConnector, path + "/gridJobConnector");
         gridJobConnector.setRequiredRole_AssemblyConnector(requiredRole);
+        gridJobConnector.setRequiringAssemblyContext_AssemblyConnector(assembly);
+        parts.gridJobConnector = gridJobConnector;
+
+        this.metrics.count(PHASE_REPOSITORY, "idsRewritten", copier.getAssignedIdCount());
+        this.metrics.count(PHASE_REPOSITORY, "elementsCreated", countElements(component, typeInterface, assembly,
+                compositeRole, connector, gridJobConnector));
 
+        return parts;
+    }
+
+    /**
+     * Add the model elements built for a job type to a repository model and include the new basic
+     * component in the composite compute component.
+     *
+     * @param repository
+     *            The repository model the component should be added to.
+     * @param parts
+     *            The model elements built for the job type.
+     * @param computeJob
+     *            The composite compute component the basic component role should be added to.
+     * @param stereotypeToApply
+     *            A stereotype to be added to the component. No stereotype will be added if this is
+     *            null.
+     * @param requiredJobInterface
+     *            The job component interface that is required in this component.
+     * @param gridJobProvidedRole
+     *            The provided role for the GridJob component that is used to execute this job's
+     *            resource demands.
+     * @param gridJobAssembly
+     *            The assembly context of the GridJob component inside of the compute job component.
+     * @return The new basic component created from the job type description.
+     */
+    private BasicComponent addJobComponentWithProvidedInterface(Repository repository, JobComponentParts parts,
+            CompositeComponent computeJob, Stereotype stereotypeToApply, OperationInterface requiredJobInterface,
+            OperationProvidedRole gridJobProvidedRole, AssemblyContext gridJobAssembly) {
+
+        JobTypeDescription jobType = parts.jobType;
+        String jobTypeName = jobType.getTypeName();
+        BasicComponent component = parts.component;
+
+        repository.getComponents__Repository().add(component);
+
+        if (stereotypeToApply != null) {
+            StereotypeAPI.applyStereotype(component, stereotypeToApply);
+            applyJobTypeTaggedValues(component, jobType);
+        }
+
+        // Add the interface to instance variable for later use
+        jobInterfaces.put(jobTypeName, parts.typeInterface);
+
+        repository.getInterfaces__Repository().add(parts.typeInterface);
+
+        // Store for later use in Usage Model
+        jobSignatures.put(jobTypeName, parts.signature);
+
+        // Set the interface for the required role
+        parts.requiredRole.setRequiredInterface__OperationRequiredRole(requiredJobInterface);
+
+        // Save for duplicated monitors
+        this.externalCallActions.put(jobTypeName, parts.externalCall);
+
+        // Add component to computing job component
+        parts.assembly.setParentStructure__AssemblyContext(computeJob);
+
+        computeJob.getProvidedRoles_InterfaceProvidingEntity().add(parts.compositeRole);
+
+        providedRolesComputeJobAssembly.put(jobTypeName, parts.compositeRole);
+
+        parts.delegationConnector.setParentStructure__Connector(computeJob);
+
+        // Connect basic component and grid job component
+        AssemblyConnector gridJobConnector = parts.gridJobConnector;
+        gridJobConnector.setProvidedRole_AssemblyConnector(gridJobProvidedRole);
         gridJobConnector.setProvidingAssemblyContext_AssemblyConnector(gridJobAssembly);
-        gridJobConnector.setRequiringAssemblyContext_AssemblyConnector(assembly);
 
         gridJobConnector.setParentStructure__Connector(computeJob);
 
@@ -909,7 +1469,15 @@ public class WLCGModelConstructor {
     @SuppressWarnings("unchecked")
     private <T> T loadModel(final URI modelsPath, String modelFileName, ResourceSet resourceSet, Class<T> modelClass) {
         URI modelPath = modelsPath.appendSegment(modelFileName);
-        Resource resource = resourceSet.getResource(modelPath, true);
+        Resource resource;
+
+        try (ConstructionMetrics.Timer timer = this.metrics.time(PHASE_LOAD, modelFileName)) {
+            resource = resourceSet.getResource(modelPath, true);
+
+            // Index all IDs once so that blueprint elements can be found without traversing the model
+            ModelConstructionUtils.indexIds(resource);
+        }
+        this.metrics.count(PHASE_LOAD, "models", 1);
 
         openedResources.add(resource);
 
@@ -923,6 +1491,177 @@ public class WLCGModelConstructor {
         return repository;
     }
 
+    /**
+     * Remove the model files that have been replaced by files in another format and update the
+     * references of the experiments model to them. Failures are added to the save report.
+     *
+     * @param uriConverter
+     *            The URI converter used to access the files.
+     * @param modelsPath
+     *            The path to the models.
+     * @param replacedModels
+     *            The locations of the replaced model files.
+     * @param format
+     *            The format the models have been saved in.
+     * @param saveReport
+     *            The report of saving the models.
+     */
+    private static void replaceModelFiles(URIConverter uriConverter, URI modelsPath, List<URI> replacedModels,
+            ModelSerializationFormat format, ModelSaveReport saveReport) {
+
+        for (URI replacedModel : replacedModels) {
+            try {
+                if (uriConverter.exists(replacedModel, null)) {
+                    uriConverter.delete(replacedModel, null);
+                }
+            } catch (IOException e) {
+                saveReport.add(new ModelSaveReport.Entry(replacedModel, ModelSaveReport.Status.FAILED, 0, 0, 0, e));
+            }
+        }
+
+        URI experimentsURI = modelsPath.appendSegment(ExperimentModelGenerator.EXPERIMENTS_FILENAME);
+        if (uriConverter.exists(experimentsURI, null)) {
+            try {
+                ExperimentModelGenerator.updateModelReferences(uriConverter, experimentsURI, CONSTRUCTED_MODEL_FILES,
+                        format);
+            } catch (IOException e) {
+                saveReport.add(new ModelSaveReport.Entry(experimentsURI, ModelSaveReport.Status.FAILED, 0, 0, 0, e));
+            }
+        }
+    }
+
+    /**
+     * Count model elements including all of their contained elements.
+     *
+     * @param elements
+     *            The elements to count.
+     * @return The number of elements and their contents.
+     */
+    static long countElements(EObject... elements) {
+        return countElements(Arrays.asList(elements));
+    }
+
+    /**
+     * Count model elements including all of their contained elements.
+     *
+     * @param elements
+     *            The elements to count.
+     * @return The number of elements and their contents.
+     */
+    static long countElements(Collection<? extends EObject> elements) {
+        long count = 0;
+        for (EObject element : elements) {
+            count++;
+            for (TreeIterator<EObject> contents = element.eAllContents(); contents.hasNext(); contents.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the path the IDs of the model elements built for a job type are derived from. Job type
+     * names are unique, so the path consists of the ID of the blueprint job component and the name.
+     *
+     * @param jobTypeName
+     *            The name of the job type.
+     * @return The path of the job type.
+     */
+    static String jobTypePath(String jobTypeName) {
+        return BLUEPRINT_JOB_COMPONENT_ID + "/jobType/" + jobTypeName;
+    }
+
+    /**
+     * Get the paths the IDs of the model elements built for the node types are derived from. The
+     * path of a node type consists of the ID of the blueprint resource container and the name of
+     * the node type. Node type names do not have to be unique, so repeated names are numbered in
+     * the order of the node types.
+     *
+     * @param nodeTypes
+     *            The node types of the model.
+     * @return A map from each node type description to its path.
+     */
+    static Map<NodeTypeDescription, String> nodeTypePaths(List<NodeTypeDescription> nodeTypes) {
+        Map<NodeTypeDescription, String> paths = new IdentityHashMap<>();
+        Map<String, Integer> occurrences = new HashMap<>();
+
+        for (NodeTypeDescription nodeType : nodeTypes) {
+            String path = BLUEPRINT_NODE + "/nodeType/" + nodeType.getName();
+            int occurrence = occurrences.merge(path, 1, Integer::sum);
+            paths.put(nodeType, occurrence > 1 ? path + "#" + occurrence : path);
+        }
+        return paths;
+    }
+
+    /**
+     * Get the ID of the resource container built for a node type, which is the ID the copier
+     * derives from the node type path for the copy of the blueprint container.
+     *
+     * @param nodeTypePath
+     *            The path of the node type, see {@link #nodeTypePaths(List)}.
+     * @return The ID of the resource container.
+     */
+    static String nodeTypeContainerId(String nodeTypePath) {
+        return IdMappingCopier.deterministicIds(nodeTypePath).newId(null, BLUEPRINT_NODE);
+    }
+
+    /**
+     * Find a blueprint element by its ID in the resource that contains the provided model element.
+     *
+     * @param model
+     *            An element of the model to be searched, usually its root element.
+     * @param id
+     *            The ID of the blueprint element.
+     * @param objectClass
+     *            The expected class of the blueprint element.
+     * @param <T>
+     *            The type of the blueprint element.
+     * @return The blueprint element, or null if there is no such element of the expected class.
+     */
+    private static <T extends EObject> T findBlueprintObject(EObject model, String id, Class<T> objectClass) {
+        return ModelConstructionUtils.findObjectWithId(model.eResource(), id, objectClass);
+    }
+
+    /**
+     * The model elements built for a single job type before they are added to the models.
+     */
+    private static class JobComponentParts {
+        private final JobTypeDescription jobType;
+
+        private BasicComponent component;
+        private OperationInterface typeInterface;
+        private OperationSignature signature;
+        private OperationRequiredRole requiredRole;
+        private ExternalCallAction externalCall;
+        private AssemblyContext assembly;
+        private OperationProvidedRole compositeRole;
+        private ProvidedDelegationConnector delegationConnector;
+        private AssemblyConnector gridJobConnector;
+
+        JobComponentParts(JobTypeDescription jobType) {
+            this.jobType = jobType;
+        }
+    }
+
+    /**
+     * The model elements built for a single node type before they are added to the models.
+     */
+    private static class NodeTypeParts {
+        private final NodeTypeDescription nodeType;
+        private final String path;
+        private final ResourceContainer container;
+
+        private final List<ResourceContainer> replicas = new ArrayList<>();
+        private final List<ActiveResourceMeasuringPoint> measuringPoints = new ArrayList<>();
+        private final List<Monitor> monitors = new ArrayList<>();
+
+        NodeTypeParts(NodeTypeDescription nodeType, String path, ResourceContainer container) {
+            this.nodeType = nodeType;
+            this.path = path;
+            this.container = container;
+        }
+    }
+
     /**
      * Throw an exception indicating a blueprint model does not match the expected structure.
      *
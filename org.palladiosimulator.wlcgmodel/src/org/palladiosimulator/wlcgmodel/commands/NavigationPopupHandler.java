@@ -80,17 +80,33 @@ public class NavigationPopupHandler extends AbstractHandler {
         File nodeDescriptionFile = nodePath.toFile();
         File jobDescriptionFile = jobPath.toFile();
 
-        boolean userConfirmedOverwrite = MessageDialog.openQuestion(this.window.getShell(), "Overwrite model files?",
-                "This operation overwrites all conflicting model files in this project. Proceed?");
-        if (!userConfirmedOverwrite) {
-            // User aborted operation, do not try to complete models
-            return null;
+        boolean updateIncrementally = false;
+        if (BlueprintModelImport.hasConstructionParameterRecord(selectedProject)) {
+            updateIncrementally = MessageDialog.openQuestion(this.window.getShell(), "Update existing models?",
+                    "This project contains previously constructed models. "
+                            + "Apply only the changed parameters to them?\n\n"
+                            + "The models are constructed again if node or job types were added or removed.");
+        }
+
+        if (!updateIncrementally) {
+            boolean userConfirmedOverwrite = MessageDialog.openQuestion(this.window.getShell(),
+                    "Overwrite model files?",
+                    "This operation overwrites all conflicting model files in this project. Proceed?");
+            if (!userConfirmedOverwrite) {
+                // User aborted operation, do not try to complete models
+                return null;
+            }
         }
 
         boolean modelCompletionSuccess = false;
         try {
-            modelCompletionSuccess = BlueprintModelImport.importAndCompleteBlueprintModel(selectedProject, Config.MODEL_BLUEPRINT_URI,
-                    nodeDescriptionFile, jobDescriptionFile);
+            if (updateIncrementally) {
+                modelCompletionSuccess = BlueprintModelImport.updateBlueprintModel(selectedProject,
+                        Config.MODEL_BLUEPRINT_URI, nodeDescriptionFile, jobDescriptionFile);
+            } else {
+                modelCompletionSuccess = BlueprintModelImport.importAndCompleteBlueprintModel(selectedProject,
+                        Config.MODEL_BLUEPRINT_URI, nodeDescriptionFile, jobDescriptionFile);
+            }
         } catch (Exception e) {
             // TODO Show more meaningful error here
             showError("Error while completing the model:\n\n" + e.toString() + "\n" + e.getMessage());
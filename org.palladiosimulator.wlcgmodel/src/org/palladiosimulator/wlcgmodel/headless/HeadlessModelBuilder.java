@@ -0,0 +1,455 @@
+package org.palladiosimulator.wlcgmodel.headless;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.palladiosimulator.wlcgmodel.BlueprintModelImport;
+import org.palladiosimulator.wlcgmodel.DemandDistributionCompaction;
+import org.palladiosimulator.wlcgmodel.ExperimentConfiguration;
+import org.palladiosimulator.wlcgmodel.JobTypeFolding;
+import org.palladiosimulator.wlcgmodel.ModelConstructionOptions;
+import org.palladiosimulator.wlcgmodel.ModelSerializationFormat;
+import org.palladiosimulator.wlcgmodel.ModelSizeEstimate;
+import org.palladiosimulator.wlcgmodel.MonitorAggregation;
+import org.palladiosimulator.wlcgmodel.MonitorKind;
+import org.palladiosimulator.wlcgmodel.MonitoringGranularity;
+import org.palladiosimulator.wlcgmodel.NodeTypeCoarsening;
+
+/**
+ * Command line entry point that constructs a calibrated WLCG simulation model without an Eclipse
+ * workbench. Only EMF and the model bundles are required on the class path.
+ *
+ * Usage: <code>HeadlessModelBuilder [--parallel] [--incremental] [--binary] [--expand-replicas]
+ * [--dry-run] [--monitoring=per-core|aggregated|none] [--aggregate=&lt;kind&gt;:&lt;statistic&gt;:&lt;window&gt;]...
+ * [--compact-pdfs=&lt;bins&gt;[:&lt;KS distance&gt;]] [--coarsen-nodes=&lt;tolerance&gt;]
+ * [--fold-jobs=&lt;share&gt;] [--cache=&lt;directory&gt;] [--cache-size=&lt;entries&gt;]
+ * [--metrics-report=&lt;file&gt;]
+ * [--repetitions=&lt;n&gt;] [--seed=&lt;seed&gt;] [--simulation-time=&lt;seconds&gt;]
+ * [--datasource=file|memory] &lt;blueprint directory&gt; &lt;nodes.json&gt; &lt;jobs.json&gt;
+ * &lt;output directory&gt;</code>
+ *
+ * With <code>--dry-run</code>, the size and simulation cost of the model are only predicted and
+ * nothing is written. The output directory can be omitted in this case.
+ *
+ * @author Maximilian Stemmer-Grabow
+ */
+public final class HeadlessModelBuilder {
+
+    private static final int EXIT_SUCCESS = 0;
+    private static final int EXIT_USAGE_ERROR = 1;
+    private static final int EXIT_CONSTRUCTION_ERROR = 2;
+
+    private static final String PARALLEL_FLAG = "--parallel";
+    private static final String INCREMENTAL_FLAG = "--incremental";
+    private static final String BINARY_FLAG = "--binary";
+    private static final String EXPAND_REPLICAS_FLAG = "--expand-replicas";
+    private static final String DRY_RUN_FLAG = "--dry-run";
+    private static final String MONITORING_FLAG = "--monitoring=";
+    private static final String AGGREGATE_FLAG = "--aggregate=";
+    private static final String COMPACT_PDFS_FLAG = "--compact-pdfs=";
+    private static final String COARSEN_NODES_FLAG = "--coarsen-nodes=";
+    private static final String FOLD_JOBS_FLAG = "--fold-jobs=";
+    private static final String CACHE_FLAG = "--cache=";
+    private static final String CACHE_SIZE_FLAG = "--cache-size=";
+    private static final String METRICS_REPORT_FLAG = "--metrics-report=";
+    private static final String REPETITIONS_FLAG = "--repetitions=";
+    private static final String SEED_FLAG = "--seed=";
+    private static final String SIMULATION_TIME_FLAG = "--simulation-time=";
+    private static final String DATASOURCE_FLAG = "--datasource=";
+
+    /**
+     * Do not allow instantiation of launcher class.
+     */
+    private HeadlessModelBuilder() {
+    }
+
+    /**
+     * Construct a simulation model from the blueprint and parameter files passed as arguments.
+     *
+     * @param args
+     *            Optional <code>--parallel</code>, <code>--incremental</code>,
+     *            <code>--binary</code>, <code>--expand-replicas</code>, <code>--dry-run</code>,
+     *            <code>--monitoring</code>, <code>--aggregate</code>, <code>--compact-pdfs</code>,
+     *            <code>--coarsen-nodes</code>, <code>--fold-jobs</code>, <code>--cache</code>,
+     *            <code>--cache-size</code>, <code>--metrics-report</code> and experiment flags, the
+     *            blueprint directory, the node description file, the job description file and the
+     *            output directory.
+     */
+    public static void main(String[] args) {
+        ModelConstructionOptions options = new ModelConstructionOptions();
+        boolean incremental = false;
+        boolean dryRun = false;
+
+        int flagCount = 0;
+        while (flagCount < args.length && args[flagCount].startsWith("--")) {
+            if (PARALLEL_FLAG.equals(args[flagCount])) {
+                options.setParallelConstruction(true);
+            } else if (INCREMENTAL_FLAG.equals(args[flagCount])) {
+                incremental = true;
+            } else if (EXPAND_REPLICAS_FLAG.equals(args[flagCount])) {
+                options.setExpandReplicas(true);
+            } else if (BINARY_FLAG.equals(args[flagCount])) {
+                options.setSerializationFormat(ModelSerializationFormat.BINARY);
+            } else if (DRY_RUN_FLAG.equals(args[flagCount])) {
+                dryRun = true;
+            } else if (args[flagCount].startsWith(MONITORING_FLAG)) {
+                MonitoringGranularity granularity = parseMonitoringGranularity(
+                        args[flagCount].substring(MONITORING_FLAG.length()));
+                if (granularity == null) {
+                    printUsage();
+                    System.exit(EXIT_USAGE_ERROR);
+                }
+                options.setMonitoringGranularity(granularity);
+            } else if (args[flagCount].startsWith(AGGREGATE_FLAG)) {
+                if (!parseMonitorAggregation(args[flagCount].substring(AGGREGATE_FLAG.length()), options)) {
+                    printUsage();
+                    System.exit(EXIT_USAGE_ERROR);
+                }
+            } else if (args[flagCount].startsWith(COMPACT_PDFS_FLAG)) {
+                DemandDistributionCompaction compaction = parseDemandCompaction(
+                        args[flagCount].substring(COMPACT_PDFS_FLAG.length()));
+                if (compaction == null) {
+                    printUsage();
+                    System.exit(EXIT_USAGE_ERROR);
+                }
+                options.setDemandCompaction(compaction);
+            } else if (args[flagCount].startsWith(COARSEN_NODES_FLAG)) {
+                try {
+                    options.setNodeTypeCoarsening(new NodeTypeCoarsening(
+                            Double.parseDouble(args[flagCount].substring(COARSEN_NODES_FLAG.length()))));
+                } catch (IllegalArgumentException e) {
+                    printUsage();
+                    System.exit(EXIT_USAGE_ERROR);
+                }
+            } else if (args[flagCount].startsWith(FOLD_JOBS_FLAG)) {
+                try {
+                    options.setJobTypeFolding(new JobTypeFolding(
+                            Double.parseDouble(args[flagCount].substring(FOLD_JOBS_FLAG.length()))));
+                } catch (IllegalArgumentException e) {
+                    printUsage();
+                    System.exit(EXIT_USAGE_ERROR);
+                }
+            } else if (args[flagCount].startsWith(CACHE_FLAG)) {
+                options.setModelCacheDirectory(new File(args[flagCount].substring(CACHE_FLAG.length())));
+            } else if (args[flagCount].startsWith(CACHE_SIZE_FLAG)) {
+                int cacheSize = parsePositiveInt(args[flagCount].substring(CACHE_SIZE_FLAG.length()));
+                if (cacheSize < 1) {
+                    printUsage();
+                    System.exit(EXIT_USAGE_ERROR);
+                }
+                options.setModelCacheSize(cacheSize);
+            } else if (args[flagCount].startsWith(METRICS_REPORT_FLAG)) {
+                options.setMetricsReportFile(new File(args[flagCount].substring(METRICS_REPORT_FLAG.length())));
+            } else if (isExperimentFlag(args[flagCount])) {
+                if (!parseExperimentFlag(args[flagCount], options)) {
+                    printUsage();
+                    System.exit(EXIT_USAGE_ERROR);
+                }
+            } else {
+                printUsage();
+                System.exit(EXIT_USAGE_ERROR);
+            }
+            flagCount++;
+        }
+        args = Arrays.copyOfRange(args, flagCount, args.length);
+
+        if (args.length != 4 && !(dryRun && args.length == 3)) {
+            printUsage();
+            System.exit(EXIT_USAGE_ERROR);
+        }
+
+        File blueprintDirectory = new File(args[0]);
+        File nodeDescriptionFile = new File(args[1]);
+        File jobDescriptionFile = new File(args[2]);
+
+        if (!blueprintDirectory.isDirectory()) {
+            System.out.println("Blueprint directory does not exist: " + blueprintDirectory);
+            System.exit(EXIT_USAGE_ERROR);
+        }
+
+        if (!nodeDescriptionFile.isFile() || !jobDescriptionFile.isFile()) {
+            System.out.println("Could not find parameter files " + nodeDescriptionFile + " and " + jobDescriptionFile);
+            System.exit(EXIT_USAGE_ERROR);
+        }
+
+        StandaloneEMFSetup.initialize();
+
+        if (dryRun) {
+            estimateModelSize(blueprintDirectory, nodeDescriptionFile, jobDescriptionFile, options);
+        }
+
+        File outputDirectory = new File(args[3]);
+        boolean success = false;
+        try {
+            if (incremental) {
+                success = BlueprintModelImport.updateBlueprintModel(blueprintDirectory, outputDirectory,
+                        nodeDescriptionFile, jobDescriptionFile, options);
+            } else {
+                success = BlueprintModelImport.importAndCompleteBlueprintModel(blueprintDirectory, outputDirectory,
+                        nodeDescriptionFile, jobDescriptionFile, options);
+            }
+        } catch (RuntimeException e) {
+            System.out.println("Error while completing the model: " + e);
+            e.printStackTrace();
+        }
+
+        if (!success) {
+            System.out.println("An error occurred while completing the model!");
+            System.exit(EXIT_CONSTRUCTION_ERROR);
+        }
+
+        System.out.println("Completed models written to " + outputDirectory.getAbsolutePath());
+        System.exit(EXIT_SUCCESS);
+    }
+
+    /**
+     * Predict the size and simulation cost of the model, print them and exit.
+     *
+     * @param blueprintDirectory
+     *            The directory containing the blueprint models.
+     * @param nodeDescriptionFile
+     *            The node description file.
+     * @param jobDescriptionFile
+     *            The job description file.
+     * @param options
+     *            The options the model would be constructed with.
+     */
+    private static void estimateModelSize(File blueprintDirectory, File nodeDescriptionFile,
+            File jobDescriptionFile, ModelConstructionOptions options) {
+
+        ModelSizeEstimate estimate = null;
+        try {
+            estimate = BlueprintModelImport.estimateModelSize(blueprintDirectory, nodeDescriptionFile,
+                    jobDescriptionFile, options);
+        } catch (RuntimeException e) {
+            System.out.println("Error while estimating the model size: " + e);
+            e.printStackTrace();
+        }
+
+        if (estimate == null) {
+            System.out.println("Could not estimate the model size!");
+            System.exit(EXIT_CONSTRUCTION_ERROR);
+        }
+
+        System.out.println(estimate);
+        System.exit(EXIT_SUCCESS);
+    }
+
+    /**
+     * Parse the value of the monitoring flag.
+     *
+     * @param value
+     *            The flag value, e.g. <code>per-core</code>.
+     * @return The monitoring granularity, or null if the value is invalid.
+     */
+    private static MonitoringGranularity parseMonitoringGranularity(String value) {
+        try {
+            return MonitoringGranularity.valueOf(value.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse the value of an aggregation flag, e.g. <code>cpu:arithmetic-mean:600</code>, and set
+     * the aggregation of the monitor kind in the construction options.
+     *
+     * @param value
+     *            The flag value, consisting of the monitor kind, the statistic and the window length
+     *            in simulated seconds.
+     * @param options
+     *            The construction options to configure.
+     * @return True if the value is valid, else false.
+     */
+    private static boolean parseMonitorAggregation(String value, ModelConstructionOptions options) {
+        String[] parts = value.split(":");
+        if (parts.length != 3) {
+            return false;
+        }
+
+        try {
+            MonitorKind kind = MonitorKind.valueOf(parts[0].toUpperCase().replace('-', '_'));
+            MonitorAggregation.Statistic statistic = MonitorAggregation.Statistic
+                    .valueOf(parts[1].toUpperCase().replace('-', '_'));
+            options.setMonitorAggregation(kind,
+                    MonitorAggregation.timeDriven(statistic, Double.parseDouble(parts[2])));
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parse the value of the PDF compaction flag, e.g. <code>16</code>, <code>16:0.01</code> or
+     * <code>:0.01</code>.
+     *
+     * @param value
+     *            The flag value, consisting of the target number of bins and an optional maximum
+     *            Kolmogorov-Smirnov distance. Either may be omitted.
+     * @return The compaction, or null if the value is invalid.
+     */
+    private static DemandDistributionCompaction parseDemandCompaction(String value) {
+        String[] parts = value.split(":", -1);
+        if (parts.length > 2) {
+            return null;
+        }
+
+        try {
+            int maxBins = parts[0].isEmpty() ? 0 : Integer.parseInt(parts[0]);
+            double maxKsDistance = parts.length < 2 || parts[1].isEmpty() ? Double.POSITIVE_INFINITY
+                    : Double.parseDouble(parts[1]);
+            return new DemandDistributionCompaction(maxBins, maxKsDistance);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Check whether an argument is one of the flags configuring the generated experiments.
+     *
+     * @param argument
+     *            The argument.
+     * @return True if the argument is an experiment flag, else false.
+     */
+    static boolean isExperimentFlag(String argument) {
+        return argument.startsWith(REPETITIONS_FLAG) || argument.startsWith(SEED_FLAG)
+                || argument.startsWith(SIMULATION_TIME_FLAG) || argument.startsWith(DATASOURCE_FLAG);
+    }
+
+    /**
+     * Parse a flag configuring the generated experiments and set it in the experiment
+     * configuration of the construction options, which is created by the first experiment flag.
+     *
+     * @param argument
+     *            The flag, e.g. <code>--repetitions=10</code>.
+     * @param options
+     *            The construction options to configure.
+     * @return True if the flag is valid, else false.
+     */
+    static boolean parseExperimentFlag(String argument, ModelConstructionOptions options) {
+        ExperimentConfiguration configuration = options.getExperimentConfiguration();
+        if (configuration == null) {
+            configuration = new ExperimentConfiguration();
+            options.setExperimentConfiguration(configuration);
+        }
+
+        if (argument.startsWith(REPETITIONS_FLAG)) {
+            int repetitions = parsePositiveInt(argument.substring(REPETITIONS_FLAG.length()));
+            configuration.setRepetitions(repetitions);
+            return repetitions >= 1;
+        }
+        if (argument.startsWith(SIMULATION_TIME_FLAG)) {
+            int simulationTime = parsePositiveInt(argument.substring(SIMULATION_TIME_FLAG.length()));
+            configuration.setSimulationTime(simulationTime);
+            return simulationTime >= 1;
+        }
+        if (argument.startsWith(DATASOURCE_FLAG)) {
+            try {
+                configuration.setDatasource(ExperimentConfiguration.Datasource
+                        .valueOf(argument.substring(DATASOURCE_FLAG.length()).toUpperCase()));
+                return true;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+        try {
+            configuration.setSeed(Long.parseLong(argument.substring(SEED_FLAG.length())));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Parse a positive integer flag value.
+     *
+     * @param value
+     *            The flag value.
+     * @return The value, or -1 if it is not a positive integer.
+     */
+    static int parsePositiveInt(String value) {
+        try {
+            return Math.max(-1, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Print usage information for the flags configuring the generated experiments.
+     */
+    static void printExperimentUsage() {
+        System.out.println("  --repetitions=<n>      generate an experiment with its own random seeds for each of <n> "
+                + "independent");
+        System.out.println("                         repetitions, instead of keeping the blueprint experiment");
+        System.out.println("  --seed=<seed>          seed the random seeds of the repetitions are derived from "
+                + "(default 0)");
+        System.out.println("  --simulation-time=<seconds>");
+        System.out.println("                         simulated time of each repetition (default 604800)");
+        System.out.println("  --datasource=<type>    store measurements in files (default, one directory per "
+                + "repetition) or memory");
+    }
+
+    /**
+     * Print usage information for the command line builder.
+     */
+    private static void printUsage() {
+        System.out.println("Usage: HeadlessModelBuilder [--parallel] [--incremental] [--binary] [--expand-replicas] "
+                + "[--dry-run] "
+                + "[--monitoring=per-core|aggregated|none] [--aggregate=<kind>:<statistic>:<window>]... "
+                + "[--compact-pdfs=<bins>[:<KS distance>]] [--coarsen-nodes=<tolerance>] [--fold-jobs=<share>] "
+                + "[--cache=<directory>] [--cache-size=<entries>] [--metrics-report=<file>] "
+                + "[--repetitions=<n>] [--seed=<seed>] [--simulation-time=<seconds>] [--datasource=file|memory] "
+                + "<blueprint directory> <nodes.json> <jobs.json> <output directory>");
+        System.out.println("  --parallel             build independent parts of the model concurrently");
+        System.out.println("  --incremental          only apply changed parameters to previously built models");
+        System.out.println("  --binary               save the constructed models in the binary EMF format, "
+                + "as *.emfbin files");
+        System.out.println("                         that the model editors cannot open");
+        System.out.println("  --expand-replicas      pre-materialize a resource container and allocation context "
+                + "for every node,");
+        System.out.println("                         the load balancing template still runs when each simulation "
+                + "starts");
+        System.out.println("  --dry-run              only print the predicted model size and simulation cost, "
+                + "the output");
+        System.out.println("                         directory can be omitted");
+        System.out.println("  --monitoring=<mode>    CPU monitoring per core (default), aggregated (overall "
+                + "utilization of");
+        System.out.println("                         all cores per node type), or none");
+        System.out.println("  --aggregate=<kind>:<statistic>:<window>");
+        System.out.println("                         store one value per time window of <window> simulated seconds "
+                + "for the monitors");
+        System.out.println("                         of kind cpu, system-operation or external-call, with statistic "
+                + "arithmetic-mean,");
+        System.out.println("                         geometric-mean, harmonic-mean or median");
+        System.out.println("  --compact-pdfs=<bins>[:<KS distance>]");
+        System.out.println("                         merge adjacent bins of the demand distributions down to at "
+                + "most <bins> bins");
+        System.out.println("                         (0 for no limit) while the Kolmogorov-Smirnov distance stays "
+                + "within <KS distance>");
+        System.out.println("                         (default unbounded), e.g. 32:0.01, distributions are not "
+                + "compacted by default");
+        System.out.println("  --coarsen-nodes=<tolerance>");
+        System.out.println("                         merge node types with the same cores and job slots whose "
+                + "computing rates differ");
+        System.out.println("                         by at most <tolerance>, e.g. 0.1 for 10%");
+        System.out.println("  --fold-jobs=<share>    fold job types with less than <share> of the relative "
+                + "frequency, e.g. 0.01,");
+        System.out.println("                         into a job type named other with mixed demand distributions");
+        System.out.println("  --cache=<directory>    reuse model sets constructed from identical input, cached in "
+                + "<directory>, no");
+        System.out.println("                         cache is used by default");
+        System.out.println("  --cache-size=<entries> keep at most <entries> model sets in the cache (default 16), "
+                + "deleting the least");
+        System.out.println("                         recently used ones");
+        System.out.println("  --metrics-report=<file>");
+        System.out.println("                         write the time and work of each construction phase to <file>, "
+                + "which should not");
+        System.out.println("                         be inside the output directory");
+        printExperimentUsage();
+        System.out.println("  <blueprint directory>  directory containing the blueprint models (blueprint-wlcg)");
+        System.out.println("  <nodes.json>           node type description file");
+        System.out.println("  <jobs.json>            job type description file");
+        System.out.println("  <output directory>     directory the completed models are written to");
+    }
+}
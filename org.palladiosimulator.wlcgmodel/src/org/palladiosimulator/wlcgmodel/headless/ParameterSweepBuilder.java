@@ -0,0 +1,185 @@
+package org.palladiosimulator.wlcgmodel.headless;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.palladiosimulator.wlcgmodel.BlueprintModelImport;
+import org.palladiosimulator.wlcgmodel.ModelConstructionOptions;
+import org.palladiosimulator.wlcgmodel.ModelSerializationFormat;
+import org.palladiosimulator.wlcgmodel.ParameterSweep;
+import org.palladiosimulator.wlcgmodel.SweepDimension;
+
+/**
+ * Command line entry point that constructs a model set for every variant of a parameter sweep,
+ * e.g. for what-if studies with scaled node counts or faster CPUs.
+ *
+ * Usage: <code>ParameterSweepBuilder [--threads=&lt;n&gt;] [--binary] [--expand-replicas]
+ * [--repetitions=&lt;n&gt;] [--seed=&lt;seed&gt;] [--simulation-time=&lt;seconds&gt;] [--datasource=file|memory]
+ * --sweep=&lt;dimension&gt;:&lt;factor&gt;,&lt;factor&gt;... ... &lt;blueprint directory&gt; &lt;nodes.json&gt;
+ * &lt;jobs.json&gt; &lt;output directory&gt;</code>
+ *
+ * The dimensions are <code>node-count</code>, <code>computing-rate</code> and
+ * <code>job-frequency/&lt;job type&gt;</code>. A variant is constructed for every combination of
+ * factors, e.g. <code>--sweep=node-count:0.5,1,2 --sweep=computing-rate:1,1.25</code> results in
+ * six variants. The experiment flags generate the experiments of every variant, see
+ * {@link HeadlessModelBuilder}.
+ *
+ * @author Maximilian Stemmer-Grabow
+ */
+public final class ParameterSweepBuilder {
+
+    private static final int EXIT_SUCCESS = 0;
+    private static final int EXIT_USAGE_ERROR = 1;
+    private static final int EXIT_CONSTRUCTION_ERROR = 2;
+
+    private static final String THREADS_FLAG = "--threads=";
+    private static final String BINARY_FLAG = "--binary";
+    private static final String EXPAND_REPLICAS_FLAG = "--expand-replicas";
+    private static final String SWEEP_FLAG = "--sweep=";
+
+    /**
+     * Do not allow instantiation of launcher class.
+     */
+    private ParameterSweepBuilder() {
+    }
+
+    /**
+     * Construct the variants of a parameter sweep from the blueprint and parameter files passed as
+     * arguments.
+     *
+     * @param args
+     *            Optional <code>--threads</code>, <code>--binary</code>, <code>--expand-replicas</code>
+     *            and experiment flags, at least one <code>--sweep</code> flag, the blueprint
+     *            directory, the node description file, the job description file and the output
+     *            directory.
+     */
+    public static void main(String[] args) {
+        ModelConstructionOptions options = new ModelConstructionOptions();
+        ParameterSweep sweep = new ParameterSweep();
+        boolean hasDimension = false;
+
+        int flagCount = 0;
+        while (flagCount < args.length && args[flagCount].startsWith("--")) {
+            try {
+                if (args[flagCount].startsWith(THREADS_FLAG)) {
+                    int threads = Integer.parseInt(args[flagCount].substring(THREADS_FLAG.length()));
+                    if (threads < 1) {
+                        throw new IllegalArgumentException("At least one thread is required.");
+                    }
+                    options.setParallelism(threads);
+                } else if (EXPAND_REPLICAS_FLAG.equals(args[flagCount])) {
+                    options.setExpandReplicas(true);
+                } else if (BINARY_FLAG.equals(args[flagCount])) {
+                    options.setSerializationFormat(ModelSerializationFormat.BINARY);
+                } else if (HeadlessModelBuilder.isExperimentFlag(args[flagCount])) {
+                    if (!HeadlessModelBuilder.parseExperimentFlag(args[flagCount], options)) {
+                        throw new IllegalArgumentException("Invalid flag " + args[flagCount] + ".");
+                    }
+                } else if (args[flagCount].startsWith(SWEEP_FLAG)) {
+                    addDimension(args[flagCount].substring(SWEEP_FLAG.length()), sweep);
+                    hasDimension = true;
+                } else {
+                    throw new IllegalArgumentException("Unknown flag " + args[flagCount] + ".");
+                }
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+                printUsage();
+                System.exit(EXIT_USAGE_ERROR);
+            }
+            flagCount++;
+        }
+        args = Arrays.copyOfRange(args, flagCount, args.length);
+
+        if (args.length != 4 || !hasDimension) {
+            printUsage();
+            System.exit(EXIT_USAGE_ERROR);
+        }
+
+        File blueprintDirectory = new File(args[0]);
+        File nodeDescriptionFile = new File(args[1]);
+        File jobDescriptionFile = new File(args[2]);
+        File outputDirectory = new File(args[3]);
+
+        if (!blueprintDirectory.isDirectory()) {
+            System.out.println("Blueprint directory does not exist: " + blueprintDirectory);
+            System.exit(EXIT_USAGE_ERROR);
+        }
+
+        if (!nodeDescriptionFile.isFile() || !jobDescriptionFile.isFile()) {
+            System.out.println("Could not find parameter files " + nodeDescriptionFile + " and " + jobDescriptionFile);
+            System.exit(EXIT_USAGE_ERROR);
+        }
+
+        StandaloneEMFSetup.initialize();
+
+        boolean success = false;
+        try {
+            success = BlueprintModelImport.sweepBlueprintModel(blueprintDirectory, outputDirectory,
+                    nodeDescriptionFile, jobDescriptionFile, sweep, options);
+        } catch (RuntimeException e) {
+            System.out.println("Error while constructing the sweep variants: " + e);
+            e.printStackTrace();
+        }
+
+        if (!success) {
+            System.out.println("An error occurred while constructing the sweep variants!");
+            System.exit(EXIT_CONSTRUCTION_ERROR);
+        }
+
+        System.out.println("Sweep written to " + new File(outputDirectory, ParameterSweep.MANIFEST_FILENAME)
+                .getAbsolutePath());
+        System.exit(EXIT_SUCCESS);
+    }
+
+    /**
+     * Parse the value of a sweep flag, e.g. <code>node-count:0.5,1,2</code>, and add the dimension
+     * to the sweep.
+     *
+     * @param value
+     *            The flag value, consisting of the dimension name and the comma separated factors.
+     * @param sweep
+     *            The sweep to add the dimension to.
+     * @throws IllegalArgumentException
+     *             Thrown if the value is invalid.
+     */
+    private static void addDimension(String value, ParameterSweep sweep) {
+        int separator = value.lastIndexOf(':');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Missing factors in sweep " + value + ".");
+        }
+
+        SweepDimension dimension = SweepDimension.forName(value.substring(0, separator));
+        double[] factors = Arrays.stream(value.substring(separator + 1).split(",")).map(String::trim)
+                .mapToDouble(Double::parseDouble).toArray();
+        sweep.addDimension(dimension, factors);
+    }
+
+    /**
+     * Print usage information for the sweep builder.
+     */
+    private static void printUsage() {
+        System.out.println("Usage: ParameterSweepBuilder [--threads=<n>] [--binary] [--expand-replicas] "
+                + "[--repetitions=<n>] [--seed=<seed>] [--simulation-time=<seconds>] [--datasource=file|memory] "
+                + "--sweep=<dimension>:<factor>,<factor>... ... "
+                + "<blueprint directory> <nodes.json> <jobs.json> <output directory>");
+        System.out.println("  --threads=<n>          number of variants constructed concurrently "
+                + "(default: available processors)");
+        System.out.println("  --binary               save the constructed models in the binary EMF format, "
+                + "as *.emfbin files");
+        System.out.println("                         that the model editors cannot open");
+        System.out.println("  --expand-replicas      pre-materialize a resource container and allocation context "
+                + "for every node,");
+        System.out.println("                         the load balancing template still runs when each simulation "
+                + "starts");
+        HeadlessModelBuilder.printExperimentUsage();
+        System.out.println("  --sweep=<dimension>:<factors>");
+        System.out.println("                         multiply a parameter with each of the comma separated factors, "
+                + "dimensions are");
+        System.out.println("                         node-count, computing-rate and job-frequency/<job type>");
+        System.out.println("  <blueprint directory>  directory containing the blueprint models (blueprint-wlcg)");
+        System.out.println("  <nodes.json>           base node type description file");
+        System.out.println("  <jobs.json>            base job type description file");
+        System.out.println("  <output directory>     directory the variant directories and "
+                + ParameterSweep.MANIFEST_FILENAME + " are written to");
+    }
+}
@@ -0,0 +1,190 @@
+package org.palladiosimulator.wlcgmodel.headless;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.palladiosimulator.wlcgmodel.BlueprintModelImport;
+import org.palladiosimulator.wlcgmodel.ModelSerializationFormat;
+import org.palladiosimulator.wlcgmodel.util.ModelSerialization;
+
+/**
+ * Command line benchmark that compares save and load times of constructed simulation models in the
+ * XMI and the binary EMF format.
+ *
+ * The models are constructed once from the blueprint and parameter files. They are then saved
+ * and loaded repeatedly in each format. The first repetition is used as warm-up and is not
+ * included in the results.
+ *
+ * Usage: <code>SerializationBenchmark &lt;blueprint directory&gt; &lt;nodes.json&gt; &lt;jobs.json&gt;
+ * &lt;work directory&gt; [repetitions]</code>
+ *
+ * @author Maximilian Stemmer-Grabow
+ */
+public final class SerializationBenchmark {
+
+    private static final int DEFAULT_REPETITIONS = 5;
+
+    /** File extensions of the models written by the model construction. */
+    private static final List<String> CONSTRUCTED_MODEL_EXTENSIONS = Arrays.asList("repository", "system",
+            "resourceenvironment", "allocation", "usagemodel", "monitorrepository", "measuringpoint");
+
+    /**
+     * Do not allow instantiation of launcher class.
+     */
+    private SerializationBenchmark() {
+    }
+
+    /**
+     * Run the serialization benchmark.
+     *
+     * @param args
+     *            The blueprint directory, the node description file, the job description file, a
+     *            work directory and optionally the number of repetitions.
+     * @throws IOException
+     *             Thrown if the models could not be saved or loaded.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4 && args.length != 5) {
+            System.out.println("Usage: SerializationBenchmark <blueprint directory> <nodes.json> <jobs.json> "
+                    + "<work directory> [repetitions]");
+            System.exit(1);
+        }
+
+        File blueprintDirectory = new File(args[0]);
+        File nodeDescriptionFile = new File(args[1]);
+        File jobDescriptionFile = new File(args[2]);
+        File workDirectory = new File(args[3]);
+        int repetitions = args.length == 5 ? Integer.parseInt(args[4]) : DEFAULT_REPETITIONS;
+
+        StandaloneEMFSetup.initialize();
+
+        File constructionDirectory = new File(workDirectory, "constructed");
+        if (!BlueprintModelImport.importAndCompleteBlueprintModel(blueprintDirectory, constructionDirectory,
+                nodeDescriptionFile, jobDescriptionFile)) {
+            System.out.println("Model construction failed!");
+            System.exit(2);
+        }
+
+        List<String> modelFiles = findConstructedModels(constructionDirectory.toPath());
+
+        System.out.println("Format  | save [ms] | load [ms] | size [bytes]");
+        for (ModelSerializationFormat format : ModelSerializationFormat.values()) {
+            File formatDirectory = new File(workDirectory, format.name().toLowerCase());
+
+            long saveNanos = 0;
+            long loadNanos = 0;
+
+            for (int i = 0; i <= repetitions; i++) {
+                long save = saveModels(constructionDirectory, formatDirectory, modelFiles, format);
+                long load = loadModels(formatDirectory, modelFiles);
+
+                // The first repetition is a warm-up
+                if (i > 0) {
+                    saveNanos += save;
+                    loadNanos += load;
+                }
+            }
+
+            long size = 0;
+            for (String modelFile : modelFiles) {
+                size += new File(formatDirectory, modelFile).length();
+            }
+
+            System.out.println(String.format("%-7s | %9.1f | %9.1f | %12d", format, saveNanos / 1e6 / repetitions,
+                    loadNanos / 1e6 / repetitions, size));
+        }
+    }
+
+    /**
+     * Load the constructed models and save them to a target directory in the given format.
+     *
+     * @param sourceDirectory
+     *            The directory containing the constructed models.
+     * @param targetDirectory
+     *            The directory the models are saved to.
+     * @param modelFiles
+     *            The paths of the model files relative to the directories.
+     * @param format
+     *            The format the models are saved in.
+     * @return The time it took to save the models in nanoseconds.
+     * @throws IOException
+     *             Thrown if a model could not be saved.
+     */
+    private static long saveModels(File sourceDirectory, File targetDirectory, List<String> modelFiles,
+            ModelSerializationFormat format) throws IOException {
+
+        ResourceSet resourceSet = ModelSerialization.createResourceSet();
+        List<Resource> resources = new ArrayList<>();
+
+        for (String modelFile : modelFiles) {
+            resources.add(resourceSet.getResource(fileURI(sourceDirectory, modelFile), true));
+        }
+
+        // Move all models at once so that references between them stay intact
+        for (int i = 0; i < modelFiles.size(); i++) {
+            File targetFile = new File(targetDirectory, modelFiles.get(i));
+            Files.createDirectories(targetFile.getParentFile().toPath());
+            resources.get(i).setURI(URI.createFileURI(targetFile.getAbsolutePath()));
+        }
+
+        Map<Object, Object> saveOptions = ModelSerialization.saveOptions(format);
+
+        long start = System.nanoTime();
+        for (Resource resource : resources) {
+            resource.save(saveOptions);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Load all models from a directory into a new resource set.
+     *
+     * @param directory
+     *            The directory containing the models.
+     * @param modelFiles
+     *            The paths of the model files relative to the directory.
+     * @return The time it took to load the models in nanoseconds.
+     */
+    private static long loadModels(File directory, List<String> modelFiles) {
+        ResourceSet resourceSet = ModelSerialization.createResourceSet();
+
+        long start = System.nanoTime();
+        for (String modelFile : modelFiles) {
+            resourceSet.getResource(fileURI(directory, modelFile), true);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Find the constructed models in a directory.
+     *
+     * @param directory
+     *            The directory to search.
+     * @return The paths of the model files relative to the directory.
+     * @throws IOException
+     *             Thrown if the directory could not be read.
+     */
+    private static List<String> findConstructedModels(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile).map(path -> directory.relativize(path).toString())
+                    .filter(path -> CONSTRUCTED_MODEL_EXTENSIONS
+                            .contains(path.substring(path.lastIndexOf('.') + 1)))
+                    .sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static URI fileURI(File directory, String relativePath) {
+        return URI.createFileURI(new File(directory, relativePath).getAbsolutePath());
+    }
+}
@@ -0,0 +1,70 @@
+package org.palladiosimulator.wlcgmodel.headless;
+
+import java.util.Map;
+
+import org.eclipse.emf.common.EMFPlugin;
+import org.eclipse.emf.ecore.plugin.EcorePlugin;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.palladiosimulator.edp2.models.measuringpoint.MeasuringpointPackage;
+import org.palladiosimulator.monitorrepository.MonitorRepositoryPackage;
+import org.palladiosimulator.pcm.PcmPackage;
+import org.palladiosimulator.pcmmeasuringpoint.PcmmeasuringpointPackage;
+
+/**
+ * Registers the Ecore packages, resource factories and URI mappings required to load and save WLCG
+ * simulation models with plain EMF, i.e. without a running OSGi framework or Eclipse workbench.
+ *
+ * Bundles required for model construction (PCM, monitor repository, measuring points, EMF
+ * profiles, load balancing catalog) are expected to be on the class path. Their
+ * <code>platform:/plugin</code> and <code>pathmap</code> locations are mapped to the class path
+ * entries.
+ *
+ * @author Maximilian Stemmer-Grabow
+ */
+public final class StandaloneEMFSetup {
+
+    /** File extensions of the model files contained in the blueprint model. */
+    private static final String[] MODEL_FILE_EXTENSIONS = { "repository", "system", "resourceenvironment",
+            "allocation", "usagemodel", "monitorrepository", "measuringpoint", "experiments", "resourcetype",
+            "metricspec", "emfprofile_diagram" };
+
+    private static boolean initialized = false;
+
+    /**
+     * Do not allow instantiation of utility class.
+     */
+    private StandaloneEMFSetup() {
+    }
+
+    /**
+     * Initialize EMF for standalone use. Calling this method multiple times or inside of a running
+     * Eclipse platform has no further effect.
+     */
+    public static synchronized void initialize() {
+        if (initialized || EMFPlugin.IS_ECLIPSE_RUNNING) {
+            return;
+        }
+
+        // Process the plugin.xml extensions (generated packages, parsers, pathmaps) of all bundles
+        // on the class path
+        EcorePlugin.ExtensionProcessor.process(null);
+
+        // Map platform:/plugin URIs to the bundles found on the class path
+        URIConverter.URI_MAP.putAll(EcorePlugin.computePlatformURIMap(true));
+
+        // Make sure all packages used by the constructed models are registered
+        PcmPackage.eINSTANCE.eClass();
+        MonitorRepositoryPackage.eINSTANCE.eClass();
+        MeasuringpointPackage.eINSTANCE.eClass();
+        PcmmeasuringpointPackage.eINSTANCE.eClass();
+
+        Map<String, Object> extensionToFactory = Resource.Factory.Registry.INSTANCE.getExtensionToFactoryMap();
+        for (String extension : MODEL_FILE_EXTENSIONS) {
+            extensionToFactory.putIfAbsent(extension, new XMIResourceFactoryImpl());
+        }
+
+        initialized = true;
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * Contains entry points to construct WLCG simulation models without a running Eclipse workbench,
+ * e.g. from the command line on build servers.
+ *
+ * @author Maximilian Stemmer-Grabow
+ */
+package org.palladiosimulator.wlcgmodel.headless;
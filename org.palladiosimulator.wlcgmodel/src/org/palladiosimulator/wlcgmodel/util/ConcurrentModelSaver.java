@@ -0,0 +1,151 @@
+package org.palladiosimulator.wlcgmodel.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+/**
+ * This class saves model resources concurrently. Each resource is serialized into a memory buffer
+ * first. The buffer is only written if it differs from the existing file, so unchanged model files
+ * keep their timestamps. Failures are reported per resource and do not prevent the remaining
+ * resources from being saved.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public final class ConcurrentModelSaver {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Do not allow instantiation of utility class.
+     */
+    private ConcurrentModelSaver() {
+    }
+
+    /**
+     * Save resources concurrently, skipping resources whose serialized content matches the
+     * existing file.
+     *
+     * All proxies of the resources are resolved before saving, so that serializing the resources
+     * concurrently does not modify them. The resources must not be changed while they are saved.
+     *
+     * @param resources
+     *            The resources to save.
+     * @param saveOptions
+     *            A function returning the save options for each resource.
+     * @param parallelism
+     *            The maximum number of resources to save concurrently.
+     * @return A report containing the outcome for each resource.
+     */
+    public static ModelSaveReport saveAll(List<Resource> resources,
+            Function<Resource, Map<Object, Object>> saveOptions, int parallelism) {
+
+        for (Resource resource : resources) {
+            EcoreUtil.resolveAll(resource);
+        }
+
+        List<ModelSaveReport.Entry> entries = ParallelExecutionHelper.mapOrdered(resources,
+                resource -> save(resource, saveOptions.apply(resource)), parallelism);
+
+        ModelSaveReport report = new ModelSaveReport();
+        entries.forEach(report::add);
+        return report;
+    }
+
+    /**
+     * Serialize a single resource and write it if its content changed.
+     *
+     * @param resource
+     *            The resource to save.
+     * @param options
+     *            The save options for the resource.
+     * @return The outcome of saving the resource.
+     */
+    private static ModelSaveReport.Entry save(Resource resource, Map<Object, Object> options) {
+        URI uri = resource.getURI();
+        URIConverter uriConverter = resource.getResourceSet() != null ? resource.getResourceSet().getURIConverter()
+                : URIConverter.INSTANCE;
+
+        long serializationStart = System.nanoTime();
+        byte[] content;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(BUFFER_SIZE);
+            resource.save(buffer, options);
+            content = buffer.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            return new ModelSaveReport.Entry(uri, ModelSaveReport.Status.FAILED, 0,
+                    System.nanoTime() - serializationStart, 0, e);
+        }
+        long serializationNanos = System.nanoTime() - serializationStart;
+
+        long writeStart = System.nanoTime();
+        try {
+            ModelSaveReport.Status status = ModelSaveReport.Status.UNCHANGED;
+
+            if (!hasContent(uriConverter, uri, content)) {
+                try (OutputStream stream = uriConverter.createOutputStream(uri, options)) {
+                    stream.write(content);
+                }
+                status = ModelSaveReport.Status.WRITTEN;
+            }
+
+            if (resource.isTrackingModification()) {
+                resource.setModified(false);
+            }
+
+            return new ModelSaveReport.Entry(uri, status, content.length, serializationNanos,
+                    System.nanoTime() - writeStart, null);
+        } catch (IOException | RuntimeException e) {
+            return new ModelSaveReport.Entry(uri, ModelSaveReport.Status.FAILED, content.length, serializationNanos,
+                    System.nanoTime() - writeStart, e);
+        }
+    }
+
+    /**
+     * Check whether the file at the given location exists and has exactly the given content.
+     *
+     * @param uriConverter
+     *            The URI converter used to read the file.
+     * @param uri
+     *            The location of the file.
+     * @param content
+     *            The expected content.
+     * @return True if the file has the expected content, else false.
+     * @throws IOException
+     *             Thrown if the existing file could not be read.
+     */
+    private static boolean hasContent(URIConverter uriConverter, URI uri, byte[] content) throws IOException {
+        if (!uriConverter.exists(uri, null)) {
+            return false;
+        }
+
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int position = 0;
+
+        try (InputStream stream = uriConverter.createInputStream(uri)) {
+            int count;
+            while ((count = stream.read(buffer)) >= 0) {
+                if (position + count > content.length) {
+                    return false;
+                }
+                for (int i = 0; i < count; i++) {
+                    if (buffer[i] != content[position + i]) {
+                        return false;
+                    }
+                }
+                position += count;
+            }
+        }
+        return position == content.length;
+    }
+}
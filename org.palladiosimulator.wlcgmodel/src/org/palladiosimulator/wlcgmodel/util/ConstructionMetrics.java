@@ -0,0 +1,283 @@
+package org.palladiosimulator.wlcgmodel.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.URIConverter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Instances of this class collect the time spent in each phase of the model construction together
+ * with counters describing the work done in the phase, e.g. the number of created model elements.
+ * The time spent for each node and job type is recorded separately, so that slow types can be
+ * identified.
+ *
+ * Phases, counters and type times may be recorded concurrently. If the Java Flight Recorder API and
+ * the <code>org.palladiosimulator.wlcgmodel.jfr</code> fragment containing the event class are
+ * available, each timed section is also emitted as a flight recorder event. The event class is only
+ * accessed by reflection, as this plugin is compiled without the flight recorder API.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class ConstructionMetrics {
+
+    // Provided by the flight recorder fragment
+    private static final String EVENT_CLASS_NAME = "org.palladiosimulator.wlcgmodel.util.ConstructionPhaseEvent";
+
+    private static final MethodHandle BEGIN_EVENT = findEventMethod("begin",
+            MethodType.methodType(Object.class, String.class, String.class));
+    private static final MethodHandle COMMIT_EVENT = BEGIN_EVENT == null ? null
+            : findEventMethod("commit", MethodType.methodType(void.class, Object.class));
+
+    private final Map<String, Phase> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final long creationNanos = System.nanoTime();
+
+    /**
+     * Construct a new empty metrics collection.
+     */
+    public ConstructionMetrics() {
+    }
+
+    /**
+     * Start timing a section of a construction phase. The time is added to the phase when the
+     * returned timer is closed, so a phase may consist of several timed sections.
+     *
+     * @param phase
+     *            The name of the phase.
+     * @return The running timer.
+     */
+    public Timer time(String phase) {
+        return time(phase, null);
+    }
+
+    /**
+     * Start timing the construction of a single node or job type within a phase. The time is added
+     * to the phase and to the type when the returned timer is closed.
+     *
+     * @param phase
+     *            The name of the phase.
+     * @param typeName
+     *            The name of the node or job type, or null if the section is not type specific.
+     * @return The running timer.
+     */
+    public Timer time(String phase, String typeName) {
+        return new Timer(getPhase(phase), typeName);
+    }
+
+    /**
+     * Add to a counter of a phase.
+     *
+     * @param phase
+     *            The name of the phase.
+     * @param counter
+     *            The name of the counter.
+     * @param delta
+     *            The value to add to the counter.
+     */
+    public void count(String phase, String counter, long delta) {
+        getPhase(phase).counters.computeIfAbsent(counter, name -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Get the value of a counter of a phase.
+     *
+     * @param phase
+     *            The name of the phase.
+     * @param counter
+     *            The name of the counter.
+     * @return The value of the counter, or 0 if nothing has been counted.
+     */
+    public long getCount(String phase, String counter) {
+        Phase recordedPhase = phases.get(phase);
+        LongAdder value = recordedPhase != null ? recordedPhase.counters.get(counter) : null;
+        return value != null ? value.sum() : 0;
+    }
+
+    /**
+     * Get the total time recorded for a phase.
+     *
+     * @param phase
+     *            The name of the phase.
+     * @return The time spent in the phase in nanoseconds, or 0 if the phase has not been timed.
+     */
+    public long getNanos(String phase) {
+        Phase recordedPhase = phases.get(phase);
+        return recordedPhase != null ? recordedPhase.nanos.sum() : 0;
+    }
+
+    /**
+     * @return the names of the recorded phases, in the order they were first recorded
+     */
+    public List<String> getPhaseNames() {
+        synchronized (phases) {
+            return new ArrayList<>(phases.keySet());
+        }
+    }
+
+    /**
+     * Write the metrics as a JSON report to the given location.
+     *
+     * @param uriConverter
+     *            The URI converter used to open the output stream.
+     * @param reportURI
+     *            The location of the report file.
+     * @throws IOException
+     *             Thrown if the report could not be written.
+     */
+    public void write(URIConverter uriConverter, URI reportURI) throws IOException {
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+        try (OutputStream stream = uriConverter.createOutputStream(reportURI);
+                Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8)) {
+            gson.toJson(toReport(), writer);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Construction phases:");
+        for (String phase : getPhaseNames()) {
+            builder.append(System.lineSeparator()).append(String.format("  %-20s %9.1f ms", phase,
+                    getNanos(phase) / 1e6));
+
+            Map<String, Long> counters = snapshot(phases.get(phase).counters);
+            if (!counters.isEmpty()) {
+                builder.append("  ").append(counters);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Create a snapshot of the metrics that can be serialized.
+     *
+     * @return The report as nested maps and lists.
+     */
+    private Map<String, Object> toReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("totalMillis", (System.nanoTime() - creationNanos) / 1e6);
+
+        List<Map<String, Object>> phaseReports = new ArrayList<>();
+        for (String phaseName : getPhaseNames()) {
+            Phase phase = phases.get(phaseName);
+
+            Map<String, Object> phaseReport = new LinkedHashMap<>();
+            phaseReport.put("name", phaseName);
+            phaseReport.put("millis", phase.nanos.sum() / 1e6);
+            phaseReport.put("counters", snapshot(phase.counters));
+
+            Map<String, Double> typeMillis = new LinkedHashMap<>();
+            snapshot(phase.typeNanos).forEach((type, nanos) -> typeMillis.put(type, nanos / 1e6));
+            phaseReport.put("typeMillis", typeMillis);
+
+            phaseReports.add(phaseReport);
+        }
+        report.put("phases", phaseReports);
+
+        return report;
+    }
+
+    private Phase getPhase(String phase) {
+        return phases.computeIfAbsent(phase, Phase::new);
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> values) {
+        Map<String, Long> result = new TreeMap<>();
+        values.forEach((name, value) -> result.put(name, value.sum()));
+        return result;
+    }
+
+    /**
+     * Find a static method of the flight recorder event class.
+     *
+     * @return The method, or null if the event class or the flight recorder API is not available.
+     */
+    private static MethodHandle findEventMethod(String name, MethodType type) {
+        try {
+            Class<?> eventClass = Class.forName(EVENT_CLASS_NAME, true, ConstructionMetrics.class.getClassLoader());
+            return MethodHandles.lookup().findStatic(eventClass, name, type);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Invoke a method of the flight recorder event class. The methods do not throw checked
+     * exceptions.
+     */
+    private static Object invokeEventMethod(MethodHandle method, Object... arguments) {
+        try {
+            return method.invokeWithArguments(arguments);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The metrics recorded for a single phase.
+     */
+    private static class Phase {
+        private final String name;
+        private final LongAdder nanos = new LongAdder();
+        private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> typeNanos = new ConcurrentHashMap<>();
+
+        Phase(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * A running timer for a section of a construction phase.
+     */
+    public final class Timer implements AutoCloseable {
+        private final Phase phase;
+        private final String typeName;
+        private final long start;
+        private final Object event;
+
+        private Timer(Phase phase, String typeName) {
+            this.phase = phase;
+            this.typeName = typeName;
+            this.event = BEGIN_EVENT != null && COMMIT_EVENT != null
+                    ? invokeEventMethod(BEGIN_EVENT, phase.name, typeName)
+                    : null;
+            this.start = System.nanoTime();
+        }
+
+        /**
+         * Stop the timer and add the elapsed time to its phase and type.
+         */
+        @Override
+        public void close() {
+            long elapsed = System.nanoTime() - start;
+            phase.nanos.add(elapsed);
+            if (typeName != null) {
+                phase.typeNanos.computeIfAbsent(typeName, name -> new LongAdder()).add(elapsed);
+            }
+            if (event != null) {
+                invokeEventMethod(COMMIT_EVENT, event);
+            }
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package org.palladiosimulator.wlcgmodel.util;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A probability density function given as a histogram, as described by the
+ * <code>DoublePDF[(x;p)...]</code> stochastic expressions in the parameter files. Each bin is
+ * described by its upper bound and its probability. The first bin starts at zero, each following
+ * bin at the upper bound of the previous one. The density is uniform within a bin, so the
+ * cumulative distribution function is linear between the bin bounds.
+ *
+ * Instances are immutable and keep the bins in primitive arrays.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public final class DoublePdf {
+
+    private static final int BOUND_SEARCH_ITERATIONS = 60;
+
+    private final double[] upperBounds;
+    private final double[] probabilities;
+    private final double[] cumulative;
+
+    /**
+     * Create a distribution from its bins.
+     *
+     * @param upperBounds
+     *            The upper bounds of the bins, which need to be strictly increasing and positive.
+     * @param probabilities
+     *            The probabilities of the bins, which must not be negative.
+     * @throws IllegalArgumentException
+     *             Thrown if the bins are invalid.
+     */
+    public DoublePdf(double[] upperBounds, double[] probabilities) {
+        if (upperBounds.length == 0 || upperBounds.length != probabilities.length) {
+            throw new IllegalArgumentException("A PDF needs the same positive number of bounds and probabilities.");
+        }
+
+        double lowerBound = 0;
+        double probabilitySum = 0;
+        for (int i = 0; i < upperBounds.length; i++) {
+            if (!(upperBounds[i] > lowerBound) || Double.isInfinite(upperBounds[i])) {
+                throw new IllegalArgumentException("PDF bin bounds need to be positive and strictly increasing.");
+            }
+            if (!(probabilities[i] >= 0) || Double.isInfinite(probabilities[i])) {
+                throw new IllegalArgumentException("PDF bin probabilities must not be negative.");
+            }
+            lowerBound = upperBounds[i];
+            probabilitySum += probabilities[i];
+        }
+        if (probabilitySum <= 0) {
+            throw new IllegalArgumentException("PDF bin probabilities sum up to zero.");
+        }
+
+        this.upperBounds = upperBounds.clone();
+        this.probabilities = probabilities.clone();
+        this.cumulative = normalizedCumulative(probabilities, probabilitySum);
+    }
+
+    /**
+     * Read a distribution from a stochastic expression, e.g.
+     * <code>DoublePDF[(10.0;0.5)(20.0;0.5)]</code>.
+     *
+     * @param specification
+     *            The stochastic expression.
+     * @return The distribution.
+     * @throws IllegalArgumentException
+     *             Thrown if the expression is not a valid probability density function.
+     */
+    public static DoublePdf parse(String specification) {
+        Map<Double, Double> samples = StoExParsingHelper.parseDoublePdf(specification);
+
+        double[] upperBounds = new double[samples.size()];
+        double[] probabilities = new double[samples.size()];
+        int i = 0;
+        for (Map.Entry<Double, Double> sample : samples.entrySet()) {
+            upperBounds[i] = sample.getKey();
+            probabilities[i] = sample.getValue();
+            i++;
+        }
+
+        try {
+            return new DoublePdf(upperBounds, probabilities);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(e.getMessage() + " " + specification, e);
+        }
+    }
+
+    /**
+     * @return the number of bins
+     */
+    public int size() {
+        return upperBounds.length;
+    }
+
+    /**
+     * @return the upper bounds of the bins
+     */
+    public double[] getUpperBounds() {
+        return upperBounds.clone();
+    }
+
+    /**
+     * @return the probabilities of the bins
+     */
+    public double[] getProbabilities() {
+        return probabilities.clone();
+    }
+
+    /**
+     * Compute the value of the cumulative distribution function. The probabilities are normalized,
+     * so the function reaches 1 at the upper bound of the last bin.
+     *
+     * @param x
+     *            The value.
+     * @return The probability of a sample not larger than the value.
+     */
+    public double cdf(double x) {
+        if (x <= 0) {
+            return 0;
+        }
+
+        int bin = Arrays.binarySearch(upperBounds, x);
+        if (bin >= 0) {
+            return cumulative[bin + 1];
+        }
+
+        bin = -bin - 1;
+        if (bin == upperBounds.length) {
+            return 1;
+        }
+        double lowerBound = bin == 0 ? 0 : upperBounds[bin - 1];
+        return cumulative[bin]
+                + (cumulative[bin + 1] - cumulative[bin]) * (x - lowerBound) / (upperBounds[bin] - lowerBound);
+    }
+
+    /**
+     * Compute the expected value. The density is uniform within a bin, so the value of a bin is its
+     * midpoint.
+     *
+     * @return The expected value.
+     */
+    public double mean() {
+        double mean = 0;
+        double lowerBound = 0;
+        for (int i = 0; i < upperBounds.length; i++) {
+            mean += (lowerBound + upperBounds[i]) / 2 * (cumulative[i + 1] - cumulative[i]);
+            lowerBound = upperBounds[i];
+        }
+        return mean;
+    }
+
+    /**
+     * Compute the Kolmogorov-Smirnov distance to another distribution, i.e. the largest absolute
+     * difference of their cumulative distribution functions. As both functions are linear between
+     * the bin bounds, it is sufficient to compare them at the bounds of both distributions.
+     *
+     * @param other
+     *            The other distribution.
+     * @return The distance, between 0 and 1.
+     */
+    public double ksDistance(DoublePdf other) {
+        double distance = 0;
+        for (double bound : upperBounds) {
+            distance = Math.max(distance, Math.abs(cdf(bound) - other.cdf(bound)));
+        }
+        for (double bound : other.upperBounds) {
+            distance = Math.max(distance, Math.abs(cdf(bound) - other.cdf(bound)));
+        }
+        return distance;
+    }
+
+    /**
+     * Merge adjacent bins to reduce the number of bins. The bins are merged down to the target
+     * number of bins, unless this would move the cumulative distribution function further than the
+     * maximum Kolmogorov-Smirnov distance away from this distribution. In that case, only as many
+     * bins are merged as the distance allows. The probabilities of the result are normalized.
+     *
+     * Bins are merged greedily from the lowest to the highest bin, so the result is not
+     * necessarily the best approximation with the target number of bins.
+     *
+     * @param maxBins
+     *            The target number of bins, or 0 to only limit the distance.
+     * @param maxKsDistance
+     *            The maximum Kolmogorov-Smirnov distance to this distribution, or
+     *            {@link Double#POSITIVE_INFINITY} to only limit the number of bins.
+     * @return The compacted distribution.
+     * @throws IllegalArgumentException
+     *             Thrown if the target number of bins or the maximum distance is negative.
+     */
+    public DoublePdf compact(int maxBins, double maxKsDistance) {
+        if (maxBins < 0 || !(maxKsDistance >= 0)) {
+            throw new IllegalArgumentException("Number of bins and distance must not be negative.");
+        }
+
+        if (maxBins > 0) {
+            // The number of bins decreases with the allowed distance, search the smallest distance
+            // that reaches the target
+            double lowerDistance = 0;
+            double upperDistance = 1;
+            if (countMergedBins(lowerDistance) <= maxBins) {
+                upperDistance = lowerDistance;
+            }
+            for (int i = 0; i < BOUND_SEARCH_ITERATIONS && upperDistance > lowerDistance; i++) {
+                double distance = (lowerDistance + upperDistance) / 2;
+                if (countMergedBins(distance) <= maxBins) {
+                    upperDistance = distance;
+                } else {
+                    lowerDistance = distance;
+                }
+            }
+
+            DoublePdf compacted = merge(upperDistance);
+            if (compacted.ksDistance(this) <= maxKsDistance) {
+                return compacted;
+            }
+        }
+
+        return merge(Math.min(maxKsDistance, 1));
+    }
+
+    /**
+     * Compute the weighted mixture of distributions, i.e. the distribution of a sample that is drawn
+     * from one of the distributions chosen with probability proportional to its weight. The bins of
+     * the mixture are bounded by the bin bounds of all distributions, so the mixture is exact.
+     *
+     * @param distributions
+     *            The distributions.
+     * @param weights
+     *            The weight of each distribution, which must not be negative.
+     * @return The mixture, with normalized probabilities.
+     * @throws IllegalArgumentException
+     *             Thrown if no distribution is given, the number of weights differs or the weights
+     *             sum up to zero.
+     */
+    public static DoublePdf mixture(DoublePdf[] distributions, double[] weights) {
+        if (distributions.length == 0 || distributions.length != weights.length) {
+            throw new IllegalArgumentException("A mixture needs the same positive number of PDFs and weights.");
+        }
+
+        double[] upperBounds = Arrays.stream(distributions).flatMapToDouble(pdf -> Arrays.stream(pdf.upperBounds))
+                .sorted().distinct().toArray();
+        double[] probabilities = new double[upperBounds.length];
+
+        for (int i = 0; i < distributions.length; i++) {
+            if (!(weights[i] >= 0) || Double.isInfinite(weights[i])) {
+                throw new IllegalArgumentException("Mixture weights must not be negative.");
+            }
+
+            double previous = 0;
+            for (int bin = 0; bin < upperBounds.length; bin++) {
+                double current = distributions[i].cdf(upperBounds[bin]);
+                probabilities[bin] += weights[i] * (current - previous);
+                previous = current;
+            }
+        }
+
+        double total = Arrays.stream(probabilities).sum();
+        if (!(total > 0)) {
+            throw new IllegalArgumentException("Mixture weights sum up to zero.");
+        }
+        for (int bin = 0; bin < probabilities.length; bin++) {
+            probabilities[bin] /= total;
+        }
+
+        return new DoublePdf(upperBounds, probabilities);
+    }
+
+    /**
+     * Format the distribution as a stochastic expression, e.g.
+     * <code>DoublePDF[(10;0.5)(20;0.5)]</code>. Numbers are written without exponent, as the
+     * stochastic expression grammar does not accept it.
+     *
+     * @return The stochastic expression.
+     */
+    public String toStoEx() {
+        StringBuilder builder = new StringBuilder("DoublePDF[");
+        for (int i = 0; i < upperBounds.length; i++) {
+            builder.append('(').append(format(upperBounds[i])).append(';').append(format(probabilities[i]))
+                    .append(')');
+        }
+        return builder.append(']').toString();
+    }
+
+    @Override
+    public String toString() {
+        return toStoEx();
+    }
+
+    /**
+     * Format a number for a stochastic expression. The number is written without exponent, as the
+     * stochastic expression grammar does not accept it, and without a trailing <code>.0</code>.
+     *
+     * @param value
+     *            The number.
+     * @return The formatted number, e.g. <code>0.0000001</code> instead of <code>1.0E-7</code>.
+     */
+    public static String format(double value) {
+        String formatted = BigDecimal.valueOf(value).toPlainString();
+        return formatted.endsWith(".0") ? formatted.substring(0, formatted.length() - 2) : formatted;
+    }
+
+    /**
+     * Compute the normalized cumulative probabilities at the bin bounds.
+     *
+     * @param probabilities
+     *            The probabilities of the bins.
+     * @param total
+     *            The sum of the probabilities.
+     * @return The cumulative probabilities, starting with 0 at the lower bound of the first bin and
+     *         ending with 1 at the upper bound of the last bin.
+     */
+    private static double[] normalizedCumulative(double[] probabilities, double total) {
+        double[] cumulative = new double[probabilities.length + 1];
+        double sum = 0;
+        for (int i = 0; i < probabilities.length; i++) {
+            sum += probabilities[i];
+            cumulative[i + 1] = sum / total;
+        }
+        cumulative[probabilities.length] = 1;
+        return cumulative;
+    }
+
+    /**
+     * Count the bins that remain after merging greedily with a maximum distance.
+     */
+    private int countMergedBins(double maxDistance) {
+        int bins = 0;
+        for (int first = 0; first < upperBounds.length; first = lastMergeableBin(first, maxDistance) + 1) {
+            bins++;
+        }
+        return bins;
+    }
+
+    /**
+     * Merge bins greedily, starting each merged bin at the lowest remaining bin and extending it as
+     * long as the maximum distance is kept.
+     */
+    private DoublePdf merge(double maxDistance) {
+        double[] mergedBounds = new double[upperBounds.length];
+        double[] mergedProbabilities = new double[upperBounds.length];
+        int bins = 0;
+
+        for (int first = 0; first < upperBounds.length;) {
+            int last = lastMergeableBin(first, maxDistance);
+            mergedBounds[bins] = upperBounds[last];
+            mergedProbabilities[bins] = cumulative[last + 1] - cumulative[first];
+            bins++;
+            first = last + 1;
+        }
+
+        return new DoublePdf(Arrays.copyOf(mergedBounds, bins), Arrays.copyOf(mergedProbabilities, bins));
+    }
+
+    /**
+     * Find the last bin that can be merged with the given first bin and all bins in between
+     * without exceeding the maximum distance.
+     */
+    private int lastMergeableBin(int first, double maxDistance) {
+        int last = first;
+        while (last + 1 < upperBounds.length && mergeError(first, last + 1) <= maxDistance) {
+            last++;
+        }
+        return last;
+    }
+
+    /**
+     * Compute the largest difference of the cumulative distribution function caused by merging the
+     * bins from first to last. The merged function is linear between the lower bound of the first
+     * and the upper bound of the last bin, so it only differs at the bounds in between.
+     */
+    private double mergeError(int first, int last) {
+        double lowerBound = first == 0 ? 0 : upperBounds[first - 1];
+        double width = upperBounds[last] - lowerBound;
+        double lowerCumulative = cumulative[first];
+        double probability = cumulative[last + 1] - lowerCumulative;
+
+        double error = 0;
+        for (int i = first; i < last; i++) {
+            double merged = lowerCumulative + probability * (upperBounds[i] - lowerBound) / width;
+            error = Math.max(error, Math.abs(cumulative[i + 1] - merged));
+        }
+        return error;
+    }
+}
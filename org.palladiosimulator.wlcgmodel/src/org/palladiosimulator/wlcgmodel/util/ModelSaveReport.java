@@ -0,0 +1,177 @@
+package org.palladiosimulator.wlcgmodel.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+
+/**
+ * Instances of this class describe the outcome of saving a set of model resources. Each resource
+ * is reported separately, so that a failure to save one resource does not hide the state of the
+ * others.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class ModelSaveReport {
+
+    /**
+     * The outcome of saving a single resource.
+     */
+    public enum Status {
+        /** The resource content changed and has been written. */
+        WRITTEN,
+
+        /** The serialized resource is identical to the existing file, which has not been touched. */
+        UNCHANGED,
+
+        /** The resource could not be serialized or written. */
+        FAILED
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Construct a new empty save report.
+     */
+    public ModelSaveReport() {
+    }
+
+    /**
+     * Add the outcome of saving a resource to the report.
+     *
+     * @param entry
+     *            The outcome of saving the resource.
+     */
+    public void add(Entry entry) {
+        this.entries.add(entry);
+    }
+
+    /**
+     * @return the outcomes of saving each resource, in the order the resources were passed
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * @return whether any resource could not be saved
+     */
+    public boolean hasErrors() {
+        return entries.stream().anyMatch(entry -> entry.getStatus() == Status.FAILED);
+    }
+
+    /**
+     * Count the resources with a certain outcome.
+     *
+     * @param status
+     *            The outcome to count.
+     * @return The number of resources with the outcome.
+     */
+    public long count(Status status) {
+        return entries.stream().filter(entry -> entry.getStatus() == status).count();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Saved ").append(entries.size()).append(" resources: ").append(count(Status.WRITTEN))
+                .append(" written, ").append(count(Status.UNCHANGED)).append(" unchanged, ")
+                .append(count(Status.FAILED)).append(" failed");
+
+        for (Entry entry : entries) {
+            builder.append(System.lineSeparator()).append("  ").append(entry);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * The outcome of saving a single resource.
+     */
+    public static class Entry {
+        private final URI uri;
+        private final Status status;
+        private final long bytes;
+        private final long serializationNanos;
+        private final long writeNanos;
+        private final Exception error;
+
+        /**
+         * Construct a new report entry.
+         *
+         * @param uri
+         *            The URI of the saved resource.
+         * @param status
+         *            The outcome of saving the resource.
+         * @param bytes
+         *            The size of the serialized resource in bytes.
+         * @param serializationNanos
+         *            The time spent serializing the resource in nanoseconds.
+         * @param writeNanos
+         *            The time spent comparing and writing the serialized resource in nanoseconds.
+         * @param error
+         *            The error that occurred while saving the resource, or null if it was saved.
+         */
+        public Entry(URI uri, Status status, long bytes, long serializationNanos, long writeNanos, Exception error) {
+            this.uri = uri;
+            this.status = status;
+            this.bytes = bytes;
+            this.serializationNanos = serializationNanos;
+            this.writeNanos = writeNanos;
+            this.error = error;
+        }
+
+        /**
+         * @return the URI of the saved resource
+         */
+        public URI getUri() {
+            return uri;
+        }
+
+        /**
+         * @return the outcome of saving the resource
+         */
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the size of the serialized resource in bytes
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the time spent serializing the resource in nanoseconds
+         */
+        public long getSerializationNanos() {
+            return serializationNanos;
+        }
+
+        /**
+         * @return the time spent comparing and writing the serialized resource in nanoseconds
+         */
+        public long getWriteNanos() {
+            return writeNanos;
+        }
+
+        /**
+         * @return the error that occurred while saving the resource, or null
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            String result = String.format("%-9s %s (%d bytes, serialized in %.1f ms, written in %.1f ms)", status,
+                    uri, bytes, serializationNanos / 1e6, writeNanos / 1e6);
+            if (error != null) {
+                result += ": " + error;
+            }
+            return result;
+        }
+    }
+}
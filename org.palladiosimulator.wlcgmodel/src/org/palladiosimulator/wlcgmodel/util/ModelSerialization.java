@@ -0,0 +1,201 @@
+package org.palladiosimulator.wlcgmodel.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.resource.impl.ResourceFactoryImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceImpl;
+import org.palladiosimulator.wlcgmodel.ModelSerializationFormat;
+
+/**
+ * This class contains methods to save simulation models in different formats and to load them
+ * independently of the format they were saved in.
+ *
+ * Models in the binary format are saved with the additional file extension
+ * {@value #BINARY_FILE_EXTENSION}, e.g. <code>jobs.repository.emfbin</code>. Tools that load
+ * models by their usual extension, like the Palladio editors, would otherwise try to read them as
+ * XMI. The plugin registers {@link BinaryResourceFactory} for this extension, so the simulator can
+ * load binary models inside of Eclipse. Tools outside of Eclipse need to register it themselves.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public final class ModelSerialization {
+
+    /** The signature at the start of files written in the binary EMF resource format. */
+    private static final byte[] BINARY_SIGNATURE = { (byte) 0x89, 'e', 'm', 'f', '\n', '\r', 0x1A, '\n' };
+
+    /** The file extension appended to the file names of models saved in the binary format. */
+    public static final String BINARY_FILE_EXTENSION = "emfbin";
+
+    /**
+     * Do not allow instantiation of utility class.
+     */
+    private ModelSerialization() {
+    }
+
+    /**
+     * Get the options to save a resource in the given format.
+     *
+     * @param format
+     *            The format the resource should be saved in.
+     * @return The save options, to be passed to {@link Resource#save(Map)}.
+     */
+    public static Map<Object, Object> saveOptions(ModelSerializationFormat format) {
+        if (format == ModelSerializationFormat.BINARY) {
+            return Collections.singletonMap(XMLResource.OPTION_BINARY, Boolean.TRUE);
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Get the location a model is saved to in the given format.
+     *
+     * @param uri
+     *            The location of the model in XMI format, e.g. <code>jobs.repository</code>.
+     * @param format
+     *            The format the model is saved in.
+     * @return The location with the binary file extension appended for the binary format, else the
+     *         unchanged location.
+     */
+    public static URI modelURI(URI uri, ModelSerializationFormat format) {
+        if (format == ModelSerializationFormat.BINARY && !isBinaryFileExtension(uri)) {
+            return uri.appendFileExtension(BINARY_FILE_EXTENSION);
+        }
+        return uri;
+    }
+
+    /**
+     * Find the location of a saved model, which may have been saved in either format.
+     *
+     * @param uriConverter
+     *            The URI converter used to check whether the model file exists.
+     * @param uri
+     *            The location of the model in XMI format.
+     * @return The location of the model in binary format if only this file exists, else the
+     *         location in XMI format.
+     */
+    public static URI existingModelURI(URIConverter uriConverter, URI uri) {
+        URI binaryURI = modelURI(uri, ModelSerializationFormat.BINARY);
+        if (!uriConverter.exists(uri, null) && uriConverter.exists(binaryURI, null)) {
+            return binaryURI;
+        }
+        return uri;
+    }
+
+    /**
+     * Create a resource set that detects the format of each model file when loading it, so that
+     * models in XMI and binary format can be loaded and referenced from each other. Files with the
+     * binary file extension are always read in binary format.
+     *
+     * @return A new resource set.
+     */
+    public static ResourceSet createResourceSet() {
+        ResourceSet resourceSet = new FormatDetectingResourceSet();
+        resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(BINARY_FILE_EXTENSION,
+                new BinaryResourceFactory());
+        return resourceSet;
+    }
+
+    /**
+     * Get the format a resource was loaded in. This is only known for resources loaded in a
+     * resource set created by {@link #createResourceSet()}.
+     *
+     * @param resource
+     *            The loaded resource.
+     * @return The format the resource was loaded in, XMI if it is not known.
+     */
+    public static ModelSerializationFormat getFormat(Resource resource) {
+        if (isBinaryFileExtension(resource.getURI())) {
+            return ModelSerializationFormat.BINARY;
+        }
+        if (resource.getResourceSet() instanceof FormatDetectingResourceSet
+                && ((FormatDetectingResourceSet) resource.getResourceSet()).binaryResources.contains(resource)) {
+            return ModelSerializationFormat.BINARY;
+        }
+        return ModelSerializationFormat.XMI;
+    }
+
+    /**
+     * Check whether the file at the given location is written in the binary EMF resource format.
+     *
+     * @param uriConverter
+     *            The URI converter used to open the file.
+     * @param uri
+     *            The location of the file.
+     * @return True if the file starts with the binary resource signature, else false.
+     * @throws IOException
+     *             Thrown if the file could not be read.
+     */
+    public static boolean isBinary(URIConverter uriConverter, URI uri) throws IOException {
+        byte[] header = new byte[BINARY_SIGNATURE.length];
+        int read = 0;
+
+        try (InputStream stream = uriConverter.createInputStream(uri)) {
+            while (read < header.length) {
+                int count = stream.read(header, read, header.length - read);
+                if (count < 0) {
+                    return false;
+                }
+                read += count;
+            }
+        }
+        return Arrays.equals(header, BINARY_SIGNATURE);
+    }
+
+    private static boolean isBinaryFileExtension(URI uri) {
+        return uri != null && BINARY_FILE_EXTENSION.equals(uri.fileExtension());
+    }
+
+    /**
+     * Resource factory for models saved with the binary file extension. The created resources load
+     * and save their contents in the binary format by default. The factory is registered for the
+     * extension in the plugin manifest, so any resource set in Eclipse can load binary models.
+     */
+    public static class BinaryResourceFactory extends ResourceFactoryImpl {
+
+        @Override
+        public Resource createResource(URI uri) {
+            XMIResourceImpl resource = new XMIResourceImpl(uri);
+            resource.getDefaultLoadOptions().put(XMLResource.OPTION_BINARY, Boolean.TRUE);
+            resource.getDefaultSaveOptions().put(XMLResource.OPTION_BINARY, Boolean.TRUE);
+            return resource;
+        }
+    }
+
+    /**
+     * Resource set that enables binary deserialization for model files that start with the binary
+     * resource signature.
+     */
+    private static class FormatDetectingResourceSet extends ResourceSetImpl {
+
+        private final Set<Resource> binaryResources = Collections.synchronizedSet(new HashSet<>());
+
+        @Override
+        protected void demandLoad(Resource resource) throws IOException {
+            URI uri = resource.getURI();
+
+            if (getURIConverter().exists(uri, null) && isBinary(getURIConverter(), uri)) {
+                Map<Object, Object> options = new HashMap<>(getLoadOptions());
+                options.put(XMLResource.OPTION_BINARY, Boolean.TRUE);
+
+                binaryResources.add(resource);
+                resource.load(options);
+            } else {
+                super.demandLoad(resource);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.palladiosimulator.wlcgmodel.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * This class contains convenience methods to execute independent construction steps concurrently.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public final class ParallelExecutionHelper {
+
+    /**
+     * Do not allow instantiation of utility class.
+     */
+    private ParallelExecutionHelper() {
+    }
+
+    /**
+     * Apply a function to each item of a list on a fork-join pool and return the results in the
+     * order of the items. If the parallelism is 1 or there is at most a single item, the function
+     * is applied sequentially in the calling thread.
+     *
+     * @param items
+     *            The items to be processed.
+     * @param function
+     *            The function to apply to each item. Must be safe to be executed concurrently for
+     *            different items.
+     * @param parallelism
+     *            The maximum number of threads to use.
+     * @param <S>
+     *            The type of the items.
+     * @param <T>
+     *            The type of the results.
+     * @return The results in the same order as the corresponding items.
+     */
+    public static <S, T> List<T> mapOrdered(List<S> items, Function<? super S, ? extends T> function,
+            int parallelism) {
+
+        List<T> results = new ArrayList<>(items.size());
+
+        if (parallelism <= 1 || items.size() <= 1) {
+            for (S item : items) {
+                results.add(function.apply(item));
+            }
+            return results;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, items.size()));
+        try {
+            List<ForkJoinTask<T>> tasks = new ArrayList<>(items.size());
+            for (S item : items) {
+                tasks.add(pool.submit(() -> function.apply(item)));
+            }
+
+            // Joining rethrows exceptions that occurred while processing an item
+            for (ForkJoinTask<T> task : tasks) {
+                results.add(task.join());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return results;
+    }
+}
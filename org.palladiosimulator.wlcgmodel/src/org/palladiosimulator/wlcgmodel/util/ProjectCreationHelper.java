@@ -12,6 +12,7 @@ import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
@@ -28,6 +29,39 @@ import org.palladiosimulator.wlcgmodel.Config;
  */
 public class ProjectCreationHelper {
 
+    /** The blueprint file containing the Sirius representations of the models. */
+    public static final String REPRESENTATIONS_FILENAME = "representations.aird";
+
+    /** The blueprint's Eclipse project description, which must not replace the target's description. */
+    public static final String PROJECT_DESCRIPTION_FILENAME = ".project";
+
+    /**
+     * Add the Sirius representations of the blueprint model to the target project, unless the
+     * project already contains representations. This only needs to be done before the models are
+     * opened in the Sirius editors, see {@link RepresentationsCreationListener}.
+     *
+     * @param path
+     *            The path of the blueprint files.
+     * @param target
+     *            The target project.
+     * @param replace
+     *            Whether existing representations are replaced by the blueprint representations.
+     * @param monitor
+     *            The progress monitor to be updated, may be null.
+     * @throws CoreException
+     *             Thrown if an error occurs during copying the representations.
+     */
+    public static void addRepresentationsToProject(final URI path, final IContainer target, final boolean replace,
+            final IProgressMonitor monitor) throws CoreException {
+        final IFile representations = target.getFile(new Path(REPRESENTATIONS_FILENAME));
+        if (representations.exists() && !replace) {
+            return;
+        }
+
+        final File source = FileHelper.getFile(path.appendSegment(REPRESENTATIONS_FILENAME).toString());
+        addFileToProject(source, representations, SubMonitor.convert(monitor));
+    }
+
     /**
      * Add the resources (files and directories) at the supplied path to the target project
      * recursively.
@@ -0,0 +1,133 @@
+package org.palladiosimulator.wlcgmodel.util;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.sirius.business.api.modelingproject.ModelingProject;
+import org.palladiosimulator.wlcgmodel.BlueprintModelImport;
+import org.palladiosimulator.wlcgmodel.Config;
+import org.palladiosimulator.wlcgmodel.ConstructionParameterRecord;
+
+/**
+ * Workspace listener that adds the blueprint Sirius representations to a WLCG model project on its
+ * first use in Sirius. The model import does not copy the representations, because they are not
+ * needed for the construction or the simulation.
+ *
+ * A project is first used in Sirius when it is converted to a modeling project, or when a modeling
+ * project is opened or completed with WLCG models. Projects without a construction parameter record
+ * are not WLCG model projects and are ignored. Representations that existed before are kept, but
+ * an empty representations file that Sirius creates during the conversion is replaced.
+ *
+ * Resources cannot be modified during change notifications, so the representations are copied in a
+ * separate workspace job.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public class RepresentationsCreationListener implements IResourceChangeListener {
+
+    @Override
+    public void resourceChanged(final IResourceChangeEvent event) {
+        final IResourceDelta delta = event.getDelta();
+        if (delta == null) {
+            return;
+        }
+
+        for (final IResourceDelta projectDelta : delta.getAffectedChildren()) {
+            final IProject project = (IProject) projectDelta.getResource();
+            if (isFirstSiriusUse(project, projectDelta)) {
+                scheduleRepresentationsCreation(project);
+            }
+        }
+    }
+
+    /**
+     * Check whether the supplied change makes a WLCG model project available to Sirius for the first
+     * time and the project does not have its own representations yet.
+     *
+     * @param project
+     *            The changed project.
+     * @param projectDelta
+     *            The changes of the project.
+     * @return True if the blueprint representations should be added to the project, else false.
+     */
+    private static boolean isFirstSiriusUse(final IProject project, final IResourceDelta projectDelta) {
+        if (!project.isOpen() || !isModelingProject(project)
+                || !BlueprintModelImport.hasConstructionParameterRecord(project)) {
+            return false;
+        }
+
+        final int flags = projectDelta.getFlags();
+        final boolean convertedOrOpened = projectDelta.getKind() == IResourceDelta.ADDED
+                || (flags & (IResourceDelta.DESCRIPTION | IResourceDelta.OPEN)) != 0;
+        final IResourceDelta recordDelta = projectDelta.findMember(new Path(ConstructionParameterRecord.FILENAME));
+        final boolean completed = recordDelta != null && recordDelta.getKind() == IResourceDelta.ADDED;
+        if (!convertedOrOpened && !completed) {
+            return false;
+        }
+
+        return isCreatedRepresentations(project, projectDelta);
+    }
+
+    /**
+     * Check whether the project has no representations file or its representations file was created
+     * by the supplied change, which is the case if Sirius creates an empty one while converting the
+     * project.
+     *
+     * @param project
+     *            The changed project.
+     * @param projectDelta
+     *            The changes of the project.
+     * @return True if the representations are missing or were created by the change, else false.
+     */
+    private static boolean isCreatedRepresentations(final IProject project, final IResourceDelta projectDelta) {
+        final IResourceDelta representationsDelta = projectDelta
+                .findMember(new Path(ProjectCreationHelper.REPRESENTATIONS_FILENAME));
+        return !project.getFile(ProjectCreationHelper.REPRESENTATIONS_FILENAME).exists()
+                || (representationsDelta != null && representationsDelta.getKind() == IResourceDelta.ADDED);
+    }
+
+    /**
+     * Check whether the project has the Sirius modeling project nature.
+     *
+     * @param project
+     *            The project to check.
+     * @return True if the project is a modeling project, else false.
+     */
+    private static boolean isModelingProject(final IProject project) {
+        try {
+            return project.hasNature(ModelingProject.NATURE_ID);
+        } catch (final CoreException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Copy the blueprint representations into the project in a workspace job. Representations
+     * created before the job runs, e.g. by the modeling project conversion, are replaced.
+     *
+     * @param project
+     *            The target project.
+     */
+    private static void scheduleRepresentationsCreation(final IProject project) {
+        final WorkspaceJob job = new WorkspaceJob("Adding WLCG model representations") {
+            @Override
+            public IStatus runInWorkspace(final IProgressMonitor monitor) throws CoreException {
+                if (project.isOpen()) {
+                    ProjectCreationHelper.addRepresentationsToProject(Config.MODEL_BLUEPRINT_URI, project, true,
+                            monitor);
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        job.setRule(project);
+        job.schedule();
+    }
+}
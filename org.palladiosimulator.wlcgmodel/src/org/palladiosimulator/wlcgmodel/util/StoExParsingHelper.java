@@ -0,0 +1,182 @@
+package org.palladiosimulator.wlcgmodel.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class contains methods to read values from the stochastic expressions used in the parameter
+ * files, without requiring the full StoEx parser.
+ *
+ * @author Maximilian Stemmer-Grabow
+ *
+ */
+public final class StoExParsingHelper {
+
+    private static final Pattern INT_PMF = Pattern.compile("\\s*IntPMF\\s*\\[(.*)\\]\\s*");
+    private static final Pattern INT_PMF_SAMPLE = Pattern.compile("\\s*\\(\\s*(-?\\d+)\\s*;\\s*([^)\\s]+)\\s*\\)");
+    private static final Pattern INT_LITERAL = Pattern.compile("\\s*(-?\\d+)\\s*");
+    private static final Pattern DOUBLE_PDF = Pattern.compile("\\s*DoublePDF\\s*\\[(.*)\\]\\s*");
+    private static final Pattern DOUBLE_PDF_SAMPLE = Pattern
+            .compile("\\s*\\(\\s*([^;\\s]+)\\s*;\\s*([^)\\s]+)\\s*\\)");
+
+    /**
+     * Do not allow instantiation of utility class.
+     */
+    private StoExParsingHelper() {
+    }
+
+    /**
+     * Read the samples of an integer probability mass function, e.g.
+     * <code>IntPMF[(1;0.99)(4;0.01)]</code>. A plain integer literal is read as a distribution
+     * containing only this value.
+     *
+     * @param specification
+     *            The stochastic expression.
+     * @return A map from the values of the distribution to their probabilities, in the order they
+     *         appear in the expression.
+     * @throws IllegalArgumentException
+     *             Thrown if the expression is neither an integer PMF nor an integer literal.
+     */
+    public static Map<Integer, Double> parseIntPmf(String specification) {
+        if (specification == null) {
+            throw new IllegalArgumentException("Missing stochastic expression.");
+        }
+
+        Map<Integer, Double> samples = new LinkedHashMap<>();
+
+        Matcher literal = INT_LITERAL.matcher(specification);
+        if (literal.matches()) {
+            samples.put(Integer.parseInt(literal.group(1)), 1.0);
+            return samples;
+        }
+
+        Matcher pmf = INT_PMF.matcher(specification);
+        if (!pmf.matches()) {
+            throw new IllegalArgumentException("Not an integer PMF: " + specification);
+        }
+
+        String sampleList = pmf.group(1);
+        Matcher sample = INT_PMF_SAMPLE.matcher(sampleList);
+        int position = 0;
+
+        while (sample.find() && sample.start() == position) {
+            try {
+                samples.merge(Integer.parseInt(sample.group(1)), Double.parseDouble(sample.group(2)), Double::sum);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid sample in integer PMF: " + specification, e);
+            }
+            position = sample.end();
+        }
+
+        if (!sampleList.substring(position).trim().isEmpty() || samples.isEmpty()) {
+            throw new IllegalArgumentException("Invalid integer PMF: " + specification);
+        }
+
+        return samples;
+    }
+
+    /**
+     * Check whether a stochastic expression is a probability density function, e.g.
+     * <code>DoublePDF[(10.0;0.5)(20.0;0.5)]</code>. The samples are not checked.
+     *
+     * @param specification
+     *            The stochastic expression, may be null.
+     * @return True if the expression is a probability density function, else false.
+     */
+    public static boolean isDoublePdf(String specification) {
+        return specification != null && DOUBLE_PDF.matcher(specification).matches();
+    }
+
+    /**
+     * Read the samples of a probability density function, e.g.
+     * <code>DoublePDF[(10.0;0.5)(20.0;0.5)]</code>. Each sample is the upper bound of an interval
+     * and the probability of the interval. The first interval starts at zero, each following
+     * interval at the upper bound of the previous one.
+     *
+     * @param specification
+     *            The stochastic expression.
+     * @return A map from the upper interval bounds to their probabilities, in the order they appear
+     *         in the expression.
+     * @throws IllegalArgumentException
+     *             Thrown if the expression is not a probability density function.
+     */
+    public static Map<Double, Double> parseDoublePdf(String specification) {
+        if (specification == null) {
+            throw new IllegalArgumentException("Missing stochastic expression.");
+        }
+
+        Matcher pdf = DOUBLE_PDF.matcher(specification);
+        if (!pdf.matches()) {
+            throw new IllegalArgumentException("Not a PDF: " + specification);
+        }
+
+        Map<Double, Double> samples = new LinkedHashMap<>();
+
+        String sampleList = pdf.group(1);
+        Matcher sample = DOUBLE_PDF_SAMPLE.matcher(sampleList);
+        int position = 0;
+
+        while (sample.find() && sample.start() == position) {
+            try {
+                samples.merge(Double.parseDouble(sample.group(1)), Double.parseDouble(sample.group(2)),
+                        Double::sum);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid sample in PDF: " + specification, e);
+            }
+            position = sample.end();
+        }
+
+        if (!sampleList.substring(position).trim().isEmpty() || samples.isEmpty()) {
+            throw new IllegalArgumentException("Invalid PDF: " + specification);
+        }
+
+        return samples;
+    }
+
+    /**
+     * Compute the expected value of a stochastic expression. Supported are number literals, integer
+     * PMFs and PDFs. The value of a PDF interval is assumed to be its midpoint. The probabilities
+     * are normalized, so rounding errors in the parameter files do not distort the result.
+     *
+     * @param specification
+     *            The stochastic expression.
+     * @return The expected value.
+     * @throws IllegalArgumentException
+     *             Thrown if the expression is not supported or its probabilities sum up to zero.
+     */
+    public static double mean(String specification) {
+        if (specification == null) {
+            throw new IllegalArgumentException("Missing stochastic expression.");
+        }
+
+        try {
+            return Double.parseDouble(specification.trim());
+        } catch (NumberFormatException e) {
+            // Not a literal, try the distributions
+        }
+
+        double weightedSum = 0;
+        double probabilitySum = 0;
+
+        if (isDoublePdf(specification)) {
+            double lowerBound = 0;
+            for (Map.Entry<Double, Double> sample : parseDoublePdf(specification).entrySet()) {
+                weightedSum += (lowerBound + sample.getKey()) / 2 * sample.getValue();
+                probabilitySum += sample.getValue();
+                lowerBound = sample.getKey();
+            }
+        } else {
+            for (Map.Entry<Integer, Double> sample : parseIntPmf(specification).entrySet()) {
+                weightedSum += sample.getKey() * sample.getValue();
+                probabilitySum += sample.getValue();
+            }
+        }
+
+        if (probabilitySum <= 0) {
+            throw new IllegalArgumentException("Probabilities sum up to zero: " + specification);
+        }
+        return weightedSum / probabilitySum;
+    }
+}
@@ -143,6 +143,7 @@ public class NewWLCGModelWizard extends Wizard implements INewWizard {
 
             }
 
+            // The representations are added by the RepresentationsCreationListener on conversion
             convertToModelingProject(projectHandle,
                     SubMonitor.convert(monitor, "Converting to Modeling Project", 2000));
         } finally {